@@ -0,0 +1,255 @@
+package academy.devdojo.catalog;
+
+import academy.devdojo.domain.Profile;
+import academy.devdojo.domain.VersionFingerprint;
+import academy.devdojo.exception.BadRequestException;
+import academy.devdojo.pagination.ScrollCursor;
+import academy.devdojo.repository.ProfileRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Every profile in memory as an immutable snapshot ordered by id, so reads never touch the database.
+// A save on this instance swaps in a copy holding the saved profile once it commits, refresh() compares the table
+// fingerprint to pick up changes made by other instances. Profiles of a snapshot are shared by all readers and never modified
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProfileCatalog implements MeterBinder {
+
+  public static final String ID = "id";
+  private static final Sort ID_ORDER = Sort.by(ID);
+
+  private final ProfileRepository repository;
+  private final ReentrantLock lock = new ReentrantLock();
+  private volatile Snapshot snapshot;
+  private volatile long verifiedAt;
+  private Counter reloadCounter;
+
+  public List<Profile> findAll() {
+    return current().profiles();
+  }
+
+  public Optional<Profile> findById(Long id) {
+    return Optional.ofNullable(current().byId().get(id));
+  }
+
+  public VersionFingerprint fingerprint() {
+    return current().fingerprint();
+  }
+
+  public Page<Profile> findPage(Pageable pageable) {
+    var profiles = sorted(current().profiles(), pageable.getSort());
+    return new PageImpl<>(content(profiles, pageable), pageable, profiles.size());
+  }
+
+  public Slice<Profile> findSlice(Pageable pageable) {
+    var profiles = sorted(current().profiles(), pageable.getSort());
+    var content = content(profiles, pageable);
+    var hasNext = pageable.isPaged() && pageable.getOffset() + content.size() < profiles.size();
+    return new SliceImpl<>(content, pageable, hasNext);
+  }
+
+  // Profiles after afterId, from the first one when it is null, with the window positions keyed by id
+  public Window<Profile> scroll(Long afterId, int size) {
+    var profiles = current().profiles();
+    var from = 0;
+    if (afterId != null) {
+      var index = indexOf(profiles, afterId);
+      from = index >= 0 ? index + 1 : -index - 1;
+    }
+    var rows = profiles.subList(from, Math.min(from + size + 1, profiles.size()));
+    return ScrollCursor.toWindow(rows, size, profile -> Map.of(ID, profile.getId()));
+  }
+
+  // Swaps in a snapshot with the saved profile once the transaction commits, a rolled back save never becomes visible
+  public void putAfterCommit(Profile profile) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      put(profile);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        put(profile);
+      }
+    });
+  }
+
+  // Reloads only when the table no longer matches the snapshot, the check is one aggregate over the primary key
+  public void refresh() {
+    var current = snapshot;
+    if (current != null && current.fingerprint().equals(repository.fingerprint())) {
+      verifiedAt = System.nanoTime();
+      return;
+    }
+    reload();
+  }
+
+  // The lock is held while reading the table, so a save that commits meanwhile is applied on top of the new snapshot
+  public void reload() {
+    lock.lock();
+    try {
+      snapshot = load();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("profiles.catalog.age", this, catalog -> catalog.age())
+        .description("Seconds since the profile catalog was last loaded or found up to date, NaN before the first load")
+        .baseUnit("seconds")
+        .register(registry);
+    Gauge.builder("profiles.catalog.size", this, catalog -> catalog.snapshot == null ? Double.NaN : catalog.snapshot.profiles().size())
+        .description("Profiles in the catalog snapshot")
+        .register(registry);
+    reloadCounter = Counter.builder("profiles.catalog.reloads")
+        .description("Times the profile catalog was read from the database")
+        .register(registry);
+  }
+
+  private Snapshot current() {
+    var current = snapshot;
+    if (current != null) {
+      return current;
+    }
+    lock.lock();
+    try {
+      if (snapshot == null) {
+        snapshot = load();
+      }
+      return snapshot;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private Snapshot load() {
+    var loaded = Snapshot.of(repository.findAll(ID_ORDER).stream().map(ProfileCatalog::copyOf).toList());
+    verifiedAt = System.nanoTime();
+    if (reloadCounter != null) {
+      reloadCounter.increment();
+    }
+    log.debug("Loaded '{}' profiles into the catalog", loaded.profiles().size());
+    return loaded;
+  }
+
+  private void put(Profile profile) {
+    lock.lock();
+    try {
+      var current = snapshot;
+      if (current == null) {
+        // Nothing loaded yet, the first read takes the profile from the table
+        return;
+      }
+      var profiles = new ArrayList<>(current.profiles());
+      var index = indexOf(profiles, profile.getId());
+      if (index >= 0) {
+        profiles.set(index, copyOf(profile));
+      } else {
+        profiles.add(-index - 1, copyOf(profile));
+      }
+      snapshot = Snapshot.of(profiles);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private double age() {
+    return snapshot == null ? Double.NaN : (System.nanoTime() - verifiedAt) / (double) TimeUnit.SECONDS.toNanos(1);
+  }
+
+  // Binary search on the id order, with the same result convention as Collections.binarySearch
+  private static int indexOf(List<Profile> profiles, long id) {
+    var low = 0;
+    var high = profiles.size() - 1;
+    while (low <= high) {
+      var middle = (low + high) >>> 1;
+      var middleId = profiles.get(middle).getId();
+      if (middleId < id) {
+        low = middle + 1;
+      } else if (middleId > id) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -(low + 1);
+  }
+
+  private static List<Profile> sorted(List<Profile> profiles, Sort sort) {
+    if (sort.isUnsorted() || sort.equals(ID_ORDER)) {
+      return profiles;
+    }
+    Comparator<Profile> comparator = null;
+    for (var order : sort) {
+      var next = comparator(order.getProperty());
+      next = order.isDescending() ? next.reversed() : next;
+      comparator = comparator == null ? next : comparator.thenComparing(next);
+    }
+    return profiles.stream().sorted(comparator.thenComparing(Profile::getId)).toList();
+  }
+
+  // Names compare case-insensitively like the column collation does
+  private static Comparator<Profile> comparator(String property) {
+    return switch (property) {
+      case ID -> Comparator.comparing(Profile::getId);
+      case "name" -> Comparator.comparing(Profile::getName, String.CASE_INSENSITIVE_ORDER);
+      case "description" -> Comparator.comparing(Profile::getDescription, String.CASE_INSENSITIVE_ORDER);
+      default -> throw new BadRequestException("Profiles cannot be sorted by '%s'".formatted(property));
+    };
+  }
+
+  private static List<Profile> content(List<Profile> profiles, Pageable pageable) {
+    if (pageable.isUnpaged()) {
+      return profiles;
+    }
+    var from = (int) Math.min(pageable.getOffset(), profiles.size());
+    return profiles.subList(from, Math.min(from + pageable.getPageSize(), profiles.size()));
+  }
+
+  private static Profile copyOf(Profile profile) {
+    return Profile.builder()
+        .id(profile.getId())
+        .name(profile.getName())
+        .description(profile.getDescription())
+        .version(profile.getVersion())
+        .build();
+  }
+
+  private record Snapshot(List<Profile> profiles, Map<Long, Profile> byId, VersionFingerprint fingerprint) {
+
+    // Same sums as ProfileRepository.fingerprint, so an unchanged table compares equal
+    private static Snapshot of(List<Profile> profiles) {
+      var idSum = profiles.stream().mapToLong(Profile::getId).sum();
+      var versionSum = profiles.stream().map(Profile::getVersion).filter(Objects::nonNull).mapToLong(Long::longValue).sum();
+      var byId = profiles.stream().collect(Collectors.toUnmodifiableMap(Profile::getId, Function.identity()));
+      return new Snapshot(List.copyOf(profiles), byId, new VersionFingerprint((long) profiles.size(), idSum, versionSum));
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package academy.devdojo.catalog;
+
+import academy.devdojo.config.ProfileCatalogProperties;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+// Loads the catalog right after startup and then checks every refresh-interval whether another instance changed the table.
+// A failed check keeps serving the current snapshot, its age metric shows how long that has been going on.
+// Every exception is caught, one escaping the task would cancel all later runs and freeze the catalog until a restart
+@Slf4j
+public class ProfileCatalogRefresher {
+
+  private final ProfileCatalog catalog;
+  private final Duration interval;
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+      Thread.ofPlatform().name("profile-catalog-refresh").daemon().factory());
+
+  public ProfileCatalogRefresher(ProfileCatalog catalog, ProfileCatalogProperties properties) {
+    this.catalog = catalog;
+    this.interval = properties.refreshInterval();
+  }
+
+  public void start() {
+    scheduler.scheduleWithFixedDelay(this::refresh, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  public void shutdown() {
+    scheduler.shutdownNow();
+  }
+
+  private void refresh() {
+    try {
+      catalog.refresh();
+    } catch (RuntimeException e) {
+      log.warn("Could not refresh the profile catalog, serving the current snapshot", e);
+    }
+  }
+}
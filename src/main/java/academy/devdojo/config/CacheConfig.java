@@ -0,0 +1,10 @@
+package academy.devdojo.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties({UserDetailsCacheProperties.class, CredentialCacheProperties.class, UserVersionCacheProperties.class})
+public class CacheConfig {
+
+}
@@ -0,0 +1,12 @@
+package academy.devdojo.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "credential-cache")
+public record CredentialCacheProperties(@DefaultValue("false") boolean enabled,
+                                        @DefaultValue("10000") long maximumSize,
+                                        @DefaultValue("1m") Duration ttl) {
+
+}
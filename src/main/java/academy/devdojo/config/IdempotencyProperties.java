@@ -0,0 +1,19 @@
+package academy.devdojo.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+// With database-enabled every instance shares the stored responses, they then also need the same fingerprint-secret.
+// A blank secret is replaced by a random one per run, which is enough for the in-memory store alone. Without the database
+// a duplicate only waits for a request running on the same instance, one that reaches another instance runs again.
+// reservation-timeout bounds how long a key stays reserved by a request whose instance died, keep it above the slowest request
+@ConfigurationProperties(prefix = "idempotency")
+public record IdempotencyProperties(@DefaultValue("10000") long maximumSize,
+                                    @DefaultValue("24h") Duration ttl,
+                                    @DefaultValue("30s") Duration waitTimeout,
+                                    @DefaultValue("false") boolean databaseEnabled,
+                                    String fingerprintSecret,
+                                    @DefaultValue("1m") Duration reservationTimeout) {
+
+}
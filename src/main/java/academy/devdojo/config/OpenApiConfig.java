@@ -12,6 +12,12 @@ import org.springframework.context.annotation.Configuration;
     type = SecuritySchemeType.HTTP,
     scheme = "basic"
 )
+@SecurityScheme(
+    name = "bearerAuth",
+    type = SecuritySchemeType.HTTP,
+    scheme = "bearer",
+    bearerFormat = "JWT"
+)
 
 @OpenAPIDefinition(info = @Info(title = "User Service API", version = "v1"))
 public class OpenApiConfig {
@@ -0,0 +1,50 @@
+package academy.devdojo.config;
+
+import academy.devdojo.outbox.ApplicationEventOutboxSink;
+import academy.devdojo.outbox.LoggingOutboxSink;
+import academy.devdojo.outbox.OutboxRelay;
+import academy.devdojo.outbox.OutboxSink;
+import academy.devdojo.outbox.WebhookOutboxSink;
+import academy.devdojo.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
+import org.springframework.boot.http.client.ClientHttpRequestFactorySettings;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.client.RestClient;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties({OutboxProperties.class, UserEventStreamProperties.class})
+public class OutboxConfig {
+
+  @Bean
+  public OutboxSink outboxSink(OutboxProperties properties, ObjectMapper objectMapper, ApplicationEventPublisher publisher) {
+    return switch (properties.sink()) {
+      case LOG -> new LoggingOutboxSink(objectMapper);
+      case IN_PROCESS -> new ApplicationEventOutboxSink(publisher);
+      case WEBHOOK -> {
+        if (properties.webhookUrl() == null) {
+          throw new IllegalStateException("outbox.webhook-url is required when outbox.sink is webhook");
+        }
+        var settings = ClientHttpRequestFactorySettings.defaults()
+            .withConnectTimeout(properties.webhookConnectTimeout())
+            .withReadTimeout(properties.webhookReadTimeout());
+        yield new WebhookOutboxSink(RestClient.builder()
+            .baseUrl(properties.webhookUrl().toString())
+            .requestFactory(ClientHttpRequestFactoryBuilder.detect().build(settings))
+            .build());
+      }
+    };
+  }
+
+  @Bean(initMethod = "start", destroyMethod = "shutdown")
+  @ConditionalOnProperty(prefix = "outbox", name = "relay-enabled", havingValue = "true", matchIfMissing = true)
+  public OutboxRelay outboxRelay(OutboxEventRepository repository, OutboxSink outboxSink, PlatformTransactionManager transactionManager,
+                                 OutboxProperties properties) {
+    return new OutboxRelay(repository, outboxSink, transactionManager, properties);
+  }
+}
@@ -0,0 +1,27 @@
+package academy.devdojo.config;
+
+import java.net.URI;
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+// Published events are kept for 'retention' so a slow consumer can still catch up from the log or the webhook receiver.
+// claim-timeout must be longer than one publish, webhook-connect-timeout plus webhook-read-timeout for the webhook sink,
+// or another relay claims the batch again while it is still being sent
+@ConfigurationProperties(prefix = "outbox")
+public record OutboxProperties(@DefaultValue("true") boolean relayEnabled,
+                               @DefaultValue("log") Sink sink,
+                               URI webhookUrl,
+                               @DefaultValue("100") int batchSize,
+                               @DefaultValue("1s") Duration pollInterval,
+                               @DefaultValue("1d") Duration retention,
+                               @DefaultValue("2s") Duration webhookConnectTimeout,
+                               @DefaultValue("10s") Duration webhookReadTimeout,
+                               @DefaultValue("1m") Duration claimTimeout) {
+
+  public enum Sink {
+    LOG,
+    WEBHOOK,
+    IN_PROCESS
+  }
+}
@@ -1,15 +1,24 @@
 package academy.devdojo.config;
 
+import academy.devdojo.security.CachingPasswordEncoder;
+import academy.devdojo.security.PasswordHashingExecutor;
+import academy.devdojo.security.ScheduledPasswordEncoder;
+import academy.devdojo.security.VerifiedCredentialCache;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.factory.PasswordEncoderFactories;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
+@EnableConfigurationProperties(PasswordHashingProperties.class)
 public class PasswordEncoderConfig {
 
   @Bean
-  public PasswordEncoder passwordEncoder() {
-    return PasswordEncoderFactories.createDelegatingPasswordEncoder();
+  public PasswordEncoder passwordEncoder(VerifiedCredentialCache verifiedCredentialCache,
+                                         PasswordHashingExecutor passwordHashingExecutor) {
+    var delegatingPasswordEncoder = PasswordEncoderFactories.createDelegatingPasswordEncoder();
+    var scheduledPasswordEncoder = new ScheduledPasswordEncoder(delegatingPasswordEncoder, passwordHashingExecutor);
+    return new CachingPasswordEncoder(scheduledPasswordEncoder, verifiedCredentialCache);
   }
 }
@@ -0,0 +1,16 @@
+package academy.devdojo.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+// permits = 0 uses half of the available processors
+@ConfigurationProperties(prefix = "password-hashing")
+public record PasswordHashingProperties(@DefaultValue("0") int permits,
+                                        @DefaultValue("100") int queueCapacity,
+                                        @DefaultValue("1s") Duration retryAfter) {
+
+  public int effectivePermits() {
+    return permits > 0 ? permits : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+  }
+}
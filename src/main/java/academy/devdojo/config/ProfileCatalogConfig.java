@@ -0,0 +1,20 @@
+package academy.devdojo.config;
+
+import academy.devdojo.catalog.ProfileCatalog;
+import academy.devdojo.catalog.ProfileCatalogRefresher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Without the refresher the catalog still loads on its first read, but only picks up saves made on this instance
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ProfileCatalogProperties.class)
+public class ProfileCatalogConfig {
+
+  @Bean(initMethod = "start", destroyMethod = "shutdown")
+  @ConditionalOnProperty(prefix = "profile-catalog", name = "refresh-enabled", havingValue = "true", matchIfMissing = true)
+  public ProfileCatalogRefresher profileCatalogRefresher(ProfileCatalog catalog, ProfileCatalogProperties properties) {
+    return new ProfileCatalogRefresher(catalog, properties);
+  }
+}
@@ -0,0 +1,12 @@
+package academy.devdojo.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+// refresh-interval bounds how long a profile saved on another instance stays invisible here
+@ConfigurationProperties(prefix = "profile-catalog")
+public record ProfileCatalogProperties(@DefaultValue("true") boolean refreshEnabled,
+                                       @DefaultValue("10s") Duration refreshInterval) {
+
+}
@@ -0,0 +1,79 @@
+package academy.devdojo.config;
+
+import academy.devdojo.datasource.ReadYourWrites;
+import academy.devdojo.datasource.ReplicaLagMonitor;
+import academy.devdojo.datasource.ReplicaRoutingDataSource;
+import academy.devdojo.datasource.ReplicaSet;
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.LinkedHashMap;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+// Replaces the auto-configured data source only when replica-routing.enabled is true. The properties are always bound,
+// ReadYourWrites takes its stickiness from them either way
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+public class ReplicaRoutingConfig {
+
+  @Bean
+  @ConditionalOnProperty(prefix = "replica-routing", name = "enabled", havingValue = "true")
+  public ReplicaSet replicaSet(DataSourceProperties dataSourceProperties, ObjectProvider<JdbcConnectionDetails> connectionDetails,
+                               ReplicaRoutingProperties properties, Environment environment) {
+    var binder = Binder.get(environment);
+    var primaryDetails = connectionDetails.getIfAvailable();
+    var url = primaryDetails != null ? primaryDetails.getJdbcUrl() : dataSourceProperties.determineUrl();
+    var username = primaryDetails != null ? primaryDetails.getUsername() : dataSourceProperties.determineUsername();
+    var password = primaryDetails != null ? primaryDetails.getPassword() : dataSourceProperties.determinePassword();
+
+    var primary = pool(binder, "primary", url, username, password);
+    var replicas = new LinkedHashMap<String, DataSource>();
+    for (var replica : properties.replicas()) {
+      var replicaUsername = StringUtils.hasText(replica.username()) ? replica.username() : username;
+      var replicaPassword = StringUtils.hasText(replica.password()) ? replica.password() : password;
+      replicas.put(replica.name(), pool(binder, replica.name(), replica.url(), replicaUsername, replicaPassword));
+    }
+    return new ReplicaSet(primary, replicas);
+  }
+
+  // The only DataSource bean, so Hibernate, Flyway and the datasource-proxy decorator all see the lazy routing proxy
+  @Bean
+  @ConditionalOnProperty(prefix = "replica-routing", name = "enabled", havingValue = "true")
+  public DataSource dataSource(ReplicaSet replicaSet, ReadYourWrites readYourWrites) {
+    return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(replicaSet, readYourWrites));
+  }
+
+  @Bean(initMethod = "start", destroyMethod = "shutdown")
+  @ConditionalOnProperty(prefix = "replica-routing", name = "enabled", havingValue = "true")
+  public ReplicaLagMonitor replicaLagMonitor(ReplicaSet replicaSet, ReplicaRoutingProperties properties) {
+    return new ReplicaLagMonitor(replicaSet, properties);
+  }
+
+  // DataSourceBuilder does not bind spring.datasource.hikari.*, so the shared pool settings (size, timeouts, leak detection)
+  // are bound onto every pool here. Name, url and credentials are set afterwards and always win
+  private static HikariDataSource pool(Binder binder, String name, String url, String username, String password) {
+    var dataSource = DataSourceBuilder.create()
+        .type(HikariDataSource.class)
+        .url(url)
+        .username(username)
+        .password(password)
+        .build();
+    binder.bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+    dataSource.setJdbcUrl(url);
+    dataSource.setUsername(username);
+    dataSource.setPassword(password);
+    dataSource.setPoolName("hikari-" + name);
+    return dataSource;
+  }
+}
@@ -0,0 +1,19 @@
+package academy.devdojo.config;
+
+import java.time.Duration;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+// Replicas without username or password connect with the primary credentials
+@ConfigurationProperties(prefix = "replica-routing")
+public record ReplicaRoutingProperties(@DefaultValue("false") boolean enabled,
+                                       @DefaultValue List<Replica> replicas,
+                                       @DefaultValue("2s") Duration maxLag,
+                                       @DefaultValue("5s") Duration lagCheckInterval,
+                                       @DefaultValue("10s") Duration stickiness) {
+
+  public record Replica(String name, String url, String username, String password) {
+
+  }
+}
@@ -0,0 +1,67 @@
+package academy.devdojo.config;
+
+import academy.devdojo.security.RevokedTokenValidator;
+import academy.devdojo.security.RoleAuthorities;
+import academy.devdojo.security.TokenRevocationList;
+import academy.devdojo.security.TokenService;
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import java.security.SecureRandom;
+import java.util.Base64;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtIssuerValidator;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+
+@Configuration
+@EnableConfigurationProperties(TokenProperties.class)
+@Slf4j
+public class TokenConfig {
+
+  private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+  @Bean
+  public SecretKey tokenSigningKey(TokenProperties properties) {
+    if (properties.secret() == null || properties.secret().isBlank()) {
+      log.warn("No 'token.secret' configured, using a random key. Tokens will not survive a restart or work across instances");
+      var secret = new byte[32];
+      new SecureRandom().nextBytes(secret);
+      return new SecretKeySpec(secret, HMAC_ALGORITHM);
+    }
+    return new SecretKeySpec(Base64.getDecoder().decode(properties.secret()), HMAC_ALGORITHM);
+  }
+
+  @Bean
+  public JwtEncoder jwtEncoder(SecretKey tokenSigningKey) {
+    return new NimbusJwtEncoder(new ImmutableSecret<>(tokenSigningKey));
+  }
+
+  @Bean
+  public JwtDecoder jwtDecoder(SecretKey tokenSigningKey, TokenProperties properties, TokenRevocationList revocationList) {
+    var decoder = NimbusJwtDecoder.withSecretKey(tokenSigningKey)
+        .macAlgorithm(MacAlgorithm.HS256)
+        .build();
+    decoder.setJwtValidator(JwtValidators.createDefaultWithValidators(
+        new JwtIssuerValidator(properties.issuer()),
+        new JwtTimestampValidator(properties.clockSkew()),
+        new RevokedTokenValidator(revocationList)));
+    return decoder;
+  }
+
+  @Bean
+  public JwtAuthenticationConverter jwtAuthenticationConverter() {
+    var converter = new JwtAuthenticationConverter();
+    converter.setJwtGrantedAuthoritiesConverter(jwt -> RoleAuthorities.of(jwt.getClaimAsStringList(TokenService.ROLES_CLAIM)));
+    return converter;
+  }
+}
@@ -0,0 +1,14 @@
+package academy.devdojo.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "token")
+public record TokenProperties(String secret,
+                              @DefaultValue("user-service") String issuer,
+                              @DefaultValue("15m") Duration ttl,
+                              @DefaultValue("10000") long revocationMaximumSize,
+                              @DefaultValue("60s") Duration clockSkew) {
+
+}
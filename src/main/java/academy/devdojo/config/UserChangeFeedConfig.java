@@ -0,0 +1,10 @@
+package academy.devdojo.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(UserChangeFeedProperties.class)
+public class UserChangeFeedConfig {
+
+}
@@ -0,0 +1,13 @@
+package academy.devdojo.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+// A change stays out of the feed until it is settle-window old. A transaction that commits later than that after its
+// statement ran, a lock wait included, is skipped for good, so keep it above innodb_lock_wait_timeout (50s by default)
+// and the longest transaction the service runs
+@ConfigurationProperties(prefix = "user-change-feed")
+public record UserChangeFeedProperties(@DefaultValue("60s") Duration settleWindow) {
+
+}
@@ -0,0 +1,10 @@
+package academy.devdojo.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "user-details-cache")
+public record UserDetailsCacheProperties(@DefaultValue("10000") long maximumSize, @DefaultValue("2m") Duration ttl) {
+
+}
@@ -0,0 +1,14 @@
+package academy.devdojo.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+// max-lag is how many events may wait for a subscriber before it is dropped, on top of the replay it asked for
+@ConfigurationProperties(prefix = "user-event-stream")
+public record UserEventStreamProperties(@DefaultValue("1000") int replayCapacity,
+                                        @DefaultValue("256") int maxLag,
+                                        @DefaultValue("500") int maxSubscribers,
+                                        @DefaultValue("30m") Duration timeout) {
+
+}
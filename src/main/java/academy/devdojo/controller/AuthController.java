@@ -0,0 +1,38 @@
+package academy.devdojo.controller;
+
+import academy.devdojo.domain.User;
+import academy.devdojo.response.TokenPostResponse;
+import academy.devdojo.security.TokenService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("v1/auth")
+@Slf4j
+@RequiredArgsConstructor
+@Tag(name = "Auth API", description = "Token related endpoints")
+@SecurityRequirement(name = "basicAuth")
+public class AuthController {
+
+  private final TokenService tokenService;
+
+  @PostMapping("/token")
+  @Operation(summary = "Exchange HTTP Basic credentials for a short-lived bearer token")
+  public ResponseEntity<TokenPostResponse> token(Authentication authentication) {
+    if (!(authentication.getPrincipal() instanceof User user)) {
+      throw new AccessDeniedException("A token can only be requested with HTTP Basic credentials");
+    }
+    log.debug("Issuing token for user '{}'", user.getId());
+
+    return ResponseEntity.ok(tokenService.issue(user));
+  }
+}
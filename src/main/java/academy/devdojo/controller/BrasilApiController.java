@@ -15,6 +15,7 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("v1/brasil-api/cep")
 @RequiredArgsConstructor
 @SecurityRequirement(name = "basicAuth")
+@SecurityRequirement(name = "bearerAuth")
 @Log4j2
 public class BrasilApiController {
 
@@ -1,43 +1,71 @@
 package academy.devdojo.controller;
 
+import academy.devdojo.etag.Etags;
+import academy.devdojo.exception.BadRequestException;
+import academy.devdojo.idempotency.IdempotentRequests;
 import academy.devdojo.mapper.ProfileMapper;
+import academy.devdojo.pagination.PageSizes;
+import academy.devdojo.pagination.ScrollCursor;
 import academy.devdojo.request.ProfilePostRequest;
+import academy.devdojo.response.CursorPageResponse;
 import academy.devdojo.response.ProfileGetResponse;
 import academy.devdojo.response.ProfilePostResponse;
+import academy.devdojo.response.SliceResponse;
 import academy.devdojo.service.ProfileService;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.Valid;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("v1/profiles")
 @Slf4j
 @RequiredArgsConstructor
 @SecurityRequirement(name = "basicAuth")
+@SecurityRequirement(name = "bearerAuth")
 public class ProfileController {
 
   private final ProfileService service;
   private final ProfileMapper mapper;
+  private final IdempotentRequests idempotentRequests;
 
   @GetMapping
-  public ResponseEntity<List<ProfileGetResponse>> findAll() {
+  public ResponseEntity<List<ProfileGetResponse>> findAll(WebRequest request) {
     log.debug("Request received to a list all profiles");
 
+    var etag = Etags.of(service.fingerprint());
+    if (request.checkNotModified(etag)) {
+      return null;
+    }
+
     var profiles = service.findAll();
 
     var profileGetResponse = mapper.toProfileGetResponseList(profiles);
 
+    return ResponseEntity.ok().eTag(etag).body(profileGetResponse);
+
+  }
+
+  @GetMapping("{id}")
+  public ResponseEntity<ProfileGetResponse> findById(@PathVariable Long id) {
+    log.debug("Request received to find profile '{}'", id);
+
+    var profileGetResponse = mapper.toProfileGetResponse(service.findByIdOrThrowNotFound(id));
     return ResponseEntity.ok(profileGetResponse);
 
   }
@@ -51,17 +79,50 @@ public class ProfileController {
 
   }
 
+  // Offset based like /paginated without the total, /scroll is the one that seeks
+  @GetMapping("/slice")
+  public ResponseEntity<SliceResponse<ProfileGetResponse>> findAllSliced(@ParameterObject Pageable pageable) {
+    log.debug("Request received to a list all profiles sliced");
+
+    var slice = service.findAllSliced(pageable);
+    var sliceResponse = new SliceResponse<>(mapper.toProfileGetResponseList(slice.getContent()), slice.getNumber(),
+        slice.getSize(), slice.hasNext());
+
+    return ResponseEntity.ok(sliceResponse);
+
+  }
+
+  @GetMapping("/scroll")
+  public ResponseEntity<CursorPageResponse<ProfileGetResponse>> findAllScrolled(@RequestParam(required = false) String cursor,
+                                                                                @RequestParam(defaultValue = PageSizes.DEFAULT) int size) {
+    log.debug("Request received to scroll profiles, size '{}'", size);
+
+    var scrollCursor = cursor == null ? null : ScrollCursor.decode(cursor);
+    if (scrollCursor != null && !ProfileService.SCROLL_SORT_PROPERTY.equals(scrollCursor.sort())) {
+      throw new BadRequestException("Invalid cursor");
+    }
+    var window = service.findAllScrolled(scrollCursor, PageSizes.clamp(size));
+    var cursorPageResponse = new CursorPageResponse<>(mapper.toProfileGetResponseList(window.getContent()),
+        ScrollCursor.next(window, ProfileService.SCROLL_SORT_PROPERTY), window.hasNext());
+
+    return ResponseEntity.ok(cursorPageResponse);
+
+  }
+
 
   @PostMapping()
-  public ResponseEntity<ProfilePostResponse> save(@RequestBody @Valid ProfilePostRequest profilePostRequest) {
+  public ResponseEntity<ProfilePostResponse> save(@RequestBody @Valid ProfilePostRequest profilePostRequest,
+                                                  @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
 
     log.debug("Request to save profile: {}", profilePostRequest);
 
-    var profile = mapper.toProfile(profilePostRequest);
-    var profileSaved = service.save(profile);
-    var profilePostResponse = mapper.toProfilePostResponse(profileSaved);
+    return idempotentRequests.execute("POST /v1/profiles", idempotencyKey, profilePostRequest, ProfilePostResponse.class, () -> {
+      var profile = mapper.toProfile(profilePostRequest);
+      var profileSaved = service.save(profile);
+      var profilePostResponse = mapper.toProfilePostResponse(profileSaved);
 
-    return ResponseEntity.status(HttpStatus.CREATED).body(profilePostResponse);
+      return ResponseEntity.status(HttpStatus.CREATED).body(profilePostResponse);
+    });
 
   }
 
@@ -1,12 +1,35 @@
 package academy.devdojo.controller;
 
+import academy.devdojo.etag.Etags;
+import academy.devdojo.etag.UserVersionCache;
 import academy.devdojo.exception.ApiError;
+import academy.devdojo.exception.BadRequestException;
 import academy.devdojo.exception.DefaultErrorMessage;
+import academy.devdojo.exception.PreconditionFailedException;
+import academy.devdojo.export.UserExportWriter;
+import academy.devdojo.fields.SparseFields;
+import academy.devdojo.fields.UserField;
+import academy.devdojo.idempotency.IdempotentRequests;
+import academy.devdojo.imports.UserImportReader;
 import academy.devdojo.mapper.UserMapper;
+import academy.devdojo.pagination.PageSizes;
+import academy.devdojo.pagination.ScrollCursor;
+import academy.devdojo.pagination.UserScrollSort;
+import academy.devdojo.pagination.UserSearchField;
+import academy.devdojo.request.UserBulkDeleteRequest;
+import academy.devdojo.request.UserLookupRequest;
+import academy.devdojo.request.UserPatchRequest;
 import academy.devdojo.request.UserPostRequest;
 import academy.devdojo.request.UserPutRequest;
+import academy.devdojo.response.CursorPageResponse;
+import academy.devdojo.response.SliceResponse;
+import academy.devdojo.response.UserBulkDeleteResponse;
+import academy.devdojo.response.UserChangesResponse;
 import academy.devdojo.response.UserGetResponse;
+import academy.devdojo.response.UserImportResponse;
+import academy.devdojo.response.UserLookupResponse;
 import academy.devdojo.response.UserPostResponse;
+import academy.devdojo.service.UserBulkDeleteService;
 import academy.devdojo.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -16,12 +39,16 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -29,13 +56,17 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("v1/users")
@@ -44,10 +75,16 @@ import org.springframework.web.bind.annotation.RestController;
 @EnableMethodSecurity
 @Tag(name = "User API", description = "User related endpoints")
 @SecurityRequirement(name = "basicAuth")
+@SecurityRequirement(name = "bearerAuth")
 public class UserController {
 
   private final UserService service;
   private final UserMapper mapper;
+  private final UserExportWriter exportWriter;
+  private final UserVersionCache versionCache;
+  private final UserImportReader importReader;
+  private final UserBulkDeleteService bulkDeleteService;
+  private final IdempotentRequests idempotentRequests;
 
   @GetMapping
   @Operation(summary = "Get all users", description = "Get all users available in the system",
@@ -61,14 +98,62 @@ public class UserController {
       }
   )
   @PreAuthorize("hasAuthority('ADMIN')")
-  public ResponseEntity<List<UserGetResponse>> findAll(@RequestParam(required = false) String firstName) {
+  public ResponseEntity<List<UserGetResponse>> findAll(@RequestParam(required = false) String firstName, WebRequest request) {
     log.debug("Request received to a list all users, param first name '{}'", firstName);
 
+    var etag = Etags.of(service.fingerprint());
+    if (request.checkNotModified(etag)) {
+      return null;
+    }
+
     var users = service.findAll(firstName);
 
-    var userGetResponse = mapper.toUserGetResponseList(users);
+    var userGetResponse = mapper.toUserGetResponseListFromSummaries(users);
+
+    return ResponseEntity.ok().eTag(etag).body(userGetResponse);
+
+  }
+
+  @GetMapping(params = {"fields", "!ids"})
+  @Operation(summary = "Get all users with only the requested fields", description = "'fields' takes any of id, firstName, lastName, email")
+  @PreAuthorize("hasAuthority('ADMIN')")
+  public ResponseEntity<List<Map<String, Object>>> findAllFields(@RequestParam String fields,
+                                                                 @RequestParam(required = false) String firstName,
+                                                                 WebRequest request) {
+    log.debug("Request received to a list all users, fields '{}', param first name '{}'", fields, firstName);
+
+    var userFields = SparseFields.parse(fields, UserField.class);
+    var etag = Etags.of(service.fingerprint());
+    if (request.checkNotModified(etag)) {
+      return null;
+    }
+
+    return ResponseEntity.ok().eTag(etag).body(service.findAllFields(userFields, firstName));
+
+  }
+
+  @GetMapping(params = "ids")
+  @Operation(summary = "Get users by ids",
+      description = "Resolves up to " + PageSizes.MAXIMUM + " comma separated ids in one query, POST /v1/users/lookup takes more")
+  public ResponseEntity<UserLookupResponse> findAllByIds(@RequestParam List<Long> ids) {
+    log.debug("Request received to find {} users by id", ids.size());
+
+    if (ids.size() > PageSizes.MAXIMUM) {
+      throw new BadRequestException("At most %d ids can be sent as a query parameter, use POST /v1/users/lookup instead"
+          .formatted(PageSizes.MAXIMUM));
+    }
 
-    return ResponseEntity.ok(userGetResponse);
+    return ResponseEntity.ok(mapper.toUserLookupResponse(service.findAllByIds(ids)));
+
+  }
+
+  @PostMapping("/lookup")
+  @Operation(summary = "Get users by ids sent in the body",
+      description = "Resolves up to " + UserService.LOOKUP_MAXIMUM_IDS + " ids, in chunked IN queries")
+  public ResponseEntity<UserLookupResponse> lookup(@RequestBody @Valid UserLookupRequest request) {
+    log.debug("Request received to look up {} users by id", request.getIds().size());
+
+    return ResponseEntity.ok(mapper.toUserLookupResponse(service.findAllByIds(request.getIds())));
 
   }
 
@@ -81,6 +166,92 @@ public class UserController {
 
   }
 
+  @GetMapping(value = "/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+  @Operation(summary = "Export all users",
+      description = "Streams every user as NDJSON, or as a single JSON array when 'Accept: application/json' is sent")
+  @PreAuthorize("hasAuthority('ADMIN')")
+  public ResponseEntity<StreamingResponseBody> export(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+    log.debug("Request received to export all users, accept '{}'", accept);
+
+    var mediaType = exportWriter.resolveMediaType(accept);
+    StreamingResponseBody body = outputStream -> exportWriter.write(outputStream, mediaType);
+
+    return ResponseEntity.ok().contentType(mediaType).body(body);
+
+  }
+
+  @GetMapping("/search")
+  @Operation(summary = "Search users by prefix",
+      description = "Case-insensitive prefix search on 'firstName', 'lastName' or 'emailDomain', paged with 'nextCursor'")
+  @PreAuthorize("hasAuthority('ADMIN')")
+  public ResponseEntity<CursorPageResponse<UserGetResponse>> search(@RequestParam String prefix,
+                                                                    @RequestParam(defaultValue = "firstName") String field,
+                                                                    @RequestParam(required = false) String cursor,
+                                                                    @RequestParam(defaultValue = PageSizes.DEFAULT) int size) {
+    log.debug("Request received to search users, field '{}', prefix '{}'", field, prefix);
+
+    var scrollCursor = cursor == null ? null : ScrollCursor.decode(cursor);
+    var searchField = UserSearchField.fromProperty(scrollCursor == null ? field : scrollCursor.sort());
+    var window = service.search(searchField, prefix, scrollCursor, PageSizes.clamp(size));
+    var cursorPageResponse = new CursorPageResponse<>(mapper.toUserGetResponseListFromSummaries(window.getContent()),
+        ScrollCursor.next(window, searchField.getProperty()), window.hasNext());
+
+    return ResponseEntity.ok(cursorPageResponse);
+
+  }
+
+  @GetMapping("/slice")
+  @Operation(summary = "Get users page by page without counting the whole table",
+      description = "Still an OFFSET query, the database walks past every row before the page, so deep pages keep getting slower. "
+          + "Use /v1/users/scroll to read far into the table")
+  public ResponseEntity<SliceResponse<UserGetResponse>> findAllSliced(@ParameterObject Pageable pageable) {
+    log.debug("Request received to a list all users sliced");
+
+    var slice = service.findAllSliced(pageable);
+    var content = mapper.toUserGetResponseListFromSummaries(slice.getContent());
+    var sliceResponse = new SliceResponse<>(content, slice.getNumber(), slice.getSize(), slice.hasNext());
+
+    return ResponseEntity.ok(sliceResponse);
+
+  }
+
+  @GetMapping("/scroll")
+  @Operation(summary = "Get users with keyset pagination",
+      description = "Seeks on 'id' or 'email'. Pass the returned 'nextCursor' to get the next page, the sort is kept in the cursor")
+  public ResponseEntity<CursorPageResponse<UserGetResponse>> findAllScrolled(@RequestParam(required = false) String cursor,
+                                                                             @RequestParam(defaultValue = PageSizes.DEFAULT) int size,
+                                                                             @RequestParam(defaultValue = "id") String sort) {
+    log.debug("Request received to scroll users, sort '{}', size '{}'", sort, size);
+
+    var scrollCursor = cursor == null ? null : ScrollCursor.decode(cursor);
+    var scrollSort = UserScrollSort.fromProperty(scrollCursor == null ? sort : scrollCursor.sort());
+    var window = service.findAllScrolled(scrollCursor, scrollSort, PageSizes.clamp(size));
+    var cursorPageResponse = new CursorPageResponse<>(mapper.toUserGetResponseListFromSummaries(window.getContent()),
+        ScrollCursor.next(window, scrollSort.getProperty()), window.hasNext());
+
+    return ResponseEntity.ok(cursorPageResponse);
+
+  }
+
+  @GetMapping("/changes")
+  @Operation(summary = "Get users created, updated or deleted since a cursor",
+      description = "Oldest change first. Without 'since' the feed starts at the beginning, so the first pass is a full sync. "
+          + "Keep the returned 'nextCursor' and pass it as 'since' to get only what changed afterwards. "
+          + "A change is listed once it is older than the settle window, one minute by default")
+  @PreAuthorize("hasAuthority('ADMIN')")
+  public ResponseEntity<UserChangesResponse> findChanges(@RequestParam(required = false) String since,
+                                                         @RequestParam(defaultValue = PageSizes.DEFAULT) int size) {
+    log.debug("Request received to list user changes since '{}', size '{}'", since, size);
+
+    var window = service.findChanges(since == null ? null : ScrollCursor.decode(since), PageSizes.clamp(size));
+    var nextCursor = ScrollCursor.last(window, UserService.CHANGES_CURSOR_SORT);
+    var changesResponse = new UserChangesResponse(mapper.toUserChangeResponseList(window.getContent()),
+        nextCursor == null ? since : nextCursor, window.hasNext());
+
+    return ResponseEntity.ok(changesResponse);
+
+  }
+
 
   @GetMapping("{id}")
   @Operation(summary = "Get user by id",
@@ -99,12 +270,28 @@ public class UserController {
           )
       }
   )
-  public ResponseEntity<UserGetResponse> findById(@PathVariable Long id) {
+  public ResponseEntity<UserGetResponse> findById(@PathVariable Long id, WebRequest request) {
 
-    var user = service.findByIdOrThrowNotFound(id);
+    var cachedVersion = versionCache.find(id);
+    if (cachedVersion != null && request.checkNotModified(Etags.of(id, cachedVersion))) {
+      return null;
+    }
+
+    var user = service.findSummaryByIdOrThrowNotFound(id);
+    versionCache.remember(id, user.version());
     var userGetResponse = mapper.toUserGetResponse(user);
 
-    return ResponseEntity.ok(userGetResponse);
+    return ResponseEntity.ok().eTag(Etags.of(id, user.version())).body(userGetResponse);
+
+  }
+
+  @GetMapping(value = "{id}", params = "fields")
+  @Operation(summary = "Get user by id with only the requested fields",
+      description = "'fields' takes any of id, firstName, lastName, email")
+  public ResponseEntity<Map<String, Object>> findFieldsById(@PathVariable Long id, @RequestParam String fields) {
+    log.debug("Request received to find user '{}', fields '{}'", id, fields);
+
+    return ResponseEntity.ok(service.findFieldsByIdOrThrowNotFound(SparseFields.parse(fields, UserField.class), id));
 
   }
 
@@ -125,15 +312,29 @@ public class UserController {
           )
       }
   )
-  public ResponseEntity<UserPostResponse> save(@RequestBody @Valid UserPostRequest userPostRequest) {
+  public ResponseEntity<UserPostResponse> save(@RequestBody @Valid UserPostRequest userPostRequest,
+                                               @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
 
     log.debug("Request to save user: {}", userPostRequest);
 
-    var user = mapper.toUser(userPostRequest);
-    var userSaved = service.save(user);
-    var userPostResponse = mapper.toUserPostResponse(userSaved);
+    return idempotentRequests.execute("POST /v1/users", idempotencyKey, userPostRequest, UserPostResponse.class, () -> {
+      var user = mapper.toUser(userPostRequest);
+      var userSaved = service.save(user);
+      var userPostResponse = mapper.toUserPostResponse(userSaved);
+
+      return ResponseEntity.status(HttpStatus.CREATED).body(userPostResponse);
+    });
+
+  }
+
+  @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+  @Operation(summary = "Import users",
+      description = "Creates one user per NDJSON line, rows are validated one by one and a failed row does not stop the import")
+  @PreAuthorize("hasAuthority('ADMIN')")
+  public ResponseEntity<UserImportResponse> importUsers(InputStream body) throws IOException {
+    log.debug("Request received to import users");
 
-    return ResponseEntity.status(HttpStatus.CREATED).body(userPostResponse);
+    return ResponseEntity.ok(importReader.read(body));
 
   }
 
@@ -145,14 +346,68 @@ public class UserController {
 
   }
 
+  @PostMapping("/bulk-delete")
+  @Operation(summary = "Delete users in bulk",
+      description = "Deletes the users with the given 'ids' or every user of 'emailDomain' together with their user profiles, "
+          + "in transactions of at most 500 users")
+  @PreAuthorize("hasAuthority('ADMIN')")
+  public ResponseEntity<UserBulkDeleteResponse> bulkDelete(@RequestBody @Valid UserBulkDeleteRequest request) {
+    log.debug("Request received to bulk delete users: {}", request);
+
+    var result = request.getIds() != null
+        ? bulkDeleteService.deleteByIds(request.getIds())
+        : bulkDeleteService.deleteByEmailDomain(request.getEmailDomain());
+
+    return ResponseEntity.ok(mapper.toUserBulkDeleteResponse(result));
+
+  }
+
   @PutMapping()
-  public ResponseEntity<Void> update(@RequestBody @Valid UserPutRequest request) {
+  @Operation(summary = "Update user",
+      description = "With If-Match set to the ETag of GET /v1/users/{id} the update only applies when the user is still "
+          + "at that version, otherwise it fails with 412. The new ETag is returned")
+  public ResponseEntity<Void> update(@RequestBody @Valid UserPutRequest request,
+                                     @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
     var userToUpdate = mapper.toUser(request);
-    service.update(userToUpdate);
+    var id = userToUpdate.getId();
+    var expectedVersion = expectedVersion(id, ifMatch);
+    if (expectedVersion == null) {
+      service.update(userToUpdate);
+      return ResponseEntity.noContent().build();
+    }
 
-    return ResponseEntity.noContent().build();
+    var version = service.update(userToUpdate, expectedVersion);
+
+    return ResponseEntity.noContent().eTag(Etags.of(id, version)).build();
+
+  }
+
+  @PatchMapping(value = "{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+  @Operation(summary = "Change some attributes of a user",
+      description = "JSON Merge Patch: only the fields present in the body are written, the password is only hashed when "
+          + "one is given. Supports If-Match like PUT and returns the updated user with its new ETag")
+  public ResponseEntity<UserGetResponse> patch(@PathVariable Long id, @RequestBody @Valid UserPatchRequest request,
+                                               @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    log.debug("Request received to patch user '{}': {}", id, request);
+
+    var expectedVersion = expectedVersion(id, ifMatch);
+    var user = service.patch(id, mapper.toUser(request), expectedVersion);
+
+    return ResponseEntity.ok().eTag(Etags.of(id, user.version())).body(mapper.toUserGetResponse(user));
+
+  }
 
+  // null when the request is unconditional, If-Match: * only asks for the user to exist, which the update checks anyway
+  private static Long expectedVersion(Long id, String ifMatch) {
+    if (ifMatch == null || "*".equals(ifMatch.strip())) {
+      return null;
+    }
+    var expectedVersion = Etags.versionOf(id, ifMatch);
+    if (expectedVersion == null) {
+      throw new PreconditionFailedException("If-Match does not hold a version of user %d".formatted(id));
+    }
+    return expectedVersion;
   }
 
 
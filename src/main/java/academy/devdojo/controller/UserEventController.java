@@ -0,0 +1,42 @@
+package academy.devdojo.controller;
+
+import academy.devdojo.sse.UserEventBroadcaster;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("v1/users/events")
+@Slf4j
+@RequiredArgsConstructor
+@Tag(name = "User API", description = "User related endpoints")
+@SecurityRequirement(name = "basicAuth")
+@SecurityRequirement(name = "bearerAuth")
+public class UserEventController {
+
+  private static final String LAST_EVENT_ID = "Last-Event-ID";
+
+  private final UserEventBroadcaster broadcaster;
+
+  @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @Operation(summary = "Stream user changes as Server-Sent Events",
+      description = "Sends CREATED, UPDATED and DELETED events as users are committed. Reconnect with 'Last-Event-ID' to get the "
+          + "events missed in between, a 'resync' event means they are gone and /v1/users/changes has to fill the gap. "
+          + "Only writes committed on the instance serving the stream are sent, and no 'resync' tells about the others. "
+          + "With several instances, treat the stream as a hint and keep polling /v1/users/changes for the complete feed")
+  @PreAuthorize("hasAuthority('ADMIN')")
+  public SseEmitter stream(@RequestHeader(value = LAST_EVENT_ID, required = false) String lastEventId) {
+    log.debug("Request received to stream user events, last event id '{}'", lastEventId);
+
+    return broadcaster.subscribe(lastEventId);
+  }
+}
@@ -1,35 +1,52 @@
 package academy.devdojo.controller;
 
+import academy.devdojo.export.UserExportWriter;
+import academy.devdojo.fields.SparseFields;
+import academy.devdojo.fields.UserField;
+import academy.devdojo.fields.UserProfileField;
 import academy.devdojo.mapper.UserProfileMapper;
+import academy.devdojo.pagination.PageSizes;
+import academy.devdojo.pagination.ScrollCursor;
+import academy.devdojo.pagination.UserScrollSort;
+import academy.devdojo.response.CursorPageResponse;
 import academy.devdojo.response.UserProfileGetResponse;
 import academy.devdojo.response.UserProfileUserGetResponse;
 import academy.devdojo.service.UserProfileService;
+import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import java.util.List;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("v1/user-profiles")
 @Slf4j
 @RequiredArgsConstructor
 @SecurityRequirement(name = "basicAuth")
+@SecurityRequirement(name = "bearerAuth")
 public class UserProfileController {
 
   private final UserProfileService service;
   private final UserProfileMapper mapper;
+  private final UserExportWriter exportWriter;
 
   @GetMapping
   public ResponseEntity<List<UserProfileGetResponse>> findAll() {
     log.debug("Request received to a list all users profiles");
 
     var userProfiles = service.findAll();
-    var userProfileGetResponse = mapper.toUserProfileGetResponse(userProfiles);
+    var userProfileGetResponse = mapper.toUserProfileGetResponseListFromSummaries(userProfiles);
 
     return ResponseEntity.ok(userProfileGetResponse);
 
@@ -44,4 +61,70 @@ public class UserProfileController {
 
   }
 
+  @GetMapping("/scroll")
+  @Operation(summary = "Get users profiles with keyset pagination",
+      description = "Ordered by 'id'. Pass the returned 'nextCursor' to get the next page")
+  public ResponseEntity<CursorPageResponse<UserProfileGetResponse>> findAllScrolled(
+      @RequestParam(required = false) String cursor, @RequestParam(defaultValue = PageSizes.DEFAULT) int size) {
+    log.debug("Request received to scroll users profiles, size '{}'", size);
+
+    var window = service.findAllScrolled(cursor == null ? null : ScrollCursor.decode(cursor), PageSizes.clamp(size));
+    var cursorPageResponse = new CursorPageResponse<>(mapper.toUserProfileGetResponseListFromSummaries(window.getContent()),
+        ScrollCursor.next(window, UserProfileService.ID), window.hasNext());
+
+    return ResponseEntity.ok(cursorPageResponse);
+
+  }
+
+  @GetMapping("profiles/{id}/users/scroll")
+  @Operation(summary = "Get the users of a profile with keyset pagination",
+      description = "Ordered by user 'id'. Pass the returned 'nextCursor' to get the next page")
+  public ResponseEntity<CursorPageResponse<UserProfileUserGetResponse>> findAllScrolled(
+      @PathVariable Long id, @RequestParam(required = false) String cursor, @RequestParam(defaultValue = PageSizes.DEFAULT) int size) {
+    log.debug("Request received to scroll users by profile id '{}', size '{}'", id, size);
+
+    var scrollCursor = cursor == null ? null : ScrollCursor.decode(cursor);
+    var window = service.findUsersByProfileIdScrolled(id, scrollCursor, PageSizes.clamp(size));
+    var cursorPageResponse = new CursorPageResponse<>(mapper.toUserProfileUserGetResponseList(window.getContent()),
+        ScrollCursor.next(window, UserScrollSort.ID.getProperty()), window.hasNext());
+
+    return ResponseEntity.ok(cursorPageResponse);
+
+  }
+
+  @GetMapping(value = "profiles/{id}/users/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+  @Operation(summary = "Export the users of a profile",
+      description = "Streams the users in 'id' order as NDJSON, or as a single JSON array when 'Accept: application/json' is sent")
+  public ResponseEntity<StreamingResponseBody> export(@PathVariable Long id,
+                                                      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+    log.debug("Request received to export users by profile id '{}', accept '{}'", id, accept);
+
+    var mediaType = exportWriter.resolveMediaType(accept);
+    StreamingResponseBody body = outputStream -> exportWriter.write(outputStream, mediaType,
+        consumer -> service.forEachUserOfProfile(id, consumer));
+
+    return ResponseEntity.ok().contentType(mediaType).body(body);
+
+  }
+
+  @GetMapping(params = "fields")
+  @Operation(summary = "Get all users profiles with only the requested fields",
+      description = "'fields' takes id, user.id, user.firstName, profile.id, profile.name, or 'user' and 'profile' for all of theirs")
+  public ResponseEntity<List<Map<String, Object>>> findAllFields(@RequestParam String fields) {
+    log.debug("Request received to a list all users profiles, fields '{}'", fields);
+
+    return ResponseEntity.ok(service.findAllFields(SparseFields.parse(fields, UserProfileField.class)));
+
+  }
+
+  @GetMapping(value = "profiles/{id}/users", params = "fields")
+  @Operation(summary = "Get all users of a profile with only the requested fields",
+      description = "'fields' takes any of id, firstName, lastName, email")
+  public ResponseEntity<List<Map<String, Object>>> findAllUserFields(@PathVariable Long id, @RequestParam String fields) {
+    log.debug("Request received to a list all users by profile id '{}', fields '{}'", id, fields);
+
+    return ResponseEntity.ok(service.findAllUserFieldsByProfileId(SparseFields.parse(fields, UserField.class), id));
+
+  }
+
 }
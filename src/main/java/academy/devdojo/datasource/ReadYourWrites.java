@@ -0,0 +1,52 @@
+package academy.devdojo.datasource;
+
+import academy.devdojo.config.ReplicaRoutingProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Instant;
+import java.util.Locale;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+// Principals that wrote recently read from the primary until the stickiness window has passed,
+// so a replica that has not caught up yet cannot hide their own write from them. Anonymous callers share one name
+// and are never sticky, a signup marks the e-mail the new user will authenticate with instead
+@Component
+public class ReadYourWrites {
+
+  private static final long MAXIMUM_SIZE = 10_000;
+
+  private final Cache<String, Instant> lastWriteBy;
+
+  public ReadYourWrites(ReplicaRoutingProperties properties) {
+    this.lastWriteBy = Caffeine.newBuilder()
+        .maximumSize(MAXIMUM_SIZE)
+        .expireAfterWrite(properties.stickiness())
+        .build();
+  }
+
+  public void markWrite() {
+    var principal = currentPrincipal();
+    if (principal != null) {
+      markWriteFor(principal);
+    }
+  }
+
+  public void markWriteFor(String principal) {
+    lastWriteBy.put(principal.toLowerCase(Locale.ROOT), Instant.now());
+  }
+
+  public boolean mustReadPrimary() {
+    var principal = currentPrincipal();
+    return principal != null && lastWriteBy.getIfPresent(principal) != null;
+  }
+
+  private static String currentPrincipal() {
+    var authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication == null || authentication instanceof AnonymousAuthenticationToken || !authentication.isAuthenticated()) {
+      return null;
+    }
+    return authentication.getName().toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,79 @@
+package academy.devdojo.datasource;
+
+import academy.devdojo.config.ReplicaRoutingProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+
+// Polls every replica for its replication delay and only lets the routing data source use the ones within max-lag.
+// A server without replica status (not configured as a replica) counts as caught up, stopped replication or an error does not
+@Slf4j
+public class ReplicaLagMonitor implements MeterBinder {
+
+  private static final String REPLICA_STATUS = "SHOW REPLICA STATUS";
+  private static final String SECONDS_BEHIND = "Seconds_Behind_Source";
+
+  private final ReplicaSet replicaSet;
+  private final Duration maxLag;
+  private final Duration interval;
+  private final Map<String, Double> lagSeconds = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+      Thread.ofPlatform().name("replica-lag-monitor").daemon().factory());
+
+  public ReplicaLagMonitor(ReplicaSet replicaSet, ReplicaRoutingProperties properties) {
+    this.replicaSet = replicaSet;
+    this.maxLag = properties.maxLag();
+    this.interval = properties.lagCheckInterval();
+  }
+
+  public void start() {
+    scheduler.scheduleWithFixedDelay(this::checkAll, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  public void checkAll() {
+    replicaSet.getReplicas().forEach((name, dataSource) -> {
+      var lag = measure(name, dataSource);
+      lagSeconds.put(name, lag == null ? Double.NaN : lag.toSeconds());
+      replicaSet.setHealthy(name, lag != null && lag.compareTo(maxLag) <= 0);
+    });
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    for (var name : replicaSet.getReplicas().keySet()) {
+      Gauge.builder("datasource.replica.lag", lagSeconds, lags -> lags.getOrDefault(name, Double.NaN))
+          .description("Seconds the replica is behind the primary, NaN when unknown")
+          .tag("replica", name)
+          .baseUnit("seconds")
+          .register(registry);
+    }
+  }
+
+  public void shutdown() {
+    scheduler.shutdownNow();
+  }
+
+  private Duration measure(String name, DataSource dataSource) {
+    try (var connection = dataSource.getConnection();
+         var statement = connection.createStatement();
+         var resultSet = statement.executeQuery(REPLICA_STATUS)) {
+      if (!resultSet.next()) {
+        return Duration.ZERO;
+      }
+      var seconds = resultSet.getLong(SECONDS_BEHIND);
+      return resultSet.wasNull() ? null : Duration.ofSeconds(seconds);
+    } catch (SQLException e) {
+      log.warn("Could not read the replication lag of replica '{}'", name, e);
+      return null;
+    }
+  }
+}
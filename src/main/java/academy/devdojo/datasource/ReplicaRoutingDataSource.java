@@ -0,0 +1,39 @@
+package academy.devdojo.datasource;
+
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Read-only transactions go round robin to the replicas the lag monitor reports as caught up, everything else to the primary.
+// The lookup happens when the connection is acquired, so it must sit behind a LazyConnectionDataSourceProxy:
+// the transaction is only marked read-only after JpaTransactionManager has begun it
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+  private final ReplicaSet replicaSet;
+  private final ReadYourWrites readYourWrites;
+  private final AtomicInteger next = new AtomicInteger();
+
+  public ReplicaRoutingDataSource(ReplicaSet replicaSet, ReadYourWrites readYourWrites) {
+    this.replicaSet = replicaSet;
+    this.readYourWrites = readYourWrites;
+    var targets = new HashMap<Object, Object>(replicaSet.getReplicas());
+    targets.put(ReplicaSet.PRIMARY, replicaSet.getPrimary());
+    setTargetDataSources(targets);
+    setDefaultTargetDataSource(replicaSet.getPrimary());
+    setLenientFallback(false);
+    afterPropertiesSet();
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || readYourWrites.mustReadPrimary()) {
+      return ReplicaSet.PRIMARY;
+    }
+    var candidates = replicaSet.healthyReplicas();
+    if (candidates.isEmpty()) {
+      return ReplicaSet.PRIMARY;
+    }
+    return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+  }
+}
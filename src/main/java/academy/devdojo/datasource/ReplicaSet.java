@@ -0,0 +1,65 @@
+package academy.devdojo.datasource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+
+// The primary and replica pools plus which replicas are currently caught up.
+// Kept out of the DataSource type on purpose: only the routing proxy is exposed as a DataSource bean
+@Slf4j
+public class ReplicaSet implements Closeable {
+
+  public static final String PRIMARY = "primary";
+
+  private final DataSource primary;
+  private final Map<String, DataSource> replicas;
+  private final Set<String> healthyReplicas = ConcurrentHashMap.newKeySet();
+
+  public ReplicaSet(DataSource primary, Map<String, DataSource> replicas) {
+    if (replicas.containsKey(PRIMARY)) {
+      throw new IllegalArgumentException("Replica name '%s' is reserved".formatted(PRIMARY));
+    }
+    this.primary = primary;
+    this.replicas = Map.copyOf(replicas);
+  }
+
+  public DataSource getPrimary() {
+    return primary;
+  }
+
+  public Map<String, DataSource> getReplicas() {
+    return replicas;
+  }
+
+  public List<String> healthyReplicas() {
+    return List.copyOf(healthyReplicas);
+  }
+
+  public boolean isHealthy(String replica) {
+    return healthyReplicas.contains(replica);
+  }
+
+  public void setHealthy(String replica, boolean healthy) {
+    var changed = healthy ? healthyReplicas.add(replica) : healthyReplicas.remove(replica);
+    if (changed) {
+      log.info("Replica '{}' is now {}", replica, healthy ? "routed to" : "skipped");
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    for (var dataSource : replicas.values()) {
+      if (dataSource instanceof Closeable closeable) {
+        closeable.close();
+      }
+    }
+    if (primary instanceof Closeable closeable) {
+      closeable.close();
+    }
+  }
+}
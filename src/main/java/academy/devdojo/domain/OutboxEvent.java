@@ -0,0 +1,50 @@
+package academy.devdojo.domain;
+
+import academy.devdojo.outbox.OutboxAggregateType;
+import academy.devdojo.outbox.OutboxEventType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+// A change written in the same transaction as the change itself, published later by the OutboxRelay
+@Getter
+@Setter
+@Builder
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+  @EqualsAndHashCode.Include
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private OutboxAggregateType aggregateType;
+  @Column(nullable = false)
+  private Long aggregateId;
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private OutboxEventType eventType;
+  @Column(nullable = false, length = 65535)
+  private String payload;
+  @Column(nullable = false)
+  private Instant occurredAt;
+  private Instant publishedAt;
+  private Instant claimedUntil;
+}
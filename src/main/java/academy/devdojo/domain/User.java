@@ -1,11 +1,12 @@
 package academy.devdojo.domain;
 
+import academy.devdojo.security.RoleAuthorities;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import java.util.Arrays;
+import jakarta.persistence.Version;
 import java.util.Collection;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -16,7 +17,6 @@ import lombok.Setter;
 import lombok.ToString;
 import lombok.With;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 @With
@@ -44,13 +44,13 @@ public class User implements UserDetails {
   private String password;
   @Column(nullable = false)
   private String roles; // ADMIN, USER, MANAGER
+  @Version
+  private Long version;
 
 
   @Override
   public Collection<? extends GrantedAuthority> getAuthorities() {
-    return Arrays.stream(roles.split(","))
-        .map(SimpleGrantedAuthority::new)
-        .toList();
+    return RoleAuthorities.of(roles);
   }
 
   @Override
@@ -0,0 +1,5 @@
+package academy.devdojo.domain;
+
+public record UserBulkDeleteResult(long deletedUsers, long deletedUserProfiles, int chunks) {
+
+}
@@ -0,0 +1,7 @@
+package academy.devdojo.domain;
+
+import java.time.Instant;
+
+// A user created or updated at changedAt, or a tombstone left by its delete, in which case user is null
+public record UserChange(UserChangeType type, Long id, Instant changedAt, UserSummary user) {
+}
@@ -0,0 +1,6 @@
+package academy.devdojo.domain;
+
+public enum UserChangeType {
+  UPSERTED,
+  DELETED
+}
@@ -0,0 +1,16 @@
+package academy.devdojo.domain;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// Columns of the `user` table a client may change, roles and version are never taken from a request
+@Getter
+@RequiredArgsConstructor
+public enum UserColumn {
+  FIRST_NAME("first_name"),
+  LAST_NAME("last_name"),
+  EMAIL("email"),
+  PASSWORD("password");
+
+  private final String column;
+}
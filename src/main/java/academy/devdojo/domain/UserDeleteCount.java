@@ -0,0 +1,6 @@
+package academy.devdojo.domain;
+
+// Rows removed by one bulk delete chunk
+public record UserDeleteCount(int users, int userProfiles) {
+
+}
@@ -0,0 +1,8 @@
+package academy.devdojo.domain;
+
+import java.util.List;
+
+// Users in the order their ids were requested, plus the requested ids that do not exist
+public record UserLookupResult(List<UserSummary> users, List<Long> missingIds) {
+
+}
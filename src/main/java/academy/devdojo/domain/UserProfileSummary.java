@@ -0,0 +1,5 @@
+package academy.devdojo.domain;
+
+// Flat row of the user-profile listing, selected straight from the join so neither the user nor the profile is hydrated
+public record UserProfileSummary(Long id, Long userId, String userFirstName, Long profileId, String profileName) {
+}
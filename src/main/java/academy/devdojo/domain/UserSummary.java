@@ -0,0 +1,5 @@
+package academy.devdojo.domain;
+
+// Read-only view of a user without credentials, selected straight into this record so it never enters the persistence context
+public record UserSummary(Long id, String firstName, String lastName, String email, Long version) {
+}
@@ -0,0 +1,5 @@
+package academy.devdojo.domain;
+
+// Changes whenever a row of the table is inserted, updated or deleted, so it can back a collection ETag
+public record VersionFingerprint(Long count, Long idSum, Long versionSum) {
+}
@@ -0,0 +1,33 @@
+package academy.devdojo.etag;
+
+import academy.devdojo.domain.VersionFingerprint;
+
+public final class Etags {
+
+  private Etags() {
+  }
+
+  public static String of(Long id, Long version) {
+    return "\"%d-%d\"".formatted(id, version);
+  }
+
+  public static String of(VersionFingerprint fingerprint) {
+    return "\"%d-%d-%d\"".formatted(fingerprint.count(), fingerprint.idSum(), fingerprint.versionSum());
+  }
+
+  // Version of the user in a strong If-Match value such as "1-3", or null when no tag in the list belongs to that user
+  public static Long versionOf(Long id, String ifMatch) {
+    var prefix = "\"%d-".formatted(id);
+    for (var tag : ifMatch.split(",")) {
+      var value = tag.strip();
+      if (value.startsWith(prefix) && value.endsWith("\"") && value.length() > prefix.length() + 1) {
+        try {
+          return Long.valueOf(value.substring(prefix.length(), value.length() - 1));
+        } catch (NumberFormatException e) {
+          return null;
+        }
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,94 @@
+package academy.devdojo.etag;
+
+import academy.devdojo.config.UserVersionCacheProperties;
+import academy.devdojo.domain.VersionFingerprint;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Collection;
+import java.util.Set;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Last known version per user id, so a matching If-None-Match can be answered with 304 without a query.
+// Only reads remember a version. Writes on this instance evict the entry and never put their own version back, as two
+// concurrent writers could otherwise leave the older one behind. The ttl bounds how long writes made by other instances go unnoticed.
+// The fingerprint of the whole table is kept the same way for the list ETags, so polls skip the aggregate over every row
+@Component
+public class UserVersionCache implements MeterBinder {
+
+  private static final String CACHE_NAME = "userVersions";
+  private static final String COLLECTION_CACHE_NAME = "userCollectionFingerprint";
+  private static final String COLLECTION_KEY = "users";
+
+  private final Cache<Long, Long> cache;
+  private final Cache<String, VersionFingerprint> collectionCache;
+
+  public UserVersionCache(UserVersionCacheProperties properties) {
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(properties.maximumSize())
+        .expireAfterWrite(properties.ttl())
+        .recordStats()
+        .build();
+    this.collectionCache = Caffeine.newBuilder()
+        .expireAfterWrite(properties.ttl())
+        .recordStats()
+        .build();
+  }
+
+  public Long find(Long id) {
+    return cache.getIfPresent(id);
+  }
+
+  // Versions only grow, so of two reads that race the older one never moves the entry backwards
+  public void remember(Long id, Long version) {
+    if (id != null && version != null) {
+      cache.asMap().merge(id, version, Math::max);
+    }
+  }
+
+  // Concurrent misses wait for a single load, and an eviction during the load drops what it returns
+  public VersionFingerprint collectionFingerprint(Supplier<VersionFingerprint> loader) {
+    return collectionCache.get(COLLECTION_KEY, key -> loader.get());
+  }
+
+  public void evict(Long id) {
+    if (id != null) {
+      invalidateNowAndAfterCompletion(() -> cache.invalidate(id));
+    }
+  }
+
+  public void evictAll(Collection<Long> ids) {
+    var idSet = Set.copyOf(ids);
+    invalidateNowAndAfterCompletion(() -> cache.invalidateAll(idSet));
+  }
+
+  // Called by every write of users
+  public void evictCollection() {
+    invalidateNowAndAfterCompletion(() -> collectionCache.invalidate(COLLECTION_KEY));
+  }
+
+  // Dropped again once the transaction ends, a read that came in before the commit could otherwise remember the old
+  // version or fingerprint and answer 304 to it for the whole ttl
+  private static void invalidateNowAndAfterCompletion(Runnable invalidation) {
+    invalidation.run();
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          invalidation.run();
+        }
+      });
+    }
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    CaffeineCacheMetrics.monitor(registry, collectionCache, COLLECTION_CACHE_NAME);
+  }
+}
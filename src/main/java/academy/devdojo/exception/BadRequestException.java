@@ -0,0 +1,11 @@
+package academy.devdojo.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class BadRequestException extends ResponseStatusException {
+
+  public BadRequestException(String message) {
+    super(HttpStatus.BAD_REQUEST, message);
+  }
+}
@@ -0,0 +1,11 @@
+package academy.devdojo.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class ConflictException extends ResponseStatusException {
+
+  public ConflictException(String message) {
+    super(HttpStatus.CONFLICT, message);
+  }
+}
@@ -7,6 +7,8 @@ import java.time.format.DateTimeFormatter;
 import java.util.Objects;
 import java.util.stream.Collectors;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -23,11 +25,30 @@ public class GlobalErrorHandlerAdvice {
     return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
   }
 
+  @ExceptionHandler(HashingCapacityExceededException.class)
+  public ResponseEntity<DefaultErrorMessage> handleHashingCapacityExceededException(HashingCapacityExceededException e) {
+    var error = new DefaultErrorMessage(HttpStatus.SERVICE_UNAVAILABLE.value(), e.getReason());
+
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).headers(e.getHeaders()).body(error);
+  }
+
   @ExceptionHandler(SQLIntegrityConstraintViolationException.class)
   public ResponseEntity<DefaultErrorMessage> handleSqlIntegrityViolation(SQLIntegrityConstraintViolationException e) {
     var error = new DefaultErrorMessage(HttpStatus.BAD_REQUEST.value(), "Duplicated entry for one of the unique fields");
 
-    return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+  }
+
+  // Writes rely on the database constraints instead of checking first, whatever the service does not translate ends up here
+  @ExceptionHandler(DataIntegrityViolationException.class)
+  public ResponseEntity<DefaultErrorMessage> handleDataIntegrityViolation(DataIntegrityViolationException e) {
+    if (e instanceof DuplicateKeyException) {
+      var error = new DefaultErrorMessage(HttpStatus.BAD_REQUEST.value(), "Duplicated entry for one of the unique fields");
+      return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+    var error = new DefaultErrorMessage(HttpStatus.CONFLICT.value(), "The request conflicts with data that depends on it");
+
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
   }
 
   @ExceptionHandler(MethodArgumentNotValidException.class)
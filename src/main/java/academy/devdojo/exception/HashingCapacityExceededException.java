@@ -0,0 +1,25 @@
+package academy.devdojo.exception;
+
+import java.time.Duration;
+import lombok.Getter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+@Getter
+public class HashingCapacityExceededException extends ResponseStatusException {
+
+  private final Duration retryAfter;
+
+  public HashingCapacityExceededException(Duration retryAfter) {
+    super(HttpStatus.SERVICE_UNAVAILABLE, "Too many password operations in progress, try again later");
+    this.retryAfter = retryAfter;
+  }
+
+  @Override
+  public HttpHeaders getHeaders() {
+    var headers = new HttpHeaders();
+    headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())));
+    return headers;
+  }
+}
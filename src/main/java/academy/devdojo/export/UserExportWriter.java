@@ -0,0 +1,85 @@
+package academy.devdojo.export;
+
+import academy.devdojo.domain.UserSummary;
+import academy.devdojo.mapper.UserMapper;
+import academy.devdojo.service.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+// Writes every user as it comes out of the database cursor, so memory does not grow with the table
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class UserExportWriter {
+
+  private static final int FLUSH_EVERY = 500;
+
+  private final UserService service;
+  private final UserMapper mapper;
+  private final ObjectMapper objectMapper;
+
+  // NDJSON unless the client explicitly prefers application/json, in which case a single JSON array is streamed
+  public MediaType resolveMediaType(String accept) {
+    if (accept == null || accept.isBlank()) {
+      return MediaType.APPLICATION_NDJSON;
+    }
+    var mediaTypes = MediaType.parseMediaTypes(accept);
+    MimeTypeUtils.sortBySpecificity(mediaTypes);
+    return mediaTypes.stream()
+        .filter(mediaType -> mediaType.includes(MediaType.APPLICATION_NDJSON) || mediaType.includes(MediaType.APPLICATION_JSON))
+        .findFirst()
+        .filter(mediaType -> mediaType.equalsTypeAndSubtype(MediaType.APPLICATION_JSON))
+        .map(mediaType -> MediaType.APPLICATION_JSON)
+        .orElse(MediaType.APPLICATION_NDJSON);
+  }
+
+  public void write(OutputStream outputStream, MediaType mediaType) throws IOException {
+    write(outputStream, mediaType, service::forEachSummary);
+  }
+
+  // Same output for any other cursor over user summaries, e.g. the users of one profile
+  public void write(OutputStream outputStream, MediaType mediaType, Consumer<Consumer<UserSummary>> source) throws IOException {
+    var array = MediaType.APPLICATION_JSON.equalsTypeAndSubtype(mediaType);
+    var rows = new AtomicLong();
+    var start = System.nanoTime();
+
+    try (var generator = objectMapper.createGenerator(outputStream)) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      generator.setRootValueSeparator(null);
+      if (array) {
+        generator.writeStartArray();
+      }
+      source.accept(summary -> {
+        try {
+          generator.writeObject(mapper.toUserGetResponse(summary));
+          if (!array) {
+            generator.writeRaw('\n');
+          }
+          if (rows.incrementAndGet() % FLUSH_EVERY == 0) {
+            generator.flush();
+          }
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+      if (array) {
+        generator.writeEndArray();
+      }
+    } catch (UncheckedIOException e) {
+      log.debug("User export aborted after '{}' rows", rows.get());
+      throw e.getCause();
+    }
+
+    log.debug("Exported '{}' users as '{}' in '{}' ms", rows.get(), mediaType, (System.nanoTime() - start) / 1_000_000);
+  }
+}
@@ -0,0 +1,9 @@
+package academy.devdojo.fields;
+
+// A response attribute that can be requested with fields=, dotted properties are nested objects in the JSON output
+public interface SparseField {
+
+  String getProperty();
+
+  String getColumn();
+}
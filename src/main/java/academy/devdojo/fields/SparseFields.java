@@ -0,0 +1,41 @@
+package academy.devdojo.fields;
+
+import academy.devdojo.exception.BadRequestException;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public final class SparseFields {
+
+  private SparseFields() {
+  }
+
+  // "id,email" selects those fields, a nested object name such as "user" selects all of its fields
+  public static <F extends Enum<F> & SparseField> Set<F> parse(String fields, Class<F> type) {
+    var selected = EnumSet.noneOf(type);
+    for (var name : fields.split(",")) {
+      var property = name.strip();
+      if (property.isEmpty()) {
+        continue;
+      }
+      var matches = Arrays.stream(type.getEnumConstants())
+          .filter(field -> field.getProperty().equals(property) || field.getProperty().startsWith(property + "."))
+          .toList();
+      if (matches.isEmpty()) {
+        throw new BadRequestException("Unknown field '%s', expected any of %s".formatted(property, properties(type)));
+      }
+      selected.addAll(matches);
+    }
+    if (selected.isEmpty()) {
+      throw new BadRequestException("The parameter 'fields' must name at least one of %s".formatted(properties(type)));
+    }
+    return selected;
+  }
+
+  private static <F extends Enum<F> & SparseField> String properties(Class<F> type) {
+    return Arrays.stream(type.getEnumConstants())
+        .map(SparseField::getProperty)
+        .collect(Collectors.joining(", ", "[", "]"));
+  }
+}
@@ -0,0 +1,58 @@
+package academy.devdojo.fields;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.jdbc.core.RowMapper;
+
+// A native query whose select list holds only the requested fields. Each distinct field set is compiled once into its SQL
+// and the JSON path of every column; field sets are subsets of a small enum, so the cache is bounded by design.
+// Rows are read with plain JDBC: a Hibernate native Tuple query resolves its result metadata again on every execution
+public final class SparseQuery<F extends Enum<F> & SparseField> {
+
+  private final String fromClause;
+  private final Map<Set<F>, Projection> projections = new ConcurrentHashMap<>();
+
+  public SparseQuery(String fromClause) {
+    this.fromClause = fromClause;
+  }
+
+  public Projection projection(Set<F> fields) {
+    var projection = projections.get(fields);
+    return projection != null ? projection : projections.computeIfAbsent(Set.copyOf(fields), this::compile);
+  }
+
+  private Projection compile(Set<F> fields) {
+    var ordered = fields.stream().sorted().toList();
+    var columns = new StringBuilder();
+    for (var i = 0; i < ordered.size(); i++) {
+      columns.append(i == 0 ? "" : ", ").append(ordered.get(i).getColumn()).append(" AS f").append(i);
+    }
+    var paths = ordered.stream()
+        .map(field -> field.getProperty().split("\\."))
+        .toList();
+    return new Projection("SELECT %s %s".formatted(columns, fromClause), paths);
+  }
+
+  public record Projection(String sql, List<String[]> paths) implements RowMapper<Map<String, Object>> {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> mapRow(ResultSet resultSet, int rowNum) throws SQLException {
+      var result = new LinkedHashMap<String, Object>();
+      for (var i = 0; i < paths.size(); i++) {
+        var path = paths.get(i);
+        Map<String, Object> target = result;
+        for (var j = 0; j < path.length - 1; j++) {
+          target = (Map<String, Object>) target.computeIfAbsent(path[j], key -> new LinkedHashMap<String, Object>());
+        }
+        target.put(path[path.length - 1], resultSet.getObject(i + 1));
+      }
+      return result;
+    }
+  }
+}
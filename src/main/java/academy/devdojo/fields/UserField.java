@@ -0,0 +1,17 @@
+package academy.devdojo.fields;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// Attributes of UserGetResponse and UserProfileUserGetResponse, read from the `user` table aliased as u
+@Getter
+@RequiredArgsConstructor
+public enum UserField implements SparseField {
+  ID("id", "u.id"),
+  FIRST_NAME("firstName", "u.first_name"),
+  LAST_NAME("lastName", "u.last_name"),
+  EMAIL("email", "u.email");
+
+  private final String property;
+  private final String column;
+}
@@ -0,0 +1,18 @@
+package academy.devdojo.fields;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// Attributes of UserProfileGetResponse, read from user_profile up joined with `user` u and profile p
+@Getter
+@RequiredArgsConstructor
+public enum UserProfileField implements SparseField {
+  ID("id", "up.id"),
+  USER_ID("user.id", "u.id"),
+  USER_FIRST_NAME("user.firstName", "u.first_name"),
+  PROFILE_ID("profile.id", "p.id"),
+  PROFILE_NAME("profile.name", "p.name");
+
+  private final String property;
+  private final String column;
+}
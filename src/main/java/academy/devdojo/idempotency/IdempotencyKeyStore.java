@@ -0,0 +1,126 @@
+package academy.devdojo.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Second tier behind the in-memory cache, so a retry that lands on another instance or after a restart is still replayed.
+// A key is reserved before its request runs, a duplicate on another instance then waits for the response instead of running.
+// Keys are stored as their SHA-256 so the primary key has a fixed width whatever the scope and principal look like
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "idempotency", name = "database-enabled", havingValue = "true")
+public class IdempotencyKeyStore {
+
+  private static final Duration PURGE_INTERVAL = Duration.ofMinutes(1);
+
+  private static final String FIND = """
+      SELECT fingerprint, status, body FROM idempotency_key
+      WHERE key_hash = :keyHash AND expires_at > :now AND status IS NOT NULL""";
+
+  private static final String DELETE_EXPIRED = "DELETE FROM idempotency_key WHERE key_hash = :keyHash AND expires_at <= :now";
+
+  private static final String RESERVE = """
+      INSERT INTO idempotency_key (key_hash, fingerprint, expires_at)
+      VALUES (:keyHash, :fingerprint, :expiresAt)""";
+
+  private static final String RELEASE = "DELETE FROM idempotency_key WHERE key_hash = :keyHash AND status IS NULL";
+
+  // An expired row or the reservation under the same key is simply overwritten
+  private static final String UPSERT = """
+      INSERT INTO idempotency_key (key_hash, fingerprint, status, body, expires_at)
+      VALUES (:keyHash, :fingerprint, :status, :body, :expiresAt)
+      ON DUPLICATE KEY UPDATE fingerprint = VALUES(fingerprint), status = VALUES(status), body = VALUES(body),
+                              expires_at = VALUES(expires_at)""";
+
+  private static final String PURGE = "DELETE FROM idempotency_key WHERE expires_at < :now LIMIT 1000";
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+  private final ObjectMapper objectMapper;
+  private final AtomicReference<Instant> lastPurge = new AtomicReference<>(Instant.EPOCH);
+
+  public IdempotencyKeyStore(NamedParameterJdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.objectMapper = objectMapper;
+  }
+
+  Optional<StoredResponse> find(String keyHash, Class<?> bodyType) {
+    var parameters = new MapSqlParameterSource()
+        .addValue("keyHash", keyHash)
+        .addValue("now", Timestamp.from(Instant.now()));
+    return jdbcTemplate.query(FIND, parameters, (resultSet, rowNumber) -> new StoredResponse(resultSet.getString("fingerprint"),
+            resultSet.getInt("status"), readBody(resultSet.getString("body"), bodyType)))
+        .stream()
+        .findFirst();
+  }
+
+  // False when the key already has a live row, a stored response or another request's reservation
+  boolean reserve(String keyHash, String fingerprint, Duration timeout) {
+    var now = Instant.now();
+    var parameters = new MapSqlParameterSource()
+        .addValue("keyHash", keyHash)
+        .addValue("fingerprint", fingerprint)
+        .addValue("now", Timestamp.from(now))
+        .addValue("expiresAt", Timestamp.from(now.plus(timeout)));
+    jdbcTemplate.update(DELETE_EXPIRED, parameters);
+    try {
+      jdbcTemplate.update(RESERVE, parameters);
+      return true;
+    } catch (DuplicateKeyException e) {
+      return false;
+    }
+  }
+
+  // Leaves a stored response alone, only a reservation is dropped
+  void release(String keyHash) {
+    jdbcTemplate.update(RELEASE, new MapSqlParameterSource("keyHash", keyHash));
+  }
+
+  void save(String keyHash, StoredResponse response, Duration ttl) {
+    var now = Instant.now();
+    var parameters = new MapSqlParameterSource()
+        .addValue("keyHash", keyHash)
+        .addValue("fingerprint", response.fingerprint())
+        .addValue("status", response.status())
+        .addValue("body", writeBody(response.body()))
+        .addValue("expiresAt", Timestamp.from(now.plus(ttl)));
+    jdbcTemplate.update(UPSERT, parameters);
+    purgeExpired(now);
+  }
+
+  // At most one small delete per interval, from whichever request gets here first
+  private void purgeExpired(Instant now) {
+    var previous = lastPurge.get();
+    if (previous.plus(PURGE_INTERVAL).isAfter(now) || !lastPurge.compareAndSet(previous, now)) {
+      return;
+    }
+    var purged = jdbcTemplate.update(PURGE, new MapSqlParameterSource("now", Timestamp.from(now)));
+    log.debug("Purged '{}' expired idempotency keys", purged);
+  }
+
+  private Object readBody(String body, Class<?> bodyType) {
+    try {
+      return objectMapper.readValue(body, bodyType);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Unable to read a stored idempotent response", e);
+    }
+  }
+
+  private String writeBody(Object body) {
+    try {
+      return objectMapper.writeValueAsString(body);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Unable to store an idempotent response", e);
+    }
+  }
+}
@@ -0,0 +1,233 @@
+package academy.devdojo.idempotency;
+
+import academy.devdojo.config.IdempotencyProperties;
+import academy.devdojo.exception.BadRequestException;
+import academy.devdojo.exception.ConflictException;
+import academy.devdojo.exception.UnprocessableEntityException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+// Runs a request once per Idempotency-Key. A retry with the same key and body gets the stored response without running
+// anything again, a duplicate that arrives while the first request still runs waits for its result. With the database store
+// that holds across instances too, the key is reserved there first and a duplicate elsewhere polls for the response.
+// Failures are not stored, so a request that threw can be retried with the same key
+@Slf4j
+@Component
+public class IdempotentRequests implements MeterBinder {
+
+  public static final String HEADER = "Idempotency-Key";
+  public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+  private static final int MAXIMUM_KEY_LENGTH = 255;
+  private static final String CACHE_NAME = "idempotencyKeys";
+  private static final String HMAC_ALGORITHM = "HmacSHA256";
+  private static final Duration STORE_POLL_INTERVAL = Duration.ofMillis(100);
+
+  private final Cache<String, CompletableFuture<StoredResponse>> cache;
+  private final IdempotencyKeyStore store;
+  private final ObjectMapper objectMapper;
+  private final SecretKeySpec fingerprintKey;
+  private final Duration ttl;
+  private final Duration waitTimeout;
+  private final Duration reservationTimeout;
+  private Counter replayedCounter;
+
+  public IdempotentRequests(IdempotencyProperties properties, ObjectProvider<IdempotencyKeyStore> store, ObjectMapper objectMapper) {
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(properties.maximumSize())
+        .expireAfterWrite(properties.ttl())
+        .recordStats()
+        .build();
+    this.store = store.getIfAvailable();
+    this.objectMapper = objectMapper;
+    this.fingerprintKey = new SecretKeySpec(secret(properties.fingerprintSecret()), HMAC_ALGORITHM);
+    this.ttl = properties.ttl();
+    this.waitTimeout = properties.waitTimeout();
+    this.reservationTimeout = properties.reservationTimeout();
+  }
+
+  // scope names the endpoint, keys are also kept apart per principal so one caller can never replay another's response
+  public <T> ResponseEntity<T> execute(String scope, String key, Object request, Class<T> bodyType, Supplier<ResponseEntity<T>> action) {
+    if (key == null) {
+      return action.get();
+    }
+    if (key.isBlank() || key.length() > MAXIMUM_KEY_LENGTH) {
+      throw new BadRequestException("%s must have between 1 and %d characters".formatted(HEADER, MAXIMUM_KEY_LENGTH));
+    }
+    var keyHash = sha256(scope + '\n' + principal() + '\n' + key);
+    var fingerprint = fingerprint(request);
+    var execution = new CompletableFuture<StoredResponse>();
+    var running = cache.asMap().putIfAbsent(keyHash, execution);
+    if (running != null) {
+      return replay(await(running), fingerprint, bodyType);
+    }
+
+    StoredResponse stored;
+    try {
+      stored = store == null ? null : reserveOrFind(keyHash, fingerprint, bodyType);
+    } catch (RuntimeException e) {
+      cache.asMap().remove(keyHash, execution);
+      execution.completeExceptionally(e);
+      throw e;
+    }
+    if (stored != null) {
+      execution.complete(stored);
+      return replay(stored, fingerprint, bodyType);
+    }
+    return run(keyHash, fingerprint, execution, action);
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    replayedCounter = Counter.builder("idempotency.replayed")
+        .description("Requests answered with a stored response instead of being run again")
+        .register(registry);
+  }
+
+  private <T> ResponseEntity<T> run(String keyHash, String fingerprint, CompletableFuture<StoredResponse> execution,
+                                    Supplier<ResponseEntity<T>> action) {
+    ResponseEntity<T> response;
+    try {
+      response = action.get();
+    } catch (RuntimeException e) {
+      cache.asMap().remove(keyHash, execution);
+      execution.completeExceptionally(e);
+      release(keyHash);
+      throw e;
+    }
+
+    var stored = new StoredResponse(fingerprint, response.getStatusCode().value(), response.getBody());
+    execution.complete(stored);
+    if (store != null) {
+      try {
+        store.save(keyHash, stored, ttl);
+      } catch (DataAccessException e) {
+        // The work is done and committed, only a retry on another instance would run it again
+        log.warn("Unable to store the idempotent response, it is only kept in memory", e);
+      }
+    }
+    return response;
+  }
+
+  // null once this request holds the reservation. A key reserved by a request on another instance is polled until its
+  // response is stored, or until the reservation is gone because that request failed
+  private StoredResponse reserveOrFind(String keyHash, String fingerprint, Class<?> bodyType) {
+    var deadline = System.nanoTime() + waitTimeout.toNanos();
+    while (true) {
+      var stored = store.find(keyHash, bodyType);
+      if (stored.isPresent()) {
+        return stored.get();
+      }
+      if (store.reserve(keyHash, fingerprint, reservationTimeout)) {
+        return null;
+      }
+      if (System.nanoTime() >= deadline) {
+        throw new ConflictException("A request with this %s is still in progress, retry later".formatted(HEADER));
+      }
+      try {
+        Thread.sleep(STORE_POLL_INTERVAL);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ConflictException("A request with this %s is still in progress, retry later".formatted(HEADER));
+      }
+    }
+  }
+
+  private void release(String keyHash) {
+    if (store == null) {
+      return;
+    }
+    try {
+      store.release(keyHash);
+    } catch (DataAccessException e) {
+      log.warn("Unable to release the idempotency key, a retry waits until the reservation expires", e);
+    }
+  }
+
+  private StoredResponse await(CompletableFuture<StoredResponse> execution) {
+    try {
+      return execution.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      throw new ConflictException("A request with this %s is still in progress, retry later".formatted(HEADER));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ConflictException("A request with this %s is still in progress, retry later".formatted(HEADER));
+    } catch (ExecutionException e) {
+      // The first request failed, its duplicates fail the same way instead of running it a second time in parallel
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  private <T> ResponseEntity<T> replay(StoredResponse stored, String fingerprint, Class<T> bodyType) {
+    if (!stored.fingerprint().equals(fingerprint)) {
+      throw new UnprocessableEntityException("%s was already used for a different request".formatted(HEADER));
+    }
+    if (replayedCounter != null) {
+      replayedCounter.increment();
+    }
+    return ResponseEntity.status(stored.status()).header(REPLAYED_HEADER, "true").body(bodyType.cast(stored.body()));
+  }
+
+  // Keyed hash of the request, the body can hold a password, so a plain digest of it must not end up in the database
+  private String fingerprint(Object request) {
+    try {
+      var mac = Mac.getInstance(HMAC_ALGORITHM);
+      mac.init(fingerprintKey);
+      return HexFormat.of().formatHex(mac.doFinal(objectMapper.writeValueAsBytes(request)));
+    } catch (GeneralSecurityException | JsonProcessingException e) {
+      throw new IllegalStateException("Unable to fingerprint the request", e);
+    }
+  }
+
+  private static String principal() {
+    var authentication = SecurityContextHolder.getContext().getAuthentication();
+    return authentication == null ? "" : authentication.getName();
+  }
+
+  private static String sha256(String value) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static byte[] secret(String configured) {
+    if (StringUtils.hasText(configured)) {
+      return configured.getBytes(StandardCharsets.UTF_8);
+    }
+    var random = new byte[32];
+    new SecureRandom().nextBytes(random);
+    return random;
+  }
+}
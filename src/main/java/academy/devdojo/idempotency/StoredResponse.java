@@ -0,0 +1,6 @@
+package academy.devdojo.idempotency;
+
+// The body is kept as the object the controller returned, the database store reads it back into the same type
+record StoredResponse(String fingerprint, int status, Object body) {
+
+}
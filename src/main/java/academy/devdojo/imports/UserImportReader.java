@@ -0,0 +1,201 @@
+package academy.devdojo.imports;
+
+import academy.devdojo.domain.User;
+import academy.devdojo.mapper.UserMapper;
+import academy.devdojo.repository.UserConstraints;
+import academy.devdojo.request.UserPostRequest;
+import academy.devdojo.response.UserImportError;
+import academy.devdojo.response.UserImportResponse;
+import academy.devdojo.security.HashingPriority;
+import academy.devdojo.security.PasswordHashingExecutor;
+import academy.devdojo.service.UserService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+// Reads an NDJSON body line by line, so memory is bounded by the chunk size rather than by the upload.
+// Every row is validated on its own, a bad row is reported with its line number and the rest of the import goes on
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class UserImportReader {
+
+  static final int CHUNK_SIZE = 500;
+
+  private final UserService service;
+  private final UserMapper mapper;
+  private final PasswordEncoder passwordEncoder;
+  private final PasswordHashingExecutor hashingExecutor;
+  private final ObjectMapper objectMapper;
+  private final Validator validator;
+
+  public UserImportResponse read(InputStream inputStream) throws IOException {
+    var progress = new Progress();
+    var chunk = new ArrayList<Row>(CHUNK_SIZE);
+    var start = System.nanoTime();
+
+    var reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    var lineNumber = 0L;
+    String line;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      if (line.isBlank()) {
+        continue;
+      }
+      var row = parse(lineNumber, line, progress);
+      if (row == null) {
+        continue;
+      }
+      chunk.add(row);
+      if (chunk.size() == CHUNK_SIZE) {
+        importChunk(chunk, progress);
+        chunk.clear();
+      }
+    }
+    importChunk(chunk, progress);
+
+    log.debug("Imported '{}' users, '{}' rows failed, in '{}' ms", progress.imported, progress.failed,
+        (System.nanoTime() - start) / 1_000_000);
+    return new UserImportResponse(progress.imported, progress.failed, progress.errors);
+  }
+
+  private Row parse(long lineNumber, String line, Progress progress) {
+    UserPostRequest request;
+    try {
+      request = objectMapper.readValue(line, UserPostRequest.class);
+    } catch (JsonProcessingException e) {
+      progress.fail(lineNumber, null, "Malformed JSON: " + e.getOriginalMessage());
+      return null;
+    }
+
+    var violations = validator.validate(request);
+    if (!violations.isEmpty()) {
+      var message = violations.stream()
+          .map(ConstraintViolation::getMessage)
+          .sorted()
+          .collect(Collectors.joining(", "));
+      progress.fail(lineNumber, request.getEmail(), message);
+      return null;
+    }
+
+    var firstLine = progress.emailLines.putIfAbsent(emailKey(request.getEmail()), lineNumber);
+    if (firstLine != null) {
+      progress.fail(lineNumber, request.getEmail(), "E-mail %s is already on line %d".formatted(request.getEmail(), firstLine));
+      return null;
+    }
+    return new Row(lineNumber, request);
+  }
+
+  private void importChunk(List<Row> chunk, Progress progress) {
+    if (chunk.isEmpty()) {
+      return;
+    }
+    var emails = chunk.stream().map(row -> row.request().getEmail()).toList();
+    var existingEmails = service.findExistingEmails(emails).stream()
+        .map(UserImportReader::emailKey)
+        .collect(Collectors.toSet());
+
+    var rows = new ArrayList<Row>(chunk.size());
+    for (var row : chunk) {
+      if (existingEmails.contains(emailKey(row.request().getEmail()))) {
+        progress.failEmailExists(row);
+      } else {
+        rows.add(row);
+      }
+    }
+    if (rows.isEmpty()) {
+      return;
+    }
+
+    var users = encodePasswords(rows);
+    try {
+      progress.imported += service.insertAll(users);
+    } catch (DataIntegrityViolationException e) {
+      // Usually an e-mail created after the check above, insert one by one to find out which row failed and why
+      log.debug("Batch insert of '{}' users failed, retrying row by row", users.size(), e);
+      for (var i = 0; i < users.size(); i++) {
+        try {
+          progress.imported += service.insertAll(List.of(users.get(i)));
+        } catch (DataIntegrityViolationException rowException) {
+          progress.failConstraint(rows.get(i), rowException);
+        }
+      }
+    }
+  }
+
+  // Hashes on the shared hashing executor at the lowest priority, keeping at most one task per hashing thread in flight
+  // so interactive signups and logins still find room in the queue
+  private List<User> encodePasswords(List<Row> rows) {
+    var inFlight = new Semaphore(hashingExecutor.parallelism());
+    var encodedPasswords = new ArrayList<CompletableFuture<String>>(rows.size());
+    for (var row : rows) {
+      var rawPassword = row.request().getPassword();
+      inFlight.acquireUninterruptibly();
+      encodedPasswords.add(hashingExecutor.submitWhenQueueHasRoom(HashingPriority.BULK_IMPORT, () -> passwordEncoder.encode(rawPassword))
+          .whenComplete((encodedPassword, e) -> inFlight.release()));
+    }
+
+    var users = new ArrayList<User>(rows.size());
+    for (var i = 0; i < rows.size(); i++) {
+      users.add(mapper.toUser(rows.get(i).request(), encodedPasswords.get(i).join()));
+    }
+    return users;
+  }
+
+  private static String emailKey(String email) {
+    return email.toLowerCase(Locale.ROOT);
+  }
+
+  private record Row(long line, UserPostRequest request) {
+
+  }
+
+  private static final class Progress {
+
+    // Every e-mail of the import with its first line, to report duplicates inside the body
+    private final Map<String, Long> emailLines = new HashMap<>();
+    private final List<UserImportError> errors = new ArrayList<>();
+    private long imported;
+    private long failed;
+
+    private void fail(long line, String email, String message) {
+      failed++;
+      if (errors.size() < UserImportResponse.MAXIMUM_REPORTED_ERRORS) {
+        errors.add(new UserImportError(line, email, message));
+      }
+    }
+
+    private void failEmailExists(Row row) {
+      var email = row.request().getEmail();
+      fail(row.line(), email, "E-mail %s already exists".formatted(email));
+    }
+
+    private void failConstraint(Row row, DataIntegrityViolationException e) {
+      if (UserConstraints.isEmailUniqueKeyViolation(e)) {
+        failEmailExists(row);
+      } else {
+        log.debug("Import of line '{}' violates a database constraint", row.line(), e);
+        fail(row.line(), row.request().getEmail(), "The row violates a database constraint");
+      }
+    }
+  }
+}
@@ -6,11 +6,14 @@ import academy.devdojo.response.ProfileGetResponse;
 import academy.devdojo.response.ProfilePostResponse;
 import java.util.List;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants;
 
 @Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
 public interface ProfileMapper {
 
+  @Mapping(target = "id", ignore = true)
+  @Mapping(target = "version", ignore = true)
   Profile toProfile(ProfilePostRequest postRequest);
 
   ProfilePostResponse toProfilePostResponse(Profile profile);
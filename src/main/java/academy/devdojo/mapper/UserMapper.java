@@ -2,47 +2,66 @@ package academy.devdojo.mapper;
 
 import academy.devdojo.annotation.EncondedMapping;
 import academy.devdojo.domain.User;
+import academy.devdojo.domain.UserBulkDeleteResult;
+import academy.devdojo.domain.UserChange;
+import academy.devdojo.domain.UserLookupResult;
+import academy.devdojo.domain.UserSummary;
+import academy.devdojo.request.UserPatchRequest;
 import academy.devdojo.request.UserPostRequest;
 import academy.devdojo.request.UserPutRequest;
+import academy.devdojo.response.UserBulkDeleteResponse;
+import academy.devdojo.response.UserChangeResponse;
 import academy.devdojo.response.UserGetResponse;
+import academy.devdojo.response.UserLookupResponse;
 import academy.devdojo.response.UserPostResponse;
 import java.util.List;
-import org.mapstruct.AfterMapping;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants;
-import org.mapstruct.MappingTarget;
 
 @Mapper(componentModel = MappingConstants.ComponentModel.SPRING,
     uses = PasswordEncoderMapper.class
 )
 public interface UserMapper {
 
+  @Mapping(target = "id", ignore = true)
+  @Mapping(target = "version", ignore = true)
   @Mapping(target = "roles", constant = "USER")
   @Mapping(target = "password", qualifiedBy = EncondedMapping.class)
   User toUser(UserPostRequest postRequest);
 
+  @Mapping(target = "id", ignore = true)
+  @Mapping(target = "version", ignore = true)
+  @Mapping(target = "roles", constant = "USER")
+  @Mapping(target = "password", source = "encodedPassword")
+  User toUser(UserPostRequest postRequest, String encodedPassword);
+
+  @Mapping(target = "roles", ignore = true)
+  @Mapping(target = "version", ignore = true)
+  @Mapping(target = "password", qualifiedBy = EncondedMapping.class)
   User toUser(UserPutRequest request);
 
+  // The password is only hashed when the patch carries one. The id comes from the path, roles are never patched
+  @Mapping(target = "id", ignore = true)
+  @Mapping(target = "roles", ignore = true)
+  @Mapping(target = "version", ignore = true)
+  @Mapping(target = "password", qualifiedBy = EncondedMapping.class)
+  User toUser(UserPatchRequest request);
+
   UserPostResponse toUserPostResponse(User user);
 
   UserGetResponse toUserGetResponse(User user);
 
+  UserGetResponse toUserGetResponse(UserSummary userSummary);
+
   List<UserGetResponse> toUserGetResponseList(List<User> user);
 
-  @Mapping(target = "password", source = "rawPassword", qualifiedBy = EncondedMapping.class)
-  @Mapping(target = "roles", source = "savedUser.roles")
-  @Mapping(target = "id", source = "userToUpdate.roles")
-  @Mapping(target = "firstName", source = "userToUpdate.firstName")
-  @Mapping(target = "lastName", source = "userToUpdate.lastName")
-  @Mapping(target = "email", source = "userToUpdate.email")
-  User toUserWithPasswordAndRoles(User userToUpdate, String rawPassword, User savedUser);
-
-  @AfterMapping
-  default void setPasswordIfNull(@MappingTarget User user, String rawPassword, User savedUser) {
-    if (rawPassword == null) {
-      user.setPassword(savedUser.getPassword());
-    }
-  }
+  List<UserGetResponse> toUserGetResponseListFromSummaries(List<UserSummary> userSummaries);
+
+  UserLookupResponse toUserLookupResponse(UserLookupResult lookupResult);
+
+  UserBulkDeleteResponse toUserBulkDeleteResponse(UserBulkDeleteResult bulkDeleteResult);
+
+  List<UserChangeResponse> toUserChangeResponseList(List<UserChange> changes);
 
 }
@@ -1,11 +1,13 @@
 package academy.devdojo.mapper;
 
-import academy.devdojo.domain.User;
 import academy.devdojo.domain.UserProfile;
+import academy.devdojo.domain.UserProfileSummary;
+import academy.devdojo.domain.UserSummary;
 import academy.devdojo.response.UserProfileGetResponse;
 import academy.devdojo.response.UserProfileUserGetResponse;
 import java.util.List;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants;
 
 @Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
@@ -13,7 +15,15 @@ public interface UserProfileMapper {
 
   List<UserProfileGetResponse> toUserProfileGetResponse(List<UserProfile> userProfiles);
 
+  @Mapping(target = "user.id", source = "userId")
+  @Mapping(target = "user.firstName", source = "userFirstName")
+  @Mapping(target = "profile.id", source = "profileId")
+  @Mapping(target = "profile.name", source = "profileName")
+  UserProfileGetResponse toUserProfileGetResponse(UserProfileSummary userProfile);
 
-  List<UserProfileUserGetResponse> toUserProfileUserGetResponseList(List<User> users);
+  List<UserProfileGetResponse> toUserProfileGetResponseListFromSummaries(List<UserProfileSummary> userProfiles);
+
+
+  List<UserProfileUserGetResponse> toUserProfileUserGetResponseList(List<UserSummary> users);
 
 }
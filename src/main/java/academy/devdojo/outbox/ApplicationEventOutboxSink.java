@@ -0,0 +1,17 @@
+package academy.devdojo.outbox;
+
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+
+// Hands every event to @EventListener methods of OutboxMessage in this application, mostly for tests
+@RequiredArgsConstructor
+public class ApplicationEventOutboxSink implements OutboxSink {
+
+  private final ApplicationEventPublisher publisher;
+
+  @Override
+  public void publish(List<OutboxMessage> messages) {
+    messages.forEach(publisher::publishEvent);
+  }
+}
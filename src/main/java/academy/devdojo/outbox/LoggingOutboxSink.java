@@ -0,0 +1,26 @@
+package academy.devdojo.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// One JSON line per event on the 'outbox' logger, route it to its own file in the logging configuration
+@Slf4j(topic = "outbox")
+@RequiredArgsConstructor
+public class LoggingOutboxSink implements OutboxSink {
+
+  private final ObjectMapper objectMapper;
+
+  @Override
+  public void publish(List<OutboxMessage> messages) {
+    for (var message : messages) {
+      try {
+        log.info(objectMapper.writeValueAsString(message));
+      } catch (JsonProcessingException e) {
+        throw new IllegalStateException("Unable to write outbox event " + message.id(), e);
+      }
+    }
+  }
+}
@@ -0,0 +1,6 @@
+package academy.devdojo.outbox;
+
+public enum OutboxAggregateType {
+  USER,
+  PROFILE
+}
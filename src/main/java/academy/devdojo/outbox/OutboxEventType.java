@@ -0,0 +1,7 @@
+package academy.devdojo.outbox;
+
+public enum OutboxEventType {
+  CREATED,
+  UPDATED,
+  DELETED
+}
@@ -0,0 +1,19 @@
+package academy.devdojo.outbox;
+
+import academy.devdojo.domain.OutboxEvent;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import java.time.Instant;
+
+// What consumers receive, the id only grows so it doubles as the position in the change feed
+public record OutboxMessage(Long id,
+                            OutboxAggregateType aggregateType,
+                            Long aggregateId,
+                            OutboxEventType eventType,
+                            @JsonRawValue String payload,
+                            Instant occurredAt) {
+
+  public static OutboxMessage of(OutboxEvent event) {
+    return new OutboxMessage(event.getId(), event.getAggregateType(), event.getAggregateId(), event.getEventType(),
+        event.getPayload(), event.getOccurredAt());
+  }
+}
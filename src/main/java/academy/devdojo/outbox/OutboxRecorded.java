@@ -0,0 +1,8 @@
+package academy.devdojo.outbox;
+
+import java.util.List;
+
+// Published inside the writing transaction, listen with @TransactionalEventListener to only see committed events
+public record OutboxRecorded(List<OutboxMessage> messages) {
+
+}
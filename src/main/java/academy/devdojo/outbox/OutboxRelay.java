@@ -0,0 +1,116 @@
+package academy.devdojo.outbox;
+
+import academy.devdojo.config.OutboxProperties;
+import academy.devdojo.domain.OutboxEvent;
+import academy.devdojo.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Publishes unpublished outbox events in id order, batch by batch, until a batch comes back short.
+// A batch is claimed in one short transaction, handed to the sink with no transaction open and marked published in another,
+// so a slow sink holds neither row locks nor a pooled connection. A sink failure releases the claim for the next run
+@Slf4j
+public class OutboxRelay implements MeterBinder {
+
+  private final OutboxEventRepository repository;
+  private final OutboxSink sink;
+  private final TransactionTemplate transactionTemplate;
+  private final int batchSize;
+  private final Duration pollInterval;
+  private final Duration retention;
+  private final Duration claimTimeout;
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+      Thread.ofPlatform().name("outbox-relay").daemon().factory());
+  private Counter publishedCounter;
+  private Counter failedCounter;
+  private Timer batchTimer;
+
+  public OutboxRelay(OutboxEventRepository repository, OutboxSink sink, PlatformTransactionManager transactionManager,
+                     OutboxProperties properties) {
+    this.repository = repository;
+    this.sink = sink;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.batchSize = properties.batchSize();
+    this.pollInterval = properties.pollInterval();
+    this.retention = properties.retention();
+    this.claimTimeout = properties.claimTimeout();
+  }
+
+  public void start() {
+    scheduler.scheduleWithFixedDelay(this::relay, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  public void relay() {
+    try {
+      int published;
+      do {
+        published = publishBatch();
+      } while (published == batchSize);
+      transactionTemplate.executeWithoutResult(status -> repository.deletePublishedBefore(Instant.now().minus(retention)));
+    } catch (RuntimeException e) {
+      if (failedCounter != null) {
+        failedCounter.increment();
+      }
+      log.warn("Outbox relay failed, the unpublished events are retried in '{}'", pollInterval, e);
+    }
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    publishedCounter = Counter.builder("outbox.published")
+        .description("Outbox events handed to the sink")
+        .register(registry);
+    failedCounter = Counter.builder("outbox.relay.failures")
+        .description("Relay runs that stopped because claiming, publishing or marking a batch failed")
+        .register(registry);
+    batchTimer = Timer.builder("outbox.publish.batch")
+        .description("Time to claim, publish and mark one batch of outbox events")
+        .register(registry);
+  }
+
+  public void shutdown() {
+    scheduler.shutdownNow();
+  }
+
+  private int publishBatch() {
+    final var start = System.nanoTime();
+    var events = transactionTemplate.execute(status -> claimBatch());
+    if (events == null || events.isEmpty()) {
+      return 0;
+    }
+    var ids = events.stream().map(OutboxEvent::getId).toList();
+    try {
+      sink.publish(events.stream().map(OutboxMessage::of).toList());
+    } catch (RuntimeException e) {
+      transactionTemplate.executeWithoutResult(status -> repository.claim(ids, null));
+      throw e;
+    }
+    transactionTemplate.executeWithoutResult(status -> repository.markPublished(ids, Instant.now()));
+    if (publishedCounter != null) {
+      publishedCounter.increment(events.size());
+      batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+    return events.size();
+  }
+
+  private List<OutboxEvent> claimBatch() {
+    var now = Instant.now();
+    var events = repository.findUnpublished(now, Limit.of(batchSize));
+    if (!events.isEmpty()) {
+      repository.claim(events.stream().map(OutboxEvent::getId).toList(), now.plus(claimTimeout));
+    }
+    return events;
+  }
+}
@@ -0,0 +1,9 @@
+package academy.devdojo.outbox;
+
+import java.util.List;
+
+// Throwing leaves the batch unpublished, the relay sends it again on its next run, so delivery is at least once
+public interface OutboxSink {
+
+  void publish(List<OutboxMessage> messages);
+}
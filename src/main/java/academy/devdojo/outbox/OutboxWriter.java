@@ -0,0 +1,57 @@
+package academy.devdojo.outbox;
+
+import academy.devdojo.domain.OutboxEvent;
+import academy.devdojo.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+// Events must commit or roll back with the change they describe, so there has to be a transaction already
+@Component
+@RequiredArgsConstructor
+public class OutboxWriter {
+
+  private final OutboxEventRepository repository;
+  private final ObjectMapper objectMapper;
+  private final ApplicationEventPublisher publisher;
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void record(OutboxAggregateType aggregateType, Long aggregateId, OutboxEventType eventType, Object payload) {
+    var event = toEvent(aggregateType, aggregateId, eventType, payload, Instant.now());
+    repository.save(event);
+    publisher.publishEvent(new OutboxRecorded(List.of(OutboxMessage.of(event))));
+  }
+
+  // Payloads keyed by aggregate id, written with one JDBC batch
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void recordAll(OutboxAggregateType aggregateType, OutboxEventType eventType, Map<Long, ?> payloads) {
+    var occurredAt = Instant.now();
+    var events = payloads.entrySet().stream()
+        .map(entry -> toEvent(aggregateType, entry.getKey(), eventType, entry.getValue(), occurredAt))
+        .toList();
+    repository.insertAll(events);
+    publisher.publishEvent(new OutboxRecorded(events.stream().map(OutboxMessage::of).toList()));
+  }
+
+  private OutboxEvent toEvent(OutboxAggregateType aggregateType, Long aggregateId, OutboxEventType eventType, Object payload,
+                              Instant occurredAt) {
+    try {
+      return OutboxEvent.builder()
+          .aggregateType(aggregateType)
+          .aggregateId(aggregateId)
+          .eventType(eventType)
+          .payload(objectMapper.writeValueAsString(payload))
+          .occurredAt(occurredAt)
+          .build();
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Unable to serialize the %s %s event of %d".formatted(aggregateType, eventType, aggregateId), e);
+    }
+  }
+}
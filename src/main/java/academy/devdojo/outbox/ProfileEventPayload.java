@@ -0,0 +1,5 @@
+package academy.devdojo.outbox;
+
+public record ProfileEventPayload(Long id, String name, String description) {
+
+}
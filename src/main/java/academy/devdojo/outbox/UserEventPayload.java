@@ -0,0 +1,12 @@
+package academy.devdojo.outbox;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// Never carries the password, a DELETED event only has the id
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserEventPayload(Long id, String firstName, String lastName, String email) {
+
+  public static UserEventPayload deleted(Long id) {
+    return new UserEventPayload(id, null, null, null);
+  }
+}
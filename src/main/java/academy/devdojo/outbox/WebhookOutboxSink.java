@@ -0,0 +1,22 @@
+package academy.devdojo.outbox;
+
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestClient;
+
+// POSTs every batch as a JSON array, any status other than 2xx fails the batch
+@RequiredArgsConstructor
+public class WebhookOutboxSink implements OutboxSink {
+
+  private final RestClient restClient;
+
+  @Override
+  public void publish(List<OutboxMessage> messages) {
+    restClient.post()
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(messages)
+        .retrieve()
+        .toBodilessEntity();
+  }
+}
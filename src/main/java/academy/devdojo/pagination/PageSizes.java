@@ -0,0 +1,14 @@
+package academy.devdojo.pagination;
+
+public final class PageSizes {
+
+  public static final String DEFAULT = "20";
+  public static final int MAXIMUM = 100;
+
+  private PageSizes() {
+  }
+
+  public static int clamp(int size) {
+    return Math.clamp(size, 1, MAXIMUM);
+  }
+}
@@ -0,0 +1,87 @@
+package academy.devdojo.pagination;
+
+import academy.devdojo.exception.BadRequestException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+// Opaque keyset cursor: the sort it was created for plus the keys of the last row, as base64url JSON.
+// Numeric keys are always ids (bigint), so they are restored as Long.
+public record ScrollCursor(String sort, Map<String, Object> keys) {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final TypeReference<ScrollCursor> TYPE = new TypeReference<>() {
+  };
+
+  public static ScrollCursor decode(String value) {
+    try {
+      var cursor = MAPPER.readValue(Base64.getUrlDecoder().decode(value), TYPE);
+      if (cursor.sort() == null || cursor.keys() == null || cursor.keys().isEmpty()) {
+        throw new BadRequestException("Invalid cursor");
+      }
+      var keys = new LinkedHashMap<String, Object>();
+      cursor.keys().forEach((key, keyValue) -> keys.put(key, keyValue instanceof Number number ? number.longValue() : keyValue));
+      return new ScrollCursor(cursor.sort(), keys);
+    } catch (IllegalArgumentException | IOException e) {
+      throw new BadRequestException("Invalid cursor");
+    }
+  }
+
+  public static String next(Window<?> window, String sort) {
+    if (!window.hasNext() || window.isEmpty()) {
+      return null;
+    }
+    var position = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+    return new ScrollCursor(sort, position.getKeys()).encode();
+  }
+
+  // Position of the last row whether or not more rows follow, for feeds that are resumed later from where they ended
+  public static String last(Window<?> window, String sort) {
+    if (window.isEmpty()) {
+      return null;
+    }
+    var position = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+    return new ScrollCursor(sort, position.getKeys()).encode();
+  }
+
+  // Builds a window from a query that fetched one row more than the page size, the extra row only signals a next page
+  public static <T> Window<T> toWindow(List<T> rows, int size, Function<T, Map<String, Object>> keys) {
+    var hasNext = rows.size() > size;
+    var content = hasNext ? rows.subList(0, size) : rows;
+    return Window.from(content, index -> ScrollPosition.forward(keys.apply(content.get(index))), hasNext);
+  }
+
+  public String encode() {
+    try {
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(this));
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to encode cursor", e);
+    }
+  }
+
+  public <T> T key(String name, Class<T> type) {
+    var value = keys.get(name);
+    if (!type.isInstance(value)) {
+      throw new BadRequestException("Invalid cursor");
+    }
+    return type.cast(value);
+  }
+
+  public ScrollPosition toPosition(Sort sort) {
+    var properties = sort.stream().map(Sort.Order::getProperty).collect(Collectors.toSet());
+    if (!properties.equals(keys.keySet())) {
+      throw new BadRequestException("Invalid cursor");
+    }
+    return ScrollPosition.forward(keys);
+  }
+}
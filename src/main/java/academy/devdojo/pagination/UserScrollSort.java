@@ -0,0 +1,29 @@
+package academy.devdojo.pagination;
+
+import academy.devdojo.domain.UserSummary;
+import academy.devdojo.exception.BadRequestException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+
+// Only keys backed by a unique index, so every page is an index range scan
+@Getter
+@RequiredArgsConstructor
+public enum UserScrollSort {
+  ID("id", Sort.by("id"), user -> Map.of("id", user.id())),
+  EMAIL("email", Sort.by("email", "id"), user -> Map.of("email", user.email(), "id", user.id()));
+
+  private final String property;
+  private final Sort sort;
+  private final Function<UserSummary, Map<String, Object>> keys;
+
+  public static UserScrollSort fromProperty(String property) {
+    return Arrays.stream(values())
+        .filter(value -> value.property.equals(property))
+        .findFirst()
+        .orElseThrow(() -> new BadRequestException("Unsupported sort '%s'".formatted(property)));
+  }
+}
@@ -0,0 +1,37 @@
+package academy.devdojo.pagination;
+
+import academy.devdojo.domain.UserSummary;
+import academy.devdojo.exception.BadRequestException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.Function;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// Searchable fields and the generated, indexed column holding their normalized value (see V3__add_user_search_columns.sql)
+@Getter
+@RequiredArgsConstructor
+public enum UserSearchField {
+  FIRST_NAME("firstName", "first_name_normalized", UserSummary::firstName),
+  LAST_NAME("lastName", "last_name_normalized", UserSummary::lastName),
+  EMAIL_DOMAIN("emailDomain", "email_domain", user -> user.email().substring(user.email().lastIndexOf('@') + 1));
+
+  private final String property;
+  private final String column;
+  private final Function<UserSummary, String> extractor;
+
+  public static UserSearchField fromProperty(String property) {
+    return Arrays.stream(values())
+        .filter(value -> value.property.equals(property))
+        .findFirst()
+        .orElseThrow(() -> new BadRequestException("Unsupported search field '%s'".formatted(property)));
+  }
+
+  public static String normalize(String value) {
+    return value.toLowerCase(Locale.ROOT);
+  }
+
+  public String normalizedValue(UserSummary user) {
+    return normalize(extractor.apply(user));
+  }
+}
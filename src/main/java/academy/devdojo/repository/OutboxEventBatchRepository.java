@@ -0,0 +1,10 @@
+package academy.devdojo.repository;
+
+import academy.devdojo.domain.OutboxEvent;
+import java.util.List;
+
+// For bulk writes, one event per row would otherwise cost one INSERT each
+public interface OutboxEventBatchRepository {
+
+  void insertAll(List<OutboxEvent> events);
+}
@@ -0,0 +1,34 @@
+package academy.devdojo.repository;
+
+import academy.devdojo.domain.OutboxEvent;
+import java.sql.Timestamp;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+@RequiredArgsConstructor
+class OutboxEventBatchRepositoryImpl implements OutboxEventBatchRepository {
+
+  private static final String INSERT = """
+      INSERT INTO outbox_event (aggregate_type, aggregate_id, event_type, payload, occurred_at)
+      VALUES (:aggregateType, :aggregateId, :eventType, :payload, :occurredAt)""";
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  @Override
+  public void insertAll(List<OutboxEvent> events) {
+    if (events.isEmpty()) {
+      return;
+    }
+    var batch = events.stream()
+        .map(event -> new MapSqlParameterSource()
+            .addValue("aggregateType", event.getAggregateType().name())
+            .addValue("aggregateId", event.getAggregateId())
+            .addValue("eventType", event.getEventType().name())
+            .addValue("payload", event.getPayload())
+            .addValue("occurredAt", Timestamp.from(event.getOccurredAt())))
+        .toArray(MapSqlParameterSource[]::new);
+    jdbcTemplate.batchUpdate(INSERT, batch);
+  }
+}
@@ -0,0 +1,39 @@
+package academy.devdojo.repository;
+
+import academy.devdojo.domain.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long>, OutboxEventBatchRepository {
+
+  // FOR UPDATE SKIP LOCKED (lock timeout -2), so relays on several instances claim different batches instead of waiting.
+  // Events leased by another relay are skipped until the lease runs out
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+  @Query("select e from OutboxEvent e where e.publishedAt is null and (e.claimedUntil is null or e.claimedUntil < ?1) order by e.id")
+  List<OutboxEvent> findUnpublished(Instant now, Limit limit);
+
+  @Modifying
+  @Query("update OutboxEvent e set e.claimedUntil = ?2 where e.id in ?1")
+  int claim(Collection<Long> ids, Instant claimedUntil);
+
+  @Modifying
+  @Query("update OutboxEvent e set e.publishedAt = ?2 where e.id in ?1")
+  int markPublished(Collection<Long> ids, Instant publishedAt);
+
+  @Modifying
+  @Query("delete from OutboxEvent e where e.publishedAt < ?1")
+  int deletePublishedBefore(Instant publishedBefore);
+}
@@ -1,10 +1,17 @@
 package academy.devdojo.repository;
 
 import academy.devdojo.domain.Profile;
+import academy.devdojo.domain.VersionFingerprint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface ProfileRepository extends JpaRepository<Profile, Long> {
 
+  @Query("""
+      select new academy.devdojo.domain.VersionFingerprint(count(p), coalesce(sum(p.id), 0), coalesce(sum(p.version), 0))
+      from Profile p""")
+  VersionFingerprint fingerprint();
+
 }
@@ -0,0 +1,10 @@
+package academy.devdojo.repository;
+
+import academy.devdojo.domain.User;
+import java.util.List;
+
+// Inserts users outside of Hibernate, which cannot batch inserts into an IDENTITY id column. Sets the generated ids on the users
+public interface UserBatchRepository {
+
+  int insertAll(List<User> users);
+}
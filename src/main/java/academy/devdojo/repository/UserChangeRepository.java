@@ -0,0 +1,11 @@
+package academy.devdojo.repository;
+
+import academy.devdojo.domain.UserChange;
+import java.time.Instant;
+import java.util.List;
+
+public interface UserChangeRepository {
+
+  // Users and tombstones changed after (afterChangedAt, afterId), in (changedAt, id) order
+  List<UserChange> findChangesAfter(Instant afterChangedAt, long afterId, int limit);
+}
@@ -0,0 +1,68 @@
+package academy.devdojo.repository;
+
+import academy.devdojo.config.UserChangeFeedProperties;
+import academy.devdojo.domain.UserChange;
+import academy.devdojo.domain.UserChangeType;
+import academy.devdojo.domain.UserSummary;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+class UserChangeRepositoryImpl implements UserChangeRepository {
+
+  // Each branch is a range scan on its (changed at, id) index that stops after :limit rows, only those are merged.
+  // updated_at is taken when the statement runs, not when it commits, so a row can show up behind a cursor that already
+  // moved past it. Rows younger than the settle window are left for a later call, a transaction that takes longer than
+  // the window to commit, waiting on a lock included, is missed by cursors that went past it
+  private static final String CHANGES_SQL = """
+      (SELECT u.id, u.first_name, u.last_name, u.email, u.version, u.updated_at AS changed_at, FALSE AS deleted
+       FROM `user` u
+       WHERE (u.updated_at > :afterChangedAt OR (u.updated_at = :afterChangedAt AND u.id > :afterId))
+         AND u.updated_at < CURRENT_TIMESTAMP(6) - INTERVAL '%1$d' SECOND
+       ORDER BY u.updated_at, u.id
+       LIMIT :limit)
+      UNION ALL
+      (SELECT t.user_id, NULL, NULL, NULL, NULL, t.deleted_at, TRUE
+       FROM user_tombstone t
+       WHERE (t.deleted_at > :afterChangedAt OR (t.deleted_at = :afterChangedAt AND t.user_id > :afterId))
+         AND t.deleted_at < CURRENT_TIMESTAMP(6) - INTERVAL '%1$d' SECOND
+       ORDER BY t.deleted_at, t.user_id
+       LIMIT :limit)
+      ORDER BY changed_at, id
+      LIMIT :limit""";
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+  private final String changesSql;
+
+  UserChangeRepositoryImpl(NamedParameterJdbcTemplate jdbcTemplate, UserChangeFeedProperties properties) {
+    if (properties.settleWindow().toSeconds() < 1) {
+      throw new IllegalStateException("user-change-feed.settle-window must be at least one second");
+    }
+    this.jdbcTemplate = jdbcTemplate;
+    this.changesSql = CHANGES_SQL.formatted(properties.settleWindow().toSeconds());
+  }
+
+  @Override
+  public List<UserChange> findChangesAfter(Instant afterChangedAt, long afterId, int limit) {
+    var parameters = new MapSqlParameterSource()
+        .addValue("afterChangedAt", Timestamp.from(afterChangedAt))
+        .addValue("afterId", afterId)
+        .addValue("limit", limit);
+    return jdbcTemplate.query(changesSql, parameters, (resultSet, rowNumber) -> toChange(resultSet));
+  }
+
+  private static UserChange toChange(ResultSet resultSet) throws SQLException {
+    var id = resultSet.getLong("id");
+    var changedAt = resultSet.getTimestamp("changed_at").toInstant();
+    if (resultSet.getBoolean("deleted")) {
+      return new UserChange(UserChangeType.DELETED, id, changedAt, null);
+    }
+    var user = new UserSummary(id, resultSet.getString("first_name"), resultSet.getString("last_name"), resultSet.getString("email"),
+        resultSet.getLong("version"));
+    return new UserChange(UserChangeType.UPSERTED, id, changedAt, user);
+  }
+}
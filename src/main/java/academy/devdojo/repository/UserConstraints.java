@@ -0,0 +1,25 @@
+package academy.devdojo.repository;
+
+import java.util.Locale;
+import org.springframework.dao.DataIntegrityViolationException;
+
+// Names of the user table constraints from V1, so a violation can be told apart from any other integrity error
+public final class UserConstraints {
+
+  public static final String EMAIL_UNIQUE_KEY = "UKob8kqyqqgmefl0aco34akdtpe";
+
+  private UserConstraints() {
+  }
+
+  // MySQL reports "Duplicate entry ... for key 'user.UKob8...'", Hibernate and JdbcTemplate keep that message in the cause chain
+  public static boolean isEmailUniqueKeyViolation(DataIntegrityViolationException e) {
+    var key = EMAIL_UNIQUE_KEY.toLowerCase(Locale.ROOT);
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      var message = cause.getMessage();
+      if (message != null && message.toLowerCase(Locale.ROOT).contains(key)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,15 @@
+package academy.devdojo.repository;
+
+import academy.devdojo.fields.UserField;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// Reads only the requested columns, rows are nested maps keyed by the response properties
+public interface UserFieldsRepository {
+
+  List<Map<String, Object>> findAllFields(Set<UserField> fields, String firstName);
+
+  Optional<Map<String, Object>> findFieldsById(Set<UserField> fields, Long id);
+}
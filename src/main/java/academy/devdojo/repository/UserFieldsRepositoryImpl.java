@@ -0,0 +1,38 @@
+package academy.devdojo.repository;
+
+import academy.devdojo.fields.SparseQuery;
+import academy.devdojo.fields.UserField;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+// JdbcTemplate joins the surrounding JPA transaction, so these reads still go through the read-only routing
+@RequiredArgsConstructor
+class UserFieldsRepositoryImpl implements UserFieldsRepository {
+
+  private static final SparseQuery<UserField> ALL = new SparseQuery<>("FROM `user` u");
+  private static final SparseQuery<UserField> BY_FIRST_NAME = new SparseQuery<>(
+      "FROM `user` u WHERE u.first_name_normalized = lower(:firstName)");
+  private static final SparseQuery<UserField> BY_ID = new SparseQuery<>("FROM `user` u WHERE u.id = :id");
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  @Override
+  public List<Map<String, Object>> findAllFields(Set<UserField> fields, String firstName) {
+    if (firstName == null) {
+      var projection = ALL.projection(fields);
+      return jdbcTemplate.query(projection.sql(), projection);
+    }
+    var projection = BY_FIRST_NAME.projection(fields);
+    return jdbcTemplate.query(projection.sql(), Map.of("firstName", firstName), projection);
+  }
+
+  @Override
+  public Optional<Map<String, Object>> findFieldsById(Set<UserField> fields, Long id) {
+    var projection = BY_ID.projection(fields);
+    return jdbcTemplate.query(projection.sql(), Map.of("id", id), projection).stream().findFirst();
+  }
+}
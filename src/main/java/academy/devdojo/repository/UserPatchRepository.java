@@ -0,0 +1,11 @@
+package academy.devdojo.repository;
+
+import academy.devdojo.domain.UserColumn;
+import java.util.Map;
+
+public interface UserPatchRepository {
+
+  // Sets only the given columns and bumps the version, guarded by expectedVersion unless it is null.
+  // Returns the number of rows changed, 0 when the id is unknown or the version is stale
+  int patchById(Long id, Map<UserColumn, String> columns, Long expectedVersion);
+}
@@ -0,0 +1,31 @@
+package academy.devdojo.repository;
+
+import academy.devdojo.domain.UserColumn;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+@RequiredArgsConstructor
+class UserPatchRepositoryImpl implements UserPatchRepository {
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  // Column names come from UserColumn only, values are always bound. There are at most 2^4 statement shapes
+  @Override
+  public int patchById(Long id, Map<UserColumn, String> columns, Long expectedVersion) {
+    var parameters = new MapSqlParameterSource("id", id);
+    columns.forEach((column, value) -> parameters.addValue(column.getColumn(), value));
+    var assignments = columns.keySet().stream()
+        .map(column -> "%1$s = :%1$s".formatted(column.getColumn()))
+        .collect(Collectors.joining(", "));
+
+    var sql = new StringBuilder("UPDATE `user` SET ").append(assignments).append(", version = version + 1 WHERE id = :id");
+    if (expectedVersion != null) {
+      sql.append(" AND version = :version");
+      parameters.addValue("version", expectedVersion);
+    }
+    return jdbcTemplate.update(sql.toString(), parameters);
+  }
+}
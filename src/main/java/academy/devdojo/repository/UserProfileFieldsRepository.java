@@ -0,0 +1,15 @@
+package academy.devdojo.repository;
+
+import academy.devdojo.fields.UserField;
+import academy.devdojo.fields.UserProfileField;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Reads only the requested columns, rows are nested maps keyed by the response properties
+public interface UserProfileFieldsRepository {
+
+  List<Map<String, Object>> findAllFields(Set<UserProfileField> fields);
+
+  List<Map<String, Object>> findAllUserFieldsByProfileId(Set<UserField> fields, Long profileId);
+}
@@ -0,0 +1,37 @@
+package academy.devdojo.repository;
+
+import academy.devdojo.fields.SparseQuery;
+import academy.devdojo.fields.UserField;
+import academy.devdojo.fields.UserProfileField;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+@RequiredArgsConstructor
+class UserProfileFieldsRepositoryImpl implements UserProfileFieldsRepository {
+
+  private static final SparseQuery<UserProfileField> ALL = new SparseQuery<>("""
+      FROM user_profile up
+      JOIN `user` u ON u.id = up.user_id
+      JOIN profile p ON p.id = up.profile_id""");
+  private static final SparseQuery<UserField> USERS_BY_PROFILE_ID = new SparseQuery<>("""
+      FROM user_profile up
+      JOIN `user` u ON u.id = up.user_id
+      WHERE up.profile_id = :profileId""");
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  @Override
+  public List<Map<String, Object>> findAllFields(Set<UserProfileField> fields) {
+    var projection = ALL.projection(fields);
+    return jdbcTemplate.query(projection.sql(), projection);
+  }
+
+  @Override
+  public List<Map<String, Object>> findAllUserFieldsByProfileId(Set<UserField> fields, Long profileId) {
+    var projection = USERS_BY_PROFILE_ID.projection(fields);
+    return jdbcTemplate.query(projection.sql(), Map.of("profileId", profileId), projection);
+  }
+}
@@ -2,14 +2,23 @@ package academy.devdojo.repository;
 
 import academy.devdojo.domain.User;
 import academy.devdojo.domain.UserProfile;
+import academy.devdojo.domain.UserProfileSummary;
+import academy.devdojo.domain.UserSummary;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface UserProfileRepository extends JpaRepository<UserProfile, Long> {
+public interface UserProfileRepository extends JpaRepository<UserProfile, Long>, UserProfileFieldsRepository {
 
   @Query("SELECT up FROM UserProfile up join fetch up.user u join fetch up.profile p")
   List<UserProfile> retrieveAll();
@@ -18,6 +27,44 @@ public interface UserProfileRepository extends JpaRepository<UserProfile, Long>
   @EntityGraph(value = "UserProfile.fullDetails")
   List<UserProfile> findAll();
 
+  @Query("""
+      SELECT new academy.devdojo.domain.UserProfileSummary(up.id, u.id, u.firstName, p.id, p.name)
+      FROM UserProfile up join up.user u join up.profile p
+      order by up.id""")
+  List<UserProfileSummary> findAllSummaries();
+
+  @Query("""
+      SELECT new academy.devdojo.domain.UserProfileSummary(up.id, u.id, u.firstName, p.id, p.name)
+      FROM UserProfile up join up.user u join up.profile p
+      where up.id > ?1
+      order by up.id""")
+  List<UserProfileSummary> findSummariesAfterId(long afterId, Limit limit);
+
   @Query("SELECT up.user FROM UserProfile up where up.profile.id = ?1")
   List<User> findAllUserByProfileId(Long id);
+
+  @Query("""
+      SELECT new academy.devdojo.domain.UserSummary(u.id, u.firstName, u.lastName, u.email, u.version)
+      FROM UserProfile up join up.user u where up.profile.id = ?1""")
+  List<UserSummary> findAllUserSummariesByProfileId(Long id);
+
+  // Range scan on idx_user_profile_profile_user, only the users of the page are joined by primary key
+  @Query("""
+      SELECT new academy.devdojo.domain.UserSummary(u.id, u.firstName, u.lastName, u.email, u.version)
+      FROM UserProfile up join up.user u
+      where up.profile.id = ?1 and up.user.id > ?2
+      order by up.user.id""")
+  List<UserSummary> findUserSummariesByProfileIdAfterUserId(Long profileId, long afterUserId, Limit limit);
+
+  @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+  @Query("""
+      SELECT new academy.devdojo.domain.UserSummary(u.id, u.firstName, u.lastName, u.email, u.version)
+      FROM UserProfile up join up.user u
+      where up.profile.id = ?1
+      order by up.user.id""")
+  Stream<UserSummary> streamUserSummariesByProfileId(Long profileId);
+
+  @Modifying
+  @Query("delete from UserProfile up where up.user.id in ?1")
+  int deleteByUserIdIn(Collection<Long> userIds);
 }
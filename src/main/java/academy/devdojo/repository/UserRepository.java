@@ -1,18 +1,106 @@
 package academy.devdojo.repository;
 
 import academy.devdojo.domain.User;
+import academy.devdojo.domain.UserSummary;
+import academy.devdojo.domain.VersionFingerprint;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserSearchRepository, UserFieldsRepository, UserBatchRepository,
+    UserChangeRepository, UserPatchRepository {
 
+  @Query(value = "SELECT * FROM `user` WHERE first_name_normalized = lower(?1)", nativeQuery = true)
   List<User> findByFirstNameIgnoreCase(String firstName);
 
   Optional<User> findByEmail(String email);
 
   Optional<User> findByEmailAndIdNot(String email, Long id);
 
+  @Query("select u.email from User u where u.email in ?1")
+  List<String> findEmailsByEmailIn(Collection<String> emails);
+
+  // Keeps the roles and, when no new password is given, the stored one. Returns the number of rows changed, 0 when the id is unknown
+  @Modifying
+  @Query("""
+      update User u set u.firstName = ?2, u.lastName = ?3, u.email = ?4, u.password = coalesce(?5, u.password),
+      u.version = u.version + 1
+      where u.id = ?1""")
+  int updateById(Long id, String firstName, String lastName, String email, String encodedPassword);
+
+  // Same update guarded by the version the client last saw, 0 rows when the id is unknown or the version is stale
+  @Modifying
+  @Query("""
+      update User u set u.firstName = ?2, u.lastName = ?3, u.email = ?4, u.password = coalesce(?5, u.password),
+      u.version = u.version + 1
+      where u.id = ?1 and u.version = ?6""")
+  int updateByIdAndVersion(Long id, String firstName, String lastName, String email, String encodedPassword, Long version);
+
+  @Modifying
+  @Query("delete from User u where u.id = ?1")
+  int deleteUserById(Long id);
+
+  @Query("select u.id from User u where u.id in ?1")
+  List<Long> findIdsByIdIn(Collection<Long> ids);
+
+  // Runs before the delete, only ids that still exist get a tombstone. deleted_at is set by the column default
+  @Modifying
+  @Query(value = "INSERT INTO user_tombstone (user_id) SELECT id FROM `user` WHERE id IN ?1", nativeQuery = true)
+  int insertTombstonesByIdIn(Collection<Long> ids);
+
+  @Modifying
+  @Query("delete from User u where u.id in ?1")
+  int deleteUsersByIdIn(Collection<Long> ids);
+
+  // Seeks on idx_user_email_domain (email_domain, id), so every chunk starts where the previous one ended
+  @Query(value = "SELECT id FROM `user` WHERE email_domain = ?1 AND id > ?2 ORDER BY id LIMIT ?3", nativeQuery = true)
+  List<Long> findIdsByEmailDomainAfter(String emailDomain, long afterId, int limit);
+
+  @Query("select new academy.devdojo.domain.UserSummary(u.id, u.firstName, u.lastName, u.email, u.version) from User u")
+  List<UserSummary> findAllSummaries();
+
+  Optional<UserSummary> findSummaryById(Long id);
+
+  List<UserSummary> findSummariesByIdIn(Collection<Long> ids);
+
+  Page<UserSummary> findSummariesBy(Pageable pageable);
+
+  Slice<UserSummary> findSummarySliceBy(Pageable pageable);
+
+  // Keyset pages written by hand: Spring Data's keyset scrolling cannot read the keys back from a DTO projection
+  @Query("""
+      select new academy.devdojo.domain.UserSummary(u.id, u.firstName, u.lastName, u.email, u.version) from User u
+      where u.id > ?1
+      order by u.id""")
+  List<UserSummary> findSummariesAfterId(long afterId, Limit limit);
+
+  @Query("""
+      select new academy.devdojo.domain.UserSummary(u.id, u.firstName, u.lastName, u.email, u.version) from User u
+      where u.email > ?1 or (u.email = ?1 and u.id > ?2)
+      order by u.email, u.id""")
+  List<UserSummary> findSummariesAfterEmail(String afterEmail, long afterId, Limit limit);
+
+  // Forward-only cursor, rows are fetched from MySQL in batches of the fetch size (requires useCursorFetch=true)
+  @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+  @Query("select new academy.devdojo.domain.UserSummary(u.id, u.firstName, u.lastName, u.email, u.version) from User u order by u.id")
+  Stream<UserSummary> streamAllSummaries();
+
+  @Query("""
+      select new academy.devdojo.domain.VersionFingerprint(count(u), coalesce(sum(u.id), 0), coalesce(sum(u.version), 0))
+      from User u""")
+  VersionFingerprint fingerprint();
+
 }
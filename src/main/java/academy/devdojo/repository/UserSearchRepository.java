@@ -0,0 +1,13 @@
+package academy.devdojo.repository;
+
+import academy.devdojo.domain.UserSummary;
+import academy.devdojo.pagination.UserSearchField;
+import java.util.List;
+
+public interface UserSearchRepository {
+
+  List<UserSummary> findSummariesByFirstName(String firstName);
+
+  // Users whose normalized field starts with the prefix, seeking after (afterValue, afterId) in (field, id) order
+  List<UserSummary> searchByPrefix(UserSearchField field, String prefix, String afterValue, long afterId, int limit);
+}
@@ -0,0 +1,58 @@
+package academy.devdojo.repository;
+
+import academy.devdojo.domain.UserSummary;
+import academy.devdojo.pagination.UserSearchField;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import java.util.List;
+
+class UserSearchRepositoryImpl implements UserSearchRepository {
+
+  private static final String SUMMARY_COLUMNS = "u.id, u.first_name, u.last_name, u.email, u.version";
+
+  private static final String FIRST_NAME_SQL = """
+      SELECT %s FROM `user` u
+      WHERE u.first_name_normalized = lower(:firstName)""".formatted(SUMMARY_COLUMNS);
+
+  // The column comes from UserSearchField, never from the request. The range on the prefix plus the keyset
+  // predicate both resolve to the (column, id) index, so each page is an index range scan
+  private static final String SEARCH_SQL = """
+      SELECT %2$s FROM `user` u
+      WHERE u.%1$s LIKE :prefix
+        AND (u.%1$s > :afterValue OR (u.%1$s = :afterValue AND u.id > :afterId))
+      ORDER BY u.%1$s, u.id
+      LIMIT :limit""";
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  public List<UserSummary> findSummariesByFirstName(String firstName) {
+    return toSummaries(entityManager.createNativeQuery(FIRST_NAME_SQL, Tuple.class)
+        .setParameter("firstName", firstName)
+        .getResultList());
+  }
+
+  @Override
+  public List<UserSummary> searchByPrefix(UserSearchField field, String prefix, String afterValue, long afterId, int limit) {
+    return toSummaries(entityManager.createNativeQuery(SEARCH_SQL.formatted(field.getColumn(), SUMMARY_COLUMNS), Tuple.class)
+        .setParameter("prefix", escapeLike(prefix) + "%")
+        .setParameter("afterValue", afterValue)
+        .setParameter("afterId", afterId)
+        .setParameter("limit", limit)
+        .getResultList());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<UserSummary> toSummaries(List<?> rows) {
+    return ((List<Tuple>) rows).stream()
+        .map(row -> new UserSummary(((Number) row.get(0)).longValue(), (String) row.get(1), (String) row.get(2),
+            (String) row.get(3), ((Number) row.get(4)).longValue()))
+        .toList();
+  }
+
+  private static String escapeLike(String value) {
+    return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+  }
+}
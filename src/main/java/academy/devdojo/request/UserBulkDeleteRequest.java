@@ -0,0 +1,32 @@
+package academy.devdojo.request;
+
+import academy.devdojo.service.UserBulkDeleteService;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.util.StringUtils;
+
+@Getter
+@Setter
+@ToString
+public class UserBulkDeleteRequest {
+
+  @Size(min = 1, max = UserBulkDeleteService.MAXIMUM_IDS,
+      message = "The field 'ids' accepts between 1 and " + UserBulkDeleteService.MAXIMUM_IDS + " ids")
+  @Schema(description = "Ids of the users to delete, unknown ids are ignored", example = "[1, 2, 42]")
+  private List<@NotNull(message = "The field 'ids' must not contain null") Long> ids;
+  @Schema(description = "Deletes every user with an e-mail on this domain", example = "devdojo.academy")
+  private String emailDomain;
+
+  @JsonIgnore
+  @AssertTrue(message = "Exactly one of the fields 'ids' or 'emailDomain' is required")
+  public boolean isSingleCriterion() {
+    return ids != null ^ StringUtils.hasText(emailDomain);
+  }
+}
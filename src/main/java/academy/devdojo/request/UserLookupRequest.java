@@ -0,0 +1,22 @@
+package academy.devdojo.request;
+
+import academy.devdojo.service.UserService;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@ToString
+public class UserLookupRequest {
+
+  @NotEmpty(message = "The field 'ids' is required")
+  @Size(max = UserService.LOOKUP_MAXIMUM_IDS, message = "The field 'ids' accepts at most " + UserService.LOOKUP_MAXIMUM_IDS + " ids")
+  @Schema(description = "Ids of the users to resolve, duplicates are ignored", example = "[1, 2, 42]")
+  private List<@NotNull(message = "The field 'ids' must not contain null") Long> ids;
+}
@@ -0,0 +1,41 @@
+package academy.devdojo.request;
+
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.annotation.Nulls;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+// JSON Merge Patch of a user: a missing field is left as it is. Every column is required, so removing one with null is rejected
+@Getter
+@Setter
+@ToString
+public class UserPatchRequest {
+
+  private static final String NOT_BLANK = "(?s).*\\S.*";
+
+  @JsonSetter(nulls = Nulls.FAIL)
+  @Pattern(regexp = NOT_BLANK, message = "The field 'firstName' cannot be blank")
+  @Size(max = 255, message = "The field 'firstName' must have at most 255 characters")
+  @Schema(description = "User's first name", example = "Fulano")
+  private String firstName;
+  @JsonSetter(nulls = Nulls.FAIL)
+  @Pattern(regexp = NOT_BLANK, message = "The field 'lastName' cannot be blank")
+  @Size(max = 255, message = "The field 'lastName' must have at most 255 characters")
+  @Schema(description = "User's last name", example = "Santos")
+  private String lastName;
+  @JsonSetter(nulls = Nulls.FAIL)
+  @Pattern(regexp = NOT_BLANK, message = "The field 'email' cannot be blank")
+  @Email(regexp = "^[\\w-\\.]+@([\\w-]+\\.)+[\\w-]{2,4}$", message = "Email is not valid")
+  @Size(max = 255, message = "The field 'email' must have at most 255 characters")
+  @Schema(description = "User's email. Must be unique", example = "fulano@gmail.com")
+  private String email;
+  @JsonSetter(nulls = Nulls.FAIL)
+  @Pattern(regexp = NOT_BLANK, message = "The field 'password' cannot be blank")
+  @ToString.Exclude
+  private String password;
+}
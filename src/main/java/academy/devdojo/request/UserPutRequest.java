@@ -4,6 +4,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -17,12 +18,15 @@ public class UserPutRequest {
   @Schema(description = "User's id", example = "1")
   private Long id;
   @NotBlank(message = "The field 'firstName' is required")
+  @Size(max = 255, message = "The field 'firstName' must have at most 255 characters")
   @Schema(description = "User's first name", example = "Fulano")
   private String firstName; // null, ""
   @NotBlank(message = "The field 'lastName' is required")
+  @Size(max = 255, message = "The field 'lastName' must have at most 255 characters")
   @Schema(description = "User's last name", example = "Santos")
   private String lastName;
   @NotBlank(message = "The field 'email' is required")
+  @Size(max = 255, message = "The field 'email' must have at most 255 characters")
   @Schema(description = "User's email. Must be unique", example = "fulano@gmail.com")
   @Email(regexp = "^[\\w-\\.]+@([\\w-]+\\.)+[\\w-]{2,4}$", message = "Email is not valid")
   private String email;
@@ -0,0 +1,10 @@
+package academy.devdojo.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+public record CursorPageResponse<T>(List<T> content,
+                                    @Schema(description = "Opaque cursor for the next page, null on the last page") String nextCursor,
+                                    boolean hasNext) {
+
+}
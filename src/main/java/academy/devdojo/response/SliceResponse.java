@@ -0,0 +1,7 @@
+package academy.devdojo.response;
+
+import java.util.List;
+
+public record SliceResponse<T>(List<T> content, int page, int size, boolean hasNext) {
+
+}
@@ -0,0 +1,11 @@
+package academy.devdojo.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+
+@Builder
+public record TokenPostResponse(@Schema(description = "Signed bearer token") String accessToken,
+                                @Schema(description = "Token type", example = "Bearer") String tokenType,
+                                @Schema(description = "Seconds until the token expires", example = "900") long expiresIn) {
+
+}
@@ -0,0 +1,10 @@
+package academy.devdojo.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record UserBulkDeleteResponse(@Schema(description = "Users deleted", example = "1200") long deletedUsers,
+                                     @Schema(description = "User profiles of those users deleted with them", example = "340")
+                                     long deletedUserProfiles,
+                                     @Schema(description = "Transactions the delete was split into", example = "3") int chunks) {
+
+}
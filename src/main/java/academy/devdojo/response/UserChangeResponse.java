@@ -0,0 +1,13 @@
+package academy.devdojo.response;
+
+import academy.devdojo.domain.UserChangeType;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.Instant;
+
+public record UserChangeResponse(@Schema(description = "UPSERTED carries the user as it is now, DELETED only the id") UserChangeType type,
+                                 @Schema(description = "User's id", example = "1") Long id,
+                                 @Schema(description = "When the user was last written or deleted") Instant changedAt,
+                                 @JsonInclude(JsonInclude.Include.NON_NULL) UserGetResponse user) {
+
+}
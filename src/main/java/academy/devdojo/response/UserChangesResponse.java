@@ -0,0 +1,11 @@
+package academy.devdojo.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+public record UserChangesResponse(List<UserChangeResponse> changes,
+                                  @Schema(description = "Pass it as 'since' on the next call, also when hasNext is false, to get only what "
+                                      + "changed afterwards. Null only when nothing has changed yet") String nextCursor,
+                                  @Schema(description = "False once the caller has caught up") boolean hasNext) {
+
+}
@@ -0,0 +1,9 @@
+package academy.devdojo.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record UserImportError(@Schema(description = "1-based line of the NDJSON body", example = "42") long line,
+                              @Schema(description = "E-mail of the row, when it could be read", example = "fulano@gmail.com") String email,
+                              @Schema(example = "E-mail fulano@gmail.com already exists") String message) {
+
+}
@@ -0,0 +1,13 @@
+package academy.devdojo.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+public record UserImportResponse(@Schema(description = "Rows inserted", example = "998") long imported,
+                                 @Schema(description = "Rows skipped because of an error", example = "2") long failed,
+                                 @Schema(description = "Why each row was skipped, only the first "
+                                     + UserImportResponse.MAXIMUM_REPORTED_ERRORS + " are listed")
+                                 List<UserImportError> errors) {
+
+  public static final int MAXIMUM_REPORTED_ERRORS = 1000;
+}
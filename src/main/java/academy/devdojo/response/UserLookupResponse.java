@@ -0,0 +1,9 @@
+package academy.devdojo.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+public record UserLookupResponse(List<UserGetResponse> users,
+                                 @Schema(description = "Requested ids without a user", example = "[42]") List<Long> missingIds) {
+
+}
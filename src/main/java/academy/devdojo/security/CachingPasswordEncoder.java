@@ -0,0 +1,33 @@
+package academy.devdojo.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+@RequiredArgsConstructor
+public class CachingPasswordEncoder implements PasswordEncoder {
+
+  private final PasswordEncoder delegate;
+  private final VerifiedCredentialCache cache;
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return delegate.encode(rawPassword);
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    if (cache.isVerified(rawPassword, encodedPassword)) {
+      return true;
+    }
+    var matches = delegate.matches(rawPassword, encodedPassword);
+    if (matches) {
+      cache.remember(rawPassword, encodedPassword);
+    }
+    return matches;
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+}
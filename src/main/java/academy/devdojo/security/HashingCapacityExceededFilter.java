@@ -0,0 +1,36 @@
+package academy.devdojo.security;
+
+import academy.devdojo.exception.DefaultErrorMessage;
+import academy.devdojo.exception.HashingCapacityExceededException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+// Password checks during authentication run inside the security filter chain, before any controller advice
+@RequiredArgsConstructor
+public class HashingCapacityExceededFilter extends OncePerRequestFilter {
+
+  private final ObjectMapper mapper;
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    try {
+      filterChain.doFilter(request, response);
+    } catch (HashingCapacityExceededException e) {
+      if (response.isCommitted()) {
+        throw e;
+      }
+      response.setStatus(e.getStatusCode().value());
+      e.getHeaders().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+      response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+      mapper.writeValue(response.getOutputStream(), new DefaultErrorMessage(e.getStatusCode().value(), e.getReason()));
+    }
+  }
+}
@@ -0,0 +1,8 @@
+package academy.devdojo.security;
+
+// Declaration order is the scheduling order, logins are served first
+public enum HashingPriority {
+  AUTHENTICATION,
+  PASSWORD_ENCODING,
+  BULK_IMPORT
+}
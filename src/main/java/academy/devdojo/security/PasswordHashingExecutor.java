@@ -0,0 +1,177 @@
+package academy.devdojo.security;
+
+import academy.devdojo.config.PasswordHashingProperties;
+import academy.devdojo.exception.HashingCapacityExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+// Runs password hashing on a fixed number of platform threads behind a bounded priority queue,
+// so a burst of signups cannot take every core away from the request threads.
+@Component
+@Slf4j
+public class PasswordHashingExecutor implements MeterBinder {
+
+  // Set while a worker runs a task, so work that hashes again from inside a task does not queue behind itself
+  private static final ThreadLocal<PasswordHashingExecutor> RUNNING_ON = new ThreadLocal<>();
+
+  private final ThreadPoolExecutor executor;
+  private final Semaphore queueSlots;
+  private final Duration retryAfter;
+  private final AtomicLong sequence = new AtomicLong();
+  private final Map<HashingPriority, Timer> queueWaitTimers = new EnumMap<>(HashingPriority.class);
+  private final Map<HashingPriority, Timer> hashTimers = new EnumMap<>(HashingPriority.class);
+  private Counter rejectedCounter;
+
+  public PasswordHashingExecutor(PasswordHashingProperties properties) {
+    var permits = properties.effectivePermits();
+    this.queueSlots = new Semaphore(properties.queueCapacity());
+    this.retryAfter = properties.retryAfter();
+    this.executor = new ThreadPoolExecutor(permits, permits, 0L, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(),
+        Thread.ofPlatform().name("password-hashing-", 0).daemon().factory());
+    log.info("Password hashing executor started with {} permits and a queue of {}", permits, properties.queueCapacity());
+  }
+
+  public <T> T execute(HashingPriority priority, Supplier<T> work) {
+    if (RUNNING_ON.get() == this) {
+      return work.get();
+    }
+    try {
+      return submit(priority, work).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw e;
+    }
+  }
+
+  public <T> CompletableFuture<T> submit(HashingPriority priority, Supplier<T> work) {
+    if (!queueSlots.tryAcquire()) {
+      reject();
+    }
+    return enqueue(priority, work);
+  }
+
+  // For batch callers that would rather wait for a queue slot than fail, they should bound how many tasks they keep in flight
+  public <T> CompletableFuture<T> submitWhenQueueHasRoom(HashingPriority priority, Supplier<T> work) {
+    queueSlots.acquireUninterruptibly();
+    return enqueue(priority, work);
+  }
+
+  public int parallelism() {
+    return executor.getMaximumPoolSize();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    for (var priority : HashingPriority.values()) {
+      var tag = priority.name().toLowerCase();
+      queueWaitTimers.put(priority, Timer.builder("password.hashing.queue.wait")
+          .description("Time a password hashing task waited for a permit")
+          .tag("priority", tag)
+          .publishPercentileHistogram()
+          .register(registry));
+      hashTimers.put(priority, Timer.builder("password.hashing.duration")
+          .description("Time spent hashing or matching a password")
+          .tag("priority", tag)
+          .publishPercentileHistogram()
+          .register(registry));
+    }
+    rejectedCounter = Counter.builder("password.hashing.rejected")
+        .description("Password hashing tasks rejected because the queue was full")
+        .register(registry);
+    Gauge.builder("password.hashing.queue.size", executor, pool -> pool.getQueue().size())
+        .description("Password hashing tasks waiting for a permit")
+        .register(registry);
+  }
+
+  // Queued tasks never run after this, their futures are failed so callers blocked in join() answer 503 instead of hanging
+  @PreDestroy
+  public void shutdown() {
+    for (var task : executor.shutdownNow()) {
+      if (task instanceof PrioritizedTask<?> prioritizedTask) {
+        prioritizedTask.result.completeExceptionally(new HashingCapacityExceededException(retryAfter));
+      }
+    }
+  }
+
+  private <T> CompletableFuture<T> enqueue(HashingPriority priority, Supplier<T> work) {
+    var task = new PrioritizedTask<>(priority, sequence.getAndIncrement(), work);
+    try {
+      executor.execute(task);
+    } catch (RejectedExecutionException e) {
+      queueSlots.release();
+      reject();
+    }
+    return task.result;
+  }
+
+  private void reject() {
+    if (rejectedCounter != null) {
+      rejectedCounter.increment();
+    }
+    throw new HashingCapacityExceededException(retryAfter);
+  }
+
+  private static void record(Map<HashingPriority, Timer> timers, HashingPriority priority, long nanos) {
+    var timer = timers.get(priority);
+    if (timer != null) {
+      timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private final class PrioritizedTask<T> implements Runnable, Comparable<PrioritizedTask<?>> {
+
+    private final HashingPriority priority;
+    private final long sequence;
+    private final Supplier<T> work;
+    private final long enqueuedAt = System.nanoTime();
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+
+    private PrioritizedTask(HashingPriority priority, long sequence, Supplier<T> work) {
+      this.priority = priority;
+      this.sequence = sequence;
+      this.work = work;
+    }
+
+    @Override
+    public void run() {
+      queueSlots.release();
+      var startedAt = System.nanoTime();
+      record(queueWaitTimers, priority, startedAt - enqueuedAt);
+      RUNNING_ON.set(PasswordHashingExecutor.this);
+      try {
+        result.complete(work.get());
+      } catch (RuntimeException e) {
+        result.completeExceptionally(e);
+      } finally {
+        RUNNING_ON.remove();
+        record(hashTimers, priority, System.nanoTime() - startedAt);
+      }
+    }
+
+    @Override
+    public int compareTo(PrioritizedTask<?> other) {
+      var byPriority = priority.compareTo(other.priority);
+      return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+    }
+  }
+}
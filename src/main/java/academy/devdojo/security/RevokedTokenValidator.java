@@ -0,0 +1,25 @@
+package academy.devdojo.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+@RequiredArgsConstructor
+public class RevokedTokenValidator implements OAuth2TokenValidator<Jwt> {
+
+  private static final OAuth2Error REVOKED = new OAuth2Error(OAuth2ErrorCodes.INVALID_TOKEN, "The token has been revoked", null);
+
+  private final TokenRevocationList revocationList;
+
+  @Override
+  public OAuth2TokenValidatorResult validate(Jwt token) {
+    Number userId = token.getClaim(TokenService.USER_ID_CLAIM);
+    if (userId == null || revocationList.isRevoked(userId.longValue(), token.getIssuedAt())) {
+      return OAuth2TokenValidatorResult.failure(REVOKED);
+    }
+    return OAuth2TokenValidatorResult.success();
+  }
+}
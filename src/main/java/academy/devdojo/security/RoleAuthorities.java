@@ -0,0 +1,66 @@
+package academy.devdojo.security;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+// Parses a comma separated roles value once and hands out the same immutable authority list afterwards.
+// There are only a handful of distinct role combinations, the size limit just guards against unbounded growth.
+public final class RoleAuthorities {
+
+  private static final int MAXIMUM_CACHED_COMBINATIONS = 1024;
+  private static final Map<String, List<GrantedAuthority>> AUTHORITIES_BY_ROLES = new ConcurrentHashMap<>();
+  private static final Map<List<String>, List<GrantedAuthority>> AUTHORITIES_BY_ROLE_LIST = new ConcurrentHashMap<>();
+  private static final Map<String, GrantedAuthority> AUTHORITY_BY_NAME = new ConcurrentHashMap<>();
+
+  private RoleAuthorities() {
+  }
+
+  public static List<GrantedAuthority> of(String roles) {
+    if (roles == null || roles.isBlank()) {
+      return List.of();
+    }
+    var authorities = AUTHORITIES_BY_ROLES.get(roles);
+    if (authorities != null) {
+      return authorities;
+    }
+    if (AUTHORITIES_BY_ROLES.size() >= MAXIMUM_CACHED_COMBINATIONS) {
+      return parse(roles);
+    }
+    return AUTHORITIES_BY_ROLES.computeIfAbsent(roles, RoleAuthorities::parse);
+  }
+
+  // Keyed on the list itself, so a token whose roles were seen before costs a hash lookup and builds no string.
+  // The cache keeps its own copy, the caller may still change the list it passed
+  public static List<GrantedAuthority> of(List<String> roles) {
+    if (roles == null || roles.isEmpty()) {
+      return List.of();
+    }
+    if (roles.size() == 1) {
+      return of(roles.getFirst());
+    }
+    var authorities = AUTHORITIES_BY_ROLE_LIST.get(roles);
+    if (authorities != null) {
+      return authorities;
+    }
+    authorities = of(String.join(",", roles));
+    if (AUTHORITIES_BY_ROLE_LIST.size() < MAXIMUM_CACHED_COMBINATIONS) {
+      AUTHORITIES_BY_ROLE_LIST.putIfAbsent(Collections.unmodifiableList(new ArrayList<>(roles)), authorities);
+    }
+    return authorities;
+  }
+
+  private static List<GrantedAuthority> parse(String roles) {
+    return Arrays.stream(roles.split(","))
+        .map(String::trim)
+        .filter(role -> !role.isEmpty())
+        .distinct()
+        .map(role -> AUTHORITY_BY_NAME.computeIfAbsent(role, SimpleGrantedAuthority::new))
+        .toList();
+  }
+}
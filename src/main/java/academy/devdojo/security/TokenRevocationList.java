@@ -0,0 +1,48 @@
+package academy.devdojo.security;
+
+import academy.devdojo.config.TokenProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+// Tokens issued to a user before the second of the revocation are rejected. iat only carries whole seconds, so the token
+// a user requests right after changing the password, in that same second, stays valid, as does one issued earlier in it.
+// Entries outlive the token ttl by the clock skew the timestamp validator still accepts past exp, after that every affected
+// token is rejected anyway.
+@Component
+public class TokenRevocationList {
+
+  private final Cache<Long, Instant> revokedAt;
+
+  @Autowired
+  public TokenRevocationList(TokenProperties properties) {
+    this(properties, Ticker.systemTicker());
+  }
+
+  TokenRevocationList(TokenProperties properties, Ticker ticker) {
+    this.revokedAt = Caffeine.newBuilder()
+        .maximumSize(properties.revocationMaximumSize())
+        .expireAfterWrite(properties.ttl().plus(properties.clockSkew()))
+        .ticker(ticker)
+        .build();
+  }
+
+  public void revoke(Long userId) {
+    revoke(userId, Instant.now());
+  }
+
+  void revoke(Long userId, Instant at) {
+    if (userId != null) {
+      revokedAt.put(userId, at.truncatedTo(ChronoUnit.SECONDS));
+    }
+  }
+
+  public boolean isRevoked(Long userId, Instant issuedAt) {
+    var revoked = revokedAt.getIfPresent(userId);
+    return revoked != null && (issuedAt == null || issuedAt.isBefore(revoked));
+  }
+}
@@ -0,0 +1,46 @@
+package academy.devdojo.security;
+
+import academy.devdojo.config.TokenProperties;
+import academy.devdojo.domain.User;
+import academy.devdojo.response.TokenPostResponse;
+import java.time.Instant;
+import java.util.Arrays;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+public class TokenService {
+
+  public static final String USER_ID_CLAIM = "uid";
+  public static final String ROLES_CLAIM = "roles";
+  private static final String TOKEN_TYPE = "Bearer";
+
+  private final JwtEncoder jwtEncoder;
+  private final TokenProperties properties;
+
+  public TokenPostResponse issue(User user) {
+    var now = Instant.now();
+    var claims = JwtClaimsSet.builder()
+        .issuer(properties.issuer())
+        .subject(user.getEmail())
+        .issuedAt(now)
+        .expiresAt(now.plus(properties.ttl()))
+        .claim(USER_ID_CLAIM, user.getId())
+        .claim(ROLES_CLAIM, Arrays.asList(user.getRoles().split(",")))
+        .build();
+    var header = JwsHeader.with(MacAlgorithm.HS256).build();
+    var token = jwtEncoder.encode(JwtEncoderParameters.from(header, claims));
+
+    return TokenPostResponse.builder()
+        .accessToken(token.getTokenValue())
+        .tokenType(TOKEN_TYPE)
+        .expiresIn(properties.ttl().toSeconds())
+        .build();
+  }
+}
@@ -0,0 +1,64 @@
+package academy.devdojo.security;
+
+import academy.devdojo.config.UserDetailsCacheProperties;
+import academy.devdojo.domain.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import org.springframework.stereotype.Component;
+
+// Principals keyed by e-mail, so HTTP Basic does not hit the database on every request
+@Component
+public class UserDetailsCache implements MeterBinder {
+
+  private static final String CACHE_NAME = "userDetails";
+
+  private final Cache<String, User> cache;
+
+  public UserDetailsCache(UserDetailsCacheProperties properties) {
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(properties.maximumSize())
+        .expireAfterWrite(properties.ttl())
+        .recordStats()
+        .build();
+  }
+
+  public User get(String email, Function<String, User> loader) {
+    return cache.get(email, loader);
+  }
+
+  public void evict(String email) {
+    if (email != null) {
+      cache.invalidate(email);
+    }
+  }
+
+  // For writes that do not read the user first, so the cached e-mail is not known. A scan of at most maximum-size entries
+  public Optional<User> evictById(Long id) {
+    return evictAllById(Set.of(id)).stream().findFirst();
+  }
+
+  public List<User> evictAllById(Set<Long> ids) {
+    var evicted = new ArrayList<User>();
+    cache.asMap().values().removeIf(user -> {
+      var matches = ids.contains(user.getId());
+      if (matches) {
+        evicted.add(user);
+      }
+      return matches;
+    });
+    return evicted;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+  }
+}
@@ -0,0 +1,81 @@
+package academy.devdojo.security;
+
+import academy.devdojo.config.CredentialCacheProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.stereotype.Component;
+
+// Remembers credentials that already passed a password hash check, keyed by the stored hash.
+// Only an HMAC (with a per-process random key) of the raw password is kept in memory.
+@Component
+public class VerifiedCredentialCache implements MeterBinder {
+
+  private static final String CACHE_NAME = "verifiedCredentials";
+  private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+  private final boolean enabled;
+  private final Cache<String, byte[]> cache;
+  private final SecretKeySpec key;
+
+  public VerifiedCredentialCache(CredentialCacheProperties properties) {
+    this.enabled = properties.enabled();
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(properties.maximumSize())
+        .expireAfterWrite(properties.ttl())
+        .recordStats()
+        .build();
+    var secret = new byte[32];
+    new SecureRandom().nextBytes(secret);
+    this.key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public boolean isVerified(CharSequence rawPassword, String encodedPassword) {
+    if (!enabled || rawPassword == null || encodedPassword == null) {
+      return false;
+    }
+    var verified = cache.getIfPresent(encodedPassword);
+    return verified != null && MessageDigest.isEqual(verified, hmac(rawPassword, encodedPassword));
+  }
+
+  public void remember(CharSequence rawPassword, String encodedPassword) {
+    if (enabled && rawPassword != null && encodedPassword != null) {
+      cache.put(encodedPassword, hmac(rawPassword, encodedPassword));
+    }
+  }
+
+  public void evict(String encodedPassword) {
+    if (encodedPassword != null) {
+      cache.invalidate(encodedPassword);
+    }
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+  }
+
+  private byte[] hmac(CharSequence rawPassword, String encodedPassword) {
+    try {
+      var mac = Mac.getInstance(HMAC_ALGORITHM);
+      mac.init(key);
+      mac.update(encodedPassword.getBytes(StandardCharsets.UTF_8));
+      mac.update((byte) 0);
+      return mac.doFinal(rawPassword.toString().getBytes(StandardCharsets.UTF_8));
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Unable to compute credential HMAC", e);
+    }
+  }
+}
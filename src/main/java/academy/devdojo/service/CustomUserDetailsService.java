@@ -1,6 +1,7 @@
 package academy.devdojo.service;
 
 import academy.devdojo.repository.UserRepository;
+import academy.devdojo.security.UserDetailsCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -12,10 +13,14 @@ import org.springframework.stereotype.Service;
 public class CustomUserDetailsService implements UserDetailsService {
 
   private final UserRepository repository;
+  private final UserDetailsCache cache;
 
   @Override
   public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-    return repository.findByEmail(email)
-        .orElseThrow(() -> new UsernameNotFoundException("User not found for email " + email));
+    var user = cache.get(email, key -> repository.findByEmail(key).orElse(null));
+    if (user == null) {
+      throw new UsernameNotFoundException("User not found for email " + email);
+    }
+    return user;
   }
 }
@@ -1,30 +1,69 @@
 package academy.devdojo.service;
 
+import academy.devdojo.catalog.ProfileCatalog;
 import academy.devdojo.domain.Profile;
+import academy.devdojo.domain.VersionFingerprint;
+import academy.devdojo.exception.NotFoundException;
+import academy.devdojo.outbox.OutboxAggregateType;
+import academy.devdojo.outbox.OutboxEventType;
+import academy.devdojo.outbox.OutboxWriter;
+import academy.devdojo.outbox.ProfileEventPayload;
+import academy.devdojo.pagination.ScrollCursor;
 import academy.devdojo.repository.ProfileRepository;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
 public class ProfileService {
 
+  public static final String SCROLL_SORT_PROPERTY = ProfileCatalog.ID;
+
   private final ProfileRepository repository;
+  private final ProfileCatalog catalog;
+  private final OutboxWriter outboxWriter;
 
+  // Reads are served by the in-memory catalog, only save goes to the database
   public List<Profile> findAll() {
-    return repository.findAll();
+    return catalog.findAll();
   }
 
   public Page<Profile> findAllPaginated(Pageable pageable) {
-    return repository.findAll(pageable);
+    return catalog.findPage(pageable);
+  }
+
+  public VersionFingerprint fingerprint() {
+    return catalog.fingerprint();
+  }
+
+  public Slice<Profile> findAllSliced(Pageable pageable) {
+    return catalog.findSlice(pageable);
+  }
+
+  public Window<Profile> findAllScrolled(ScrollCursor cursor, int size) {
+    var afterId = cursor == null ? null : cursor.key(SCROLL_SORT_PROPERTY, Long.class);
+    return catalog.scroll(afterId, size);
+  }
+
+  public Profile findByIdOrThrowNotFound(Long id) {
+    return catalog.findById(id)
+        .orElseThrow(() -> new NotFoundException("Profile not found"));
   }
 
 
+  @Transactional
   public Profile save(Profile profile) {
-    return repository.save(profile);
+    var savedProfile = repository.save(profile);
+    outboxWriter.record(OutboxAggregateType.PROFILE, savedProfile.getId(), OutboxEventType.CREATED,
+        new ProfileEventPayload(savedProfile.getId(), savedProfile.getName(), savedProfile.getDescription()));
+    catalog.putAfterCommit(savedProfile);
+    return savedProfile;
   }
 
 
@@ -0,0 +1,106 @@
+package academy.devdojo.service;
+
+import academy.devdojo.domain.UserBulkDeleteResult;
+import academy.devdojo.domain.UserDeleteCount;
+import academy.devdojo.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+// Deletes users chunk by chunk in ascending id order. Every chunk is its own transaction of two set-based statements
+// on at most CHUNK_SIZE ids, so row locks and undo log stay small and a failure only rolls back the chunk it happened in
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class UserBulkDeleteService implements MeterBinder {
+
+  public static final int MAXIMUM_IDS = 10_000;
+  static final int CHUNK_SIZE = 500;
+
+  private final UserService service;
+  private final UserRepository repository;
+  private Timer chunkTimer;
+  private Counter deletedUsersCounter;
+  private Counter deletedUserProfilesCounter;
+
+  public UserBulkDeleteResult deleteByIds(Collection<Long> ids) {
+    var sortedIds = ids.stream().filter(Objects::nonNull).distinct().sorted().toList();
+    var progress = new Progress();
+    for (var from = 0; from < sortedIds.size(); from += CHUNK_SIZE) {
+      deleteChunk(sortedIds.subList(from, Math.min(from + CHUNK_SIZE, sortedIds.size())), progress);
+    }
+    return progress.toResult();
+  }
+
+  public UserBulkDeleteResult deleteByEmailDomain(String emailDomain) {
+    var domain = emailDomain.strip().toLowerCase(Locale.ROOT);
+    var progress = new Progress();
+    var afterId = 0L;
+    List<Long> ids;
+    do {
+      ids = repository.findIdsByEmailDomainAfter(domain, afterId, CHUNK_SIZE);
+      if (!ids.isEmpty()) {
+        deleteChunk(ids, progress);
+        afterId = ids.getLast();
+      }
+    } while (ids.size() == CHUNK_SIZE);
+    return progress.toResult();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    chunkTimer = Timer.builder("users.bulk.delete.chunk")
+        .description("Time to delete one chunk of users together with their user profiles")
+        .publishPercentileHistogram()
+        .register(registry);
+    deletedUsersCounter = Counter.builder("users.bulk.deleted")
+        .description("Rows removed by bulk user deletes")
+        .tag("table", "user")
+        .register(registry);
+    deletedUserProfilesCounter = Counter.builder("users.bulk.deleted")
+        .description("Rows removed by bulk user deletes")
+        .tag("table", "user_profile")
+        .register(registry);
+  }
+
+  private void deleteChunk(List<Long> ids, Progress progress) {
+    var start = System.nanoTime();
+    var count = service.deleteChunk(ids);
+    var elapsed = System.nanoTime() - start;
+
+    progress.add(count);
+    if (chunkTimer != null) {
+      chunkTimer.record(elapsed, TimeUnit.NANOSECONDS);
+      deletedUsersCounter.increment(count.users());
+      deletedUserProfilesCounter.increment(count.userProfiles());
+    }
+    log.info("Bulk delete chunk '{}' (ids {} to {}) removed '{}' users and '{}' user profiles in '{}' ms, '{}' users so far",
+        progress.chunks, ids.getFirst(), ids.getLast(), count.users(), count.userProfiles(), elapsed / 1_000_000, progress.users);
+  }
+
+  private static final class Progress {
+
+    private long users;
+    private long userProfiles;
+    private int chunks;
+
+    private void add(UserDeleteCount count) {
+      users += count.users();
+      userProfiles += count.userProfiles();
+      chunks++;
+    }
+
+    private UserBulkDeleteResult toResult() {
+      return new UserBulkDeleteResult(users, userProfiles, chunks);
+    }
+  }
+}
@@ -1,24 +1,77 @@
 package academy.devdojo.service;
 
-import academy.devdojo.domain.User;
-import academy.devdojo.domain.UserProfile;
+import academy.devdojo.domain.UserProfileSummary;
+import academy.devdojo.domain.UserSummary;
+import academy.devdojo.fields.UserField;
+import academy.devdojo.fields.UserProfileField;
+import academy.devdojo.pagination.ScrollCursor;
+import academy.devdojo.pagination.UserScrollSort;
 import academy.devdojo.repository.UserProfileRepository;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
 public class UserProfileService {
 
+  public static final String ID = "id";
+
   private final UserProfileRepository repository;
 
-  public List<UserProfile> findAll() {
-    return repository.findAll();
+  @Transactional(readOnly = true)
+  public List<UserProfileSummary> findAll() {
+    return repository.findAllSummaries();
+  }
+
+  @Transactional(readOnly = true)
+  public Window<UserProfileSummary> findAllScrolled(ScrollCursor cursor, int size) {
+    if (cursor != null) {
+      cursor.toPosition(Sort.by(ID));
+    }
+    var afterId = cursor == null ? 0L : cursor.key(ID, Long.class);
+    var userProfiles = repository.findSummariesAfterId(afterId, Limit.of(size + 1));
+    return ScrollCursor.toWindow(userProfiles, size, userProfile -> Map.of(ID, userProfile.id()));
+  }
+
+
+  @Transactional(readOnly = true)
+  public List<Map<String, Object>> findAllFields(Set<UserProfileField> fields) {
+    return repository.findAllFields(fields);
   }
 
+  @Transactional(readOnly = true)
+  public List<UserSummary> findAllUsersByProfileId(Long id) {
+    return repository.findAllUserSummariesByProfileId(id);
+  }
+
+  @Transactional(readOnly = true)
+  public Window<UserSummary> findUsersByProfileIdScrolled(Long id, ScrollCursor cursor, int size) {
+    var sort = UserScrollSort.ID;
+    if (cursor != null) {
+      cursor.toPosition(sort.getSort());
+    }
+    var afterUserId = cursor == null ? 0L : cursor.key("id", Long.class);
+    var users = repository.findUserSummariesByProfileIdAfterUserId(id, afterUserId, Limit.of(size + 1));
+    return ScrollCursor.toWindow(users, size, sort.getKeys());
+  }
+
+  @Transactional(readOnly = true)
+  public void forEachUserOfProfile(Long id, Consumer<UserSummary> consumer) {
+    try (var users = repository.streamUserSummariesByProfileId(id)) {
+      users.forEach(consumer);
+    }
+  }
 
-  public List<User> findAllUsersByProfileId(Long id) {
-    return repository.findAllUserByProfileId(id);
+  @Transactional(readOnly = true)
+  public List<Map<String, Object>> findAllUserFieldsByProfileId(Set<UserField> fields, Long id) {
+    return repository.findAllUserFieldsByProfileId(fields, id);
   }
 }
@@ -1,72 +1,452 @@
 package academy.devdojo.service;
 
+import academy.devdojo.datasource.ReadYourWrites;
 import academy.devdojo.domain.User;
+import academy.devdojo.domain.UserChange;
+import academy.devdojo.domain.UserColumn;
+import academy.devdojo.domain.UserDeleteCount;
+import academy.devdojo.domain.UserLookupResult;
+import academy.devdojo.domain.UserSummary;
+import academy.devdojo.domain.VersionFingerprint;
+import academy.devdojo.etag.UserVersionCache;
+import academy.devdojo.exception.BadRequestException;
 import academy.devdojo.exception.EmailAlreadyExistsException;
 import academy.devdojo.exception.NotFoundException;
-import academy.devdojo.mapper.UserMapper;
+import academy.devdojo.exception.PreconditionFailedException;
+import academy.devdojo.fields.UserField;
+import academy.devdojo.outbox.OutboxAggregateType;
+import academy.devdojo.outbox.OutboxEventType;
+import academy.devdojo.outbox.OutboxWriter;
+import academy.devdojo.outbox.UserEventPayload;
+import academy.devdojo.pagination.ScrollCursor;
+import academy.devdojo.pagination.UserScrollSort;
+import academy.devdojo.pagination.UserSearchField;
+import academy.devdojo.repository.UserConstraints;
+import academy.devdojo.repository.UserProfileRepository;
 import academy.devdojo.repository.UserRepository;
+import academy.devdojo.security.TokenRevocationList;
+import academy.devdojo.security.UserDetailsCache;
+import academy.devdojo.security.VerifiedCredentialCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 @RequiredArgsConstructor
-public class UserService {
+public class UserService implements MeterBinder {
+
+  public static final int LOOKUP_MAXIMUM_IDS = 1000;
+  // Keeps every IN list well below max_allowed_packet and, with in_clause_parameter_padding, to a handful of statement shapes
+  static final int LOOKUP_CHUNK_SIZE = 500;
+  public static final String CHANGES_CURSOR_SORT = "changes";
+  private static final Sort CHANGES_SORT = Sort.by("changedAt", "id");
 
   private final UserRepository repository;
-  private final UserMapper mapper;
+  private final UserProfileRepository userProfileRepository;
+  private final UserDetailsCache userDetailsCache;
+  private final VerifiedCredentialCache verifiedCredentialCache;
+  private final TokenRevocationList tokenRevocationList;
+  private final UserVersionCache userVersionCache;
+  private final ReadYourWrites readYourWrites;
+  private final OutboxWriter outboxWriter;
+  private final Map<UserColumn, Counter> patchColumnCounters = new EnumMap<>(UserColumn.class);
+  private DistributionSummary patchColumnsSummary;
+
+  @Transactional(readOnly = true)
+  public List<UserSummary> findAll(String firstName) {
+    return firstName == null ? repository.findAllSummaries() : repository.findSummariesByFirstName(firstName);
+  }
+
+  public VersionFingerprint fingerprint() {
+    return userVersionCache.collectionFingerprint(repository::fingerprint);
+  }
+
+  @Transactional(readOnly = true)
+  public Page<UserSummary> findAllPaginated(Pageable pageable) {
+    return repository.findSummariesBy(pageable);
+  }
+
+  @Transactional(readOnly = true)
+  public void forEachSummary(Consumer<UserSummary> consumer) {
+    try (var summaries = repository.streamAllSummaries()) {
+      summaries.forEach(consumer);
+    }
+  }
+
+  @Transactional(readOnly = true)
+  public Slice<UserSummary> findAllSliced(Pageable pageable) {
+    return repository.findSummarySliceBy(pageable);
+  }
 
-  public List<User> findAll(String firstName) {
-    return firstName == null ? repository.findAll() : repository.findByFirstNameIgnoreCase(firstName);
+  @Transactional(readOnly = true)
+  public Window<UserSummary> findAllScrolled(ScrollCursor cursor, UserScrollSort sort, int size) {
+    if (cursor != null) {
+      cursor.toPosition(sort.getSort());
+    }
+    var afterId = cursor == null ? 0L : cursor.key("id", Long.class);
+    var limit = Limit.of(size + 1);
+    var users = switch (sort) {
+      case ID -> repository.findSummariesAfterId(afterId, limit);
+      case EMAIL -> repository.findSummariesAfterEmail(cursor == null ? "" : cursor.key("email", String.class), afterId, limit);
+    };
+    return ScrollCursor.toWindow(users, size, sort.getKeys());
   }
 
-  public Page<User> findAllPaginated(Pageable pageable) {
-    return repository.findAll(pageable);
+  @Transactional(readOnly = true)
+  public Window<UserSummary> search(UserSearchField field, String prefix, ScrollCursor cursor, int size) {
+    if (prefix == null || prefix.isBlank()) {
+      throw new BadRequestException("Search prefix must not be blank");
+    }
+    var afterValue = "";
+    var afterId = 0L;
+    if (cursor != null) {
+      cursor.toPosition(Sort.by(field.getProperty(), "id"));
+      afterValue = cursor.key(field.getProperty(), String.class);
+      afterId = cursor.key("id", Long.class);
+    }
+
+    var users = repository.searchByPrefix(field, UserSearchField.normalize(prefix.strip()), afterValue, afterId, size + 1);
+    return ScrollCursor.toWindow(users, size, user -> Map.of(field.getProperty(), field.normalizedValue(user), "id", user.id()));
   }
 
+  // Not read-only on purpose, a lagging replica could apply a change after the feed has moved past its updated_at
+  public Window<UserChange> findChanges(ScrollCursor since, int size) {
+    var afterChangedAt = Instant.EPOCH;
+    var afterId = 0L;
+    if (since != null) {
+      if (!CHANGES_CURSOR_SORT.equals(since.sort())) {
+        throw new BadRequestException("Invalid cursor");
+      }
+      since.toPosition(CHANGES_SORT);
+      afterChangedAt = parseChangedAt(since.key("changedAt", String.class));
+      afterId = since.key("id", Long.class);
+    }
+
+    var changes = repository.findChangesAfter(afterChangedAt, afterId, size + 1);
+    return ScrollCursor.toWindow(changes, size, change -> Map.of("changedAt", change.changedAt().toString(), "id", change.id()));
+  }
+
+  @Transactional(readOnly = true)
+  public UserSummary findSummaryByIdOrThrowNotFound(Long id) {
+    return repository.findSummaryById(id)
+        .orElseThrow(() -> new NotFoundException("User not found"));
+  }
+
+  @Transactional(readOnly = true)
+  public List<Map<String, Object>> findAllFields(Set<UserField> fields, String firstName) {
+    return repository.findAllFields(fields, firstName);
+  }
+
+  @Transactional(readOnly = true)
+  public Map<String, Object> findFieldsByIdOrThrowNotFound(Set<UserField> fields, Long id) {
+    return repository.findFieldsById(fields, id)
+        .orElseThrow(() -> new NotFoundException("User not found"));
+  }
+
+  @Transactional(readOnly = true)
+  public UserLookupResult findAllByIds(Collection<Long> ids) {
+    var requested = ids.stream().filter(Objects::nonNull).distinct().toList();
+    var found = HashMap.<Long, UserSummary>newHashMap(requested.size());
+    for (var from = 0; from < requested.size(); from += LOOKUP_CHUNK_SIZE) {
+      var chunk = requested.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, requested.size()));
+      repository.findSummariesByIdIn(chunk).forEach(user -> found.put(user.id(), user));
+    }
+
+    var users = new ArrayList<UserSummary>(found.size());
+    var missingIds = new ArrayList<Long>();
+    for (var id : requested) {
+      var user = found.get(id);
+      if (user == null) {
+        missingIds.add(id);
+      } else {
+        users.add(user);
+      }
+    }
+    return new UserLookupResult(users, missingIds);
+  }
 
   public User findByIdOrThrowNotFound(Long id) {
     return repository.findById(id)
         .orElseThrow(() -> new NotFoundException("User not found"));
   }
 
-  //@Transactional(rollbackFor = Exception.class)
+  // The e-mail unique key is the uniqueness check, without a racy SELECT before.
+  // The IDENTITY id makes Hibernate run the INSERT right away, so a duplicate fails here and not at commit
+  @Transactional
   public User save(User user) {
-    assertEmailDoesNoExist(user.getEmail());
-    return repository.save(user);
+    User savedUser;
+    try {
+      savedUser = repository.save(user);
+    } catch (DataIntegrityViolationException e) {
+      throw translate(e, user.getEmail());
+    }
+    outboxWriter.record(OutboxAggregateType.USER, savedUser.getId(), OutboxEventType.CREATED, toEventPayload(savedUser));
+    readYourWrites.markWrite();
+    readYourWrites.markWriteFor(savedUser.getEmail());
+    userVersionCache.evictCollection();
+    return savedUser;
+  }
+
+  // Not read-only on purpose, a replica could miss an e-mail created a moment ago
+  public List<String> findExistingEmails(Collection<String> emails) {
+    return repository.findEmailsByEmailIn(emails);
   }
 
+  @Transactional
+  public int insertAll(List<User> users) {
+    final var inserted = repository.insertAll(users);
+    recordCreated(users);
+    readYourWrites.markWrite();
+    userVersionCache.evictCollection();
+    return inserted;
+  }
+
+  @Transactional
   public void delete(Long id) {
-    var user = findByIdOrThrowNotFound(id);
-    repository.delete(user);
+    repository.insertTombstonesByIdIn(List.of(id));
+    if (repository.deleteUserById(id) == 0) {
+      throw new NotFoundException("User not found");
+    }
+    outboxWriter.record(OutboxAggregateType.USER, id, OutboxEventType.DELETED, UserEventPayload.deleted(id));
+    readYourWrites.markWrite();
+    userVersionCache.evict(id);
+    userVersionCache.evictCollection();
+    evictNowAndAfterCompletion(() -> userDetailsCache.evictById(id).ifPresent(user -> verifiedCredentialCache.evict(user.getPassword())));
+    afterCommit(() -> tokenRevocationList.revoke(id));
+  }
+
+  // One chunk of a bulk delete, in its own transaction. The user_profile rows go first so the foreign key holds.
+  // Only ids that exist get a DELETED event, the lookup is an index range scan on the primary key
+  @Transactional
+  public UserDeleteCount deleteChunk(List<Long> ids) {
+    var existingIds = repository.findIdsByIdIn(ids);
+    if (existingIds.isEmpty()) {
+      return new UserDeleteCount(0, 0);
+    }
+    recordDeleted(existingIds);
+    repository.insertTombstonesByIdIn(existingIds);
+    var userProfiles = userProfileRepository.deleteByUserIdIn(existingIds);
+    var deleteCount = new UserDeleteCount(repository.deleteUsersByIdIn(existingIds), userProfiles);
+    readYourWrites.markWrite();
+    evictDeleted(existingIds);
+    return deleteCount;
   }
 
+  // userToUpdate carries the already encoded password, or null to keep the current one. Roles are never changed here
+  @Transactional
   public void update(User userToUpdate) {
-    var savedUser = findByIdOrThrowNotFound(userToUpdate.getId());
-    assertEmailDoesNoExist(userToUpdate.getEmail(), userToUpdate.getId());
+    if (updateRow(userToUpdate, null) == 0) {
+      throw new NotFoundException("User not found");
+    }
+    afterUpdate(userToUpdate);
+  }
+
+  // Conditional variant for If-Match. A stale version changes no row, so it is rejected without reading the user,
+  // and the new version is known to be the expected one plus one
+  @Transactional
+  public long update(User userToUpdate, long expectedVersion) {
+    if (updateRow(userToUpdate, expectedVersion) == 0) {
+      throw new PreconditionFailedException("User was changed or deleted since version %d".formatted(expectedVersion));
+    }
+    afterUpdate(userToUpdate);
+    return expectedVersion + 1;
+  }
+
+  private int updateRow(User userToUpdate, Long expectedVersion) {
+    try {
+      return expectedVersion == null
+          ? repository.updateById(userToUpdate.getId(), userToUpdate.getFirstName(), userToUpdate.getLastName(),
+          userToUpdate.getEmail(), userToUpdate.getPassword())
+          : repository.updateByIdAndVersion(userToUpdate.getId(), userToUpdate.getFirstName(), userToUpdate.getLastName(),
+          userToUpdate.getEmail(), userToUpdate.getPassword(), expectedVersion);
+    } catch (DataIntegrityViolationException e) {
+      throw translate(e, userToUpdate.getEmail());
+    }
+  }
+
+  // Writes only the non-null attributes of changes. The updated user is read back on the primary for the event and the ETag
+  @Transactional
+  public UserSummary patch(Long id, User changes, Long expectedVersion) {
+    var columns = changedColumns(changes);
+    if (columns.isEmpty()) {
+      return findUnchanged(id, expectedVersion);
+    }
+
+    int updated;
+    try {
+      updated = repository.patchById(id, columns, expectedVersion);
+    } catch (DataIntegrityViolationException e) {
+      throw translate(e, changes.getEmail());
+    }
+    if (updated == 0) {
+      throw expectedVersion == null
+          ? new NotFoundException("User not found")
+          : new PreconditionFailedException("User was changed or deleted since version %d".formatted(expectedVersion));
+    }
+    recordPatchedColumns(columns.keySet());
+
+    var user = findSummaryByIdOrThrowNotFound(id);
+    afterUpdate(new UserEventPayload(id, user.firstName(), user.lastName(), user.email()), columns.containsKey(UserColumn.PASSWORD));
+    return user;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    patchColumnsSummary = DistributionSummary.builder("users.patch.columns")
+        .description("Columns written by one PATCH of a user")
+        .register(registry);
+    for (var column : UserColumn.values()) {
+      patchColumnCounters.put(column, Counter.builder("users.patch.column.writes")
+          .description("PATCH updates that wrote the column")
+          .tag("column", column.getColumn())
+          .register(registry));
+    }
+  }
+
+  private UserSummary findUnchanged(Long id, Long expectedVersion) {
+    var user = findSummaryByIdOrThrowNotFound(id);
+    if (expectedVersion != null && !expectedVersion.equals(user.version())) {
+      throw new PreconditionFailedException("User was changed since version %d".formatted(expectedVersion));
+    }
+    return user;
+  }
+
+  private static Map<UserColumn, String> changedColumns(User changes) {
+    var columns = new EnumMap<UserColumn, String>(UserColumn.class);
+    putIfNotNull(columns, UserColumn.FIRST_NAME, changes.getFirstName());
+    putIfNotNull(columns, UserColumn.LAST_NAME, changes.getLastName());
+    putIfNotNull(columns, UserColumn.EMAIL, changes.getEmail());
+    putIfNotNull(columns, UserColumn.PASSWORD, changes.getPassword());
+    return columns;
+  }
+
+  private static void putIfNotNull(Map<UserColumn, String> columns, UserColumn column, String value) {
+    if (value != null) {
+      columns.put(column, value);
+    }
+  }
+
+  private void recordPatchedColumns(Set<UserColumn> columns) {
+    if (patchColumnsSummary != null) {
+      patchColumnsSummary.record(columns.size());
+      columns.forEach(column -> patchColumnCounters.get(column).increment());
+    }
+  }
+
+  private void afterUpdate(User userToUpdate) {
+    afterUpdate(toEventPayload(userToUpdate), userToUpdate.getPassword() != null);
+  }
+
+  private void afterUpdate(UserEventPayload payload, boolean passwordChanged) {
+    var id = payload.id();
+    outboxWriter.record(OutboxAggregateType.USER, id, OutboxEventType.UPDATED, payload);
+    readYourWrites.markWrite();
+    userVersionCache.evict(id);
+    userVersionCache.evictCollection();
+    evictNowAndAfterCompletion(() -> evictCredentials(id, payload.email(), passwordChanged));
+    if (passwordChanged) {
+      afterCommit(() -> tokenRevocationList.revoke(id));
+    }
+  }
+
+  private void evictCredentials(Long id, String email, boolean passwordChanged) {
+    var cachedUser = userDetailsCache.evictById(id);
+    userDetailsCache.evict(email);
+    if (passwordChanged) {
+      cachedUser.ifPresent(user -> verifiedCredentialCache.evict(user.getPassword()));
+    }
+  }
+
+  private void recordCreated(List<User> users) {
+    var payloads = LinkedHashMap.<Long, UserEventPayload>newLinkedHashMap(users.size());
+    users.forEach(user -> payloads.put(user.getId(), toEventPayload(user)));
+    outboxWriter.recordAll(OutboxAggregateType.USER, OutboxEventType.CREATED, payloads);
+  }
+
+  private void recordDeleted(List<Long> ids) {
+    var payloads = LinkedHashMap.<Long, UserEventPayload>newLinkedHashMap(ids.size());
+    ids.forEach(id -> payloads.put(id, UserEventPayload.deleted(id)));
+    outboxWriter.recordAll(OutboxAggregateType.USER, OutboxEventType.DELETED, payloads);
+  }
+
+  private void evictDeleted(List<Long> ids) {
+    userVersionCache.evictAll(ids);
+    userVersionCache.evictCollection();
+    var idSet = Set.copyOf(ids);
+    evictNowAndAfterCompletion(() -> userDetailsCache.evictAllById(idSet)
+        .forEach(user -> verifiedCredentialCache.evict(user.getPassword())));
+    afterCommit(() -> ids.forEach(tokenRevocationList::revoke));
+  }
 
-    var userWithPasswordAndRoles = mapper.toUserWithPasswordAndRoles(userToUpdate, userToUpdate.getPassword(), savedUser);
-    repository.save(userWithPasswordAndRoles);
+  // A login between the write and its commit still reads the old row and would cache it for the whole ttl,
+  // so the principal caches are cleared again once the transaction is over
+  private static void evictNowAndAfterCompletion(Runnable eviction) {
+    eviction.run();
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          eviction.run();
+        }
+      });
+    }
   }
 
-  public void assertUserExists(Long id) {
-    findByIdOrThrowNotFound(id);
+  // Revocations wait for the commit, so a token issued from the old row in between is covered as well
+  // and a rolled back write revokes nothing
+  private static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
   }
 
-  public void assertEmailDoesNoExist(String email) {
-    repository.findByEmail(email)
-        .ifPresent(this::throwEmailExistsException);
+  private static Instant parseChangedAt(String changedAt) {
+    try {
+      return Instant.parse(changedAt);
+    } catch (DateTimeParseException e) {
+      throw new BadRequestException("Invalid cursor");
+    }
   }
 
-  public void assertEmailDoesNoExist(String email, Long id) {
-    repository.findByEmailAndIdNot(email, id)
-        .ifPresent(this::throwEmailExistsException);
+  private static UserEventPayload toEventPayload(User user) {
+    return new UserEventPayload(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail());
   }
 
-  private void throwEmailExistsException(User user) {
-    throw new EmailAlreadyExistsException("E-mail %s already exists".formatted(user.getEmail()));
+  // Only the e-mail unique key means a duplicate, anything else (a value too long, a foreign key) goes to the error handler as is
+  private static RuntimeException translate(DataIntegrityViolationException e, String email) {
+    return UserConstraints.isEmailUniqueKeyViolation(e) ? new EmailAlreadyExistsException("E-mail %s already exists".formatted(email)) : e;
   }
 
 
@@ -0,0 +1,6 @@
+package academy.devdojo.sse;
+
+// data is already JSON, it is serialized once and written as is to every subscriber
+record StreamedEvent(String id, String name, String data) {
+
+}
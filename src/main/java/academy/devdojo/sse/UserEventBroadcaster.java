@@ -0,0 +1,162 @@
+package academy.devdojo.sse;
+
+import academy.devdojo.config.UserEventStreamProperties;
+import academy.devdojo.outbox.OutboxAggregateType;
+import academy.devdojo.outbox.OutboxRecorded;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// Fans committed user events out to the SSE subscribers of this instance and keeps the last replay-capacity of them,
+// so a client reconnecting with Last-Event-ID gets what it missed. Event ids are '<run>-<sequence>', an id from another
+// run or one that already left the replay buffer gets a 'resync' event, the client then catches up via /v1/users/changes.
+// A single commit with more than max-lag user events (a bulk import or delete chunk) is replayable but not pushed,
+// every subscriber gets one 'resync' carrying the id of the last event of the batch instead of a full queue.
+// Fed by this instance's commits only. The outbox relay cannot feed it either, it hands each event to exactly one instance,
+// so with several instances a subscriber misses the writes made elsewhere and /v1/users/changes stays the complete feed
+@Slf4j
+@Component
+public class UserEventBroadcaster implements MeterBinder {
+
+  static final String RESYNC_EVENT = "resync";
+  private static final String RESYNC_DATA = "{\"reason\":\"Missed events are no longer available, sync through /v1/users/changes\"}";
+  private static final String BATCH_RESYNC_DATA = "{\"reason\":\"Too many events in one write, sync through /v1/users/changes\"}";
+
+  private final String runId = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Set<UserEventSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+  private final ArrayDeque<StreamedEvent> replay;
+  private final int replayCapacity;
+  private final int maxLag;
+  private final int maxSubscribers;
+  private final Duration timeout;
+  private long sequence;
+  private Counter droppedCounter;
+
+  public UserEventBroadcaster(UserEventStreamProperties properties) {
+    this.replayCapacity = properties.replayCapacity();
+    this.maxLag = properties.maxLag();
+    this.maxSubscribers = properties.maxSubscribers();
+    this.timeout = properties.timeout();
+    this.replay = new ArrayDeque<>(replayCapacity);
+  }
+
+  public SseEmitter subscribe(String lastEventId) {
+    if (subscribers.size() >= maxSubscribers) {
+      throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many user event subscribers, try again later");
+    }
+    var emitter = new SseEmitter(timeout.toMillis());
+    lock.lock();
+    try {
+      var backlog = backlogAfter(lastEventId);
+      var subscriber = new UserEventSubscriber(emitter, maxLag + Math.max(backlog.size(), 1), subscribers::remove);
+      backlog.forEach(subscriber::offer);
+      subscriber.start();
+      subscribers.add(subscriber);
+    } finally {
+      lock.unlock();
+    }
+    return emitter;
+  }
+
+  @TransactionalEventListener
+  public void onRecorded(OutboxRecorded recorded) {
+    var messages = recorded.messages().stream()
+        .filter(message -> message.aggregateType() == OutboxAggregateType.USER)
+        .toList();
+    if (messages.isEmpty()) {
+      return;
+    }
+    lock.lock();
+    try {
+      var events = new ArrayList<StreamedEvent>(messages.size());
+      for (var message : messages) {
+        var event = new StreamedEvent(nextId(), message.eventType().name(), message.payload());
+        remember(event);
+        events.add(event);
+      }
+      if (events.size() > maxLag) {
+        deliver(new StreamedEvent(events.getLast().id(), RESYNC_EVENT, BATCH_RESYNC_DATA));
+      } else {
+        events.forEach(this::deliver);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("users.events.subscribers", subscribers, Set::size)
+        .description("Open user event streams on this instance")
+        .register(registry);
+    droppedCounter = Counter.builder("users.events.dropped")
+        .description("User event streams closed because the subscriber fell more than max-lag events behind")
+        .register(registry);
+  }
+
+  private void remember(StreamedEvent event) {
+    if (replayCapacity > 0) {
+      if (replay.size() == replayCapacity) {
+        replay.removeFirst();
+      }
+      replay.addLast(event);
+    }
+  }
+
+  private void deliver(StreamedEvent event) {
+    for (var subscriber : subscribers) {
+      if (!subscriber.offer(event)) {
+        log.debug("Dropping a user event subscriber that is more than '{}' events behind", maxLag);
+        if (droppedCounter != null) {
+          droppedCounter.increment();
+        }
+        subscriber.close();
+      }
+    }
+  }
+
+  private List<StreamedEvent> backlogAfter(String lastEventId) {
+    if (lastEventId == null || lastEventId.isBlank()) {
+      return List.of();
+    }
+    // The buffer holds every sequence after beforeOldest up to the current one
+    var lastSequence = parseSequence(lastEventId.strip());
+    var beforeOldest = sequence - replay.size();
+    if (lastSequence < beforeOldest || lastSequence > sequence) {
+      return List.of(new StreamedEvent(runId + "-" + sequence, RESYNC_EVENT, RESYNC_DATA));
+    }
+    return replay.stream().skip(lastSequence - beforeOldest).toList();
+  }
+
+  // -1 when the id was not issued by this run
+  private long parseSequence(String eventId) {
+    var separator = eventId.lastIndexOf('-');
+    if (separator < 0 || !runId.equals(eventId.substring(0, separator))) {
+      return -1;
+    }
+    try {
+      return Long.parseLong(eventId.substring(separator + 1));
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  private String nextId() {
+    return runId + "-" + ++sequence;
+  }
+}
@@ -0,0 +1,61 @@
+package academy.devdojo.sse;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// One virtual thread per subscriber drains its queue into the emitter, so a slow socket only ever blocks its own thread
+@Slf4j
+final class UserEventSubscriber {
+
+  private final SseEmitter emitter;
+  private final BlockingQueue<StreamedEvent> queue;
+  private final Consumer<UserEventSubscriber> onClose;
+  private final AtomicBoolean closed = new AtomicBoolean();
+  private Thread sender;
+
+  UserEventSubscriber(SseEmitter emitter, int capacity, Consumer<UserEventSubscriber> onClose) {
+    this.emitter = emitter;
+    this.queue = new LinkedBlockingQueue<>(capacity);
+    this.onClose = onClose;
+    emitter.onCompletion(this::close);
+    emitter.onTimeout(this::close);
+    emitter.onError(e -> close());
+  }
+
+  // False when the queue is full, the subscriber is lagging too far behind to keep
+  boolean offer(StreamedEvent event) {
+    return queue.offer(event);
+  }
+
+  void start() {
+    sender = Thread.ofVirtual().name("user-event-sender").start(this::send);
+  }
+
+  void close() {
+    if (closed.compareAndSet(false, true)) {
+      onClose.accept(this);
+      sender.interrupt();
+    }
+  }
+
+  private void send() {
+    try {
+      while (!closed.get()) {
+        var event = queue.take();
+        emitter.send(SseEmitter.event().id(event.id()).name(event.name()).data(event.data()));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (IOException | IllegalStateException e) {
+      log.debug("User event subscriber went away", e);
+    } finally {
+      close();
+      emitter.complete();
+    }
+  }
+}
@@ -0,0 +1,7 @@
+ALTER TABLE `user`
+    ADD COLUMN `first_name_normalized` varchar(255) GENERATED ALWAYS AS (lower(`first_name`)) STORED NOT NULL,
+    ADD COLUMN `last_name_normalized`  varchar(255) GENERATED ALWAYS AS (lower(`last_name`)) STORED NOT NULL,
+    ADD COLUMN `email_domain`          varchar(255) GENERATED ALWAYS AS (lower(substring_index(`email`, '@', -1))) STORED NOT NULL,
+    ADD KEY `idx_user_first_name_normalized` (`first_name_normalized`, `id`),
+    ADD KEY `idx_user_last_name_normalized` (`last_name_normalized`, `id`),
+    ADD KEY `idx_user_email_domain` (`email_domain`, `id`);
@@ -0,0 +1,11 @@
+CREATE TABLE `outbox_event` (
+                                `id` bigint NOT NULL AUTO_INCREMENT,
+                                `aggregate_type` varchar(32) NOT NULL,
+                                `aggregate_id` bigint NOT NULL,
+                                `event_type` varchar(32) NOT NULL,
+                                `payload` text NOT NULL,
+                                `occurred_at` datetime(6) NOT NULL,
+                                `published_at` datetime(6) NULL,
+                                PRIMARY KEY (`id`),
+                                KEY `idx_outbox_event_published_at` (`published_at`, `id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
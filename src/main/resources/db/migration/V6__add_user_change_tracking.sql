@@ -0,0 +1,11 @@
+ALTER TABLE `user`
+    ADD COLUMN `created_at` datetime(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+    ADD COLUMN `updated_at` datetime(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6),
+    ADD KEY `idx_user_updated_at` (`updated_at`, `id`);
+
+CREATE TABLE `user_tombstone` (
+                                  `user_id` bigint NOT NULL,
+                                  `deleted_at` datetime(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6),
+                                  PRIMARY KEY (`user_id`),
+                                  KEY `idx_user_tombstone_deleted_at` (`deleted_at`, `user_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
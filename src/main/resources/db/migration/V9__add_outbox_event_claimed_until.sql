@@ -0,0 +1,4 @@
+-- A relay leases a batch until claimed_until and commits before calling the sink, so no row lock or connection is held
+-- while it publishes. A relay that dies in between leaves the lease to expire and the batch is claimed again
+ALTER TABLE `outbox_event`
+    ADD COLUMN `claimed_until` datetime(6) NULL;
@@ -0,0 +1,82 @@
+package academy.devdojo.benchmark;
+
+import academy.devdojo.commons.UserUtils;
+import academy.devdojo.controller.UserController;
+import academy.devdojo.domain.User;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authorization of {@code UserController.findAll} ({@code hasAuthority('ADMIN')}) for an authenticated user,
+ * with authorities split from the roles column on every call (before) and interned once (after).
+ * Run with {@code ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark=AuthorityBenchmark}, add {@code -prof gc} to JMH
+ * for the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class AuthorityBenchmark {
+
+    private User admin;
+    private PreAuthorizeAuthorizationManager authorizationManager;
+    private SimpleMethodInvocation findAllInvocation;
+
+    @Setup
+    public void setup() {
+        admin = new UserUtils().newUserSaved().withRoles("ADMIN,USER");
+        authorizationManager = new PreAuthorizeAuthorizationManager();
+        var findAll = Arrays.stream(UserController.class.getMethods())
+                .filter(method -> method.getName().equals("findAll") && method.isAnnotationPresent(PreAuthorize.class))
+                .findFirst()
+                .orElseThrow();
+        findAllInvocation = new SimpleMethodInvocation(new UserController(null, null, null, null, null, null, null), findAll);
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> authoritiesSplitPerCall() {
+        return splitRoles(admin.getRoles());
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> authoritiesInterned() {
+        return admin.getAuthorities();
+    }
+
+    @Benchmark
+    public AuthorizationDecision findAllAuthorizationSplitPerCall() {
+        var authentication = UsernamePasswordAuthenticationToken.authenticated(admin, null, splitRoles(admin.getRoles()));
+        return authorizationManager.check(() -> authentication, findAllInvocation);
+    }
+
+    @Benchmark
+    public AuthorizationDecision findAllAuthorizationInterned() {
+        var authentication = UsernamePasswordAuthenticationToken.authenticated(admin, null, admin.getAuthorities());
+        return authorizationManager.check(() -> authentication, findAllInvocation);
+    }
+
+    private static Collection<? extends GrantedAuthority> splitRoles(String roles) {
+        return Arrays.stream(roles.split(","))
+                .map(SimpleGrantedAuthority::new)
+                .toList();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AuthorityBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,57 @@
+package academy.devdojo.benchmark;
+
+import academy.devdojo.config.CredentialCacheProperties;
+import academy.devdojo.security.CachingPasswordEncoder;
+import academy.devdojo.security.VerifiedCredentialCache;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password checks per second on the HTTP Basic path, with and without the verified-credential cache.
+ * Run with {@code ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark=CredentialCacheBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class CredentialCacheBenchmark {
+    private static final String RAW_PASSWORD = "test";
+
+    private String encodedPassword;
+    private PasswordEncoder withoutCache;
+    private PasswordEncoder withCache;
+
+    @Setup
+    public void setup() {
+        var delegatingPasswordEncoder = PasswordEncoderFactories.createDelegatingPasswordEncoder();
+        encodedPassword = delegatingPasswordEncoder.encode(RAW_PASSWORD);
+
+        var cache = new VerifiedCredentialCache(new CredentialCacheProperties(true, 10_000, Duration.ofMinutes(1)));
+        withoutCache = delegatingPasswordEncoder;
+        withCache = new CachingPasswordEncoder(delegatingPasswordEncoder, cache);
+        withCache.matches(RAW_PASSWORD, encodedPassword);
+    }
+
+    @Benchmark
+    public boolean matchesWithoutCache() {
+        return withoutCache.matches(RAW_PASSWORD, encodedPassword);
+    }
+
+    @Benchmark
+    public boolean matchesWithCache() {
+        return withCache.matches(RAW_PASSWORD, encodedPassword);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CredentialCacheBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,108 @@
+package academy.devdojo.benchmark;
+
+import academy.devdojo.UserServiceApplication;
+import academy.devdojo.domain.User;
+import academy.devdojo.fields.SparseFields;
+import academy.devdojo.fields.SparseQuery;
+import academy.devdojo.fields.UserField;
+import academy.devdojo.mapper.UserMapper;
+import academy.devdojo.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * {@code GET /v1/users} body for 1000 users against an in-memory H2 database: the full {@code UserGetResponse} list (before)
+ * and {@code fields=id,email} (after), both read in a read-only transaction and serialized with the application ObjectMapper.
+ * {@code resolveProjection} is the per-request cost of parsing {@code fields} and finding the cached projection.
+ * Run with {@code ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark=SparseFieldsBenchmark}, add {@code -prof gc} to JMH
+ * for the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class SparseFieldsBenchmark {
+
+    private static final String FIELDS = "id,email";
+
+    private ConfigurableApplicationContext context;
+    private UserRepository repository;
+    private UserMapper mapper;
+    private ObjectMapper objectMapper;
+    private TransactionTemplate readOnly;
+    private Set<UserField> idAndEmail;
+    private SparseQuery<UserField> sparseQuery;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(UserServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.flyway.enabled=false",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.properties.hibernate.globally_quoted_identifiers=true",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.academy.devdojo=info");
+        repository = context.getBean(UserRepository.class);
+        mapper = context.getBean(UserMapper.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        idAndEmail = SparseFields.parse(FIELDS, UserField.class);
+        sparseQuery = new SparseQuery<>("FROM `user` u");
+
+        var users = IntStream.range(0, 1000)
+                .mapToObj(i -> User.builder()
+                        .firstName("First" + i)
+                        .lastName("Last" + i)
+                        .email("user" + i + "@devdojo.academy")
+                        .password("{noop}devdojo")
+                        .roles("USER")
+                        .build())
+                .toList();
+        repository.saveAll(users);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] fullResponse() throws JsonProcessingException {
+        var body = readOnly.execute(status -> mapper.toUserGetResponseListFromSummaries(repository.findAllSummaries()));
+        return objectMapper.writeValueAsBytes(body);
+    }
+
+    @Benchmark
+    public byte[] sparseResponse() throws JsonProcessingException {
+        var body = readOnly.execute(status -> repository.findAllFields(idAndEmail, null));
+        return objectMapper.writeValueAsBytes(body);
+    }
+
+    @Benchmark
+    public SparseQuery.Projection resolveProjection() {
+        return sparseQuery.projection(SparseFields.parse(FIELDS, UserField.class));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SparseFieldsBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,98 @@
+package academy.devdojo.benchmark;
+
+import academy.devdojo.UserServiceApplication;
+import academy.devdojo.domain.Profile;
+import academy.devdojo.domain.User;
+import academy.devdojo.domain.UserProfile;
+import academy.devdojo.mapper.UserProfileMapper;
+import academy.devdojo.repository.ProfileRepository;
+import academy.devdojo.repository.UserProfileRepository;
+import academy.devdojo.repository.UserRepository;
+import academy.devdojo.response.UserProfileGetResponse;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * {@code GET /v1/user-profiles} read path against an in-memory H2 database with 1000 users spread over 10 profiles: the
+ * {@code UserProfile.fullDetails} entity graph mapped to responses (before) and the constructor-expression projection (after),
+ * both in a read-only transaction. {@code AverageTime} gives the latency of one listing.
+ * Run with {@code ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark=UserProfileReadBenchmark}, add {@code -prof gc} to JMH
+ * for the allocation per listing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class UserProfileReadBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private UserProfileRepository repository;
+    private UserProfileMapper mapper;
+    private TransactionTemplate readOnly;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(UserServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.flyway.enabled=false",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.properties.hibernate.globally_quoted_identifiers=true",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.academy.devdojo=info");
+        repository = context.getBean(UserProfileRepository.class);
+        mapper = context.getBean(UserProfileMapper.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+
+        var profiles = context.getBean(ProfileRepository.class).saveAll(IntStream.range(0, 10)
+                .mapToObj(i -> Profile.builder().name("Profile" + i).description("Description" + i).build())
+                .toList());
+        var users = context.getBean(UserRepository.class).saveAll(IntStream.range(0, 1000)
+                .mapToObj(i -> User.builder()
+                        .firstName("First" + i)
+                        .lastName("Last" + i)
+                        .email("user" + i + "@devdojo.academy")
+                        .password("{noop}devdojo")
+                        .roles("USER")
+                        .build())
+                .toList());
+        repository.saveAll(IntStream.range(0, users.size())
+                .mapToObj(i -> UserProfile.builder().user(users.get(i)).profile(profiles.get(i % profiles.size())).build())
+                .toList());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<UserProfileGetResponse> findAllEntityGraph() {
+        return readOnly.execute(status -> mapper.toUserProfileGetResponse(repository.findAll()));
+    }
+
+    @Benchmark
+    public List<UserProfileGetResponse> findAllSummaries() {
+        return readOnly.execute(status -> mapper.toUserProfileGetResponseListFromSummaries(repository.findAllSummaries()));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(UserProfileReadBenchmark.class.getSimpleName()).build()).run();
+    }
+}
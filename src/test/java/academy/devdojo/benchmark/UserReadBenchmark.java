@@ -0,0 +1,90 @@
+package academy.devdojo.benchmark;
+
+import academy.devdojo.UserServiceApplication;
+import academy.devdojo.domain.User;
+import academy.devdojo.mapper.UserMapper;
+import academy.devdojo.repository.UserRepository;
+import academy.devdojo.response.UserGetResponse;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * {@code GET /v1/users} read path against an in-memory H2 database with 1000 users: managed entities mapped to responses
+ * (before) and record projections read in a read-only transaction (after).
+ * Run with {@code ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark=UserReadBenchmark}, add {@code -prof gc} to JMH
+ * for the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class UserReadBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private UserRepository repository;
+    private UserMapper mapper;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(UserServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.flyway.enabled=false",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.academy.devdojo=info");
+        repository = context.getBean(UserRepository.class);
+        mapper = context.getBean(UserMapper.class);
+        var transactionManager = context.getBean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        var users = IntStream.range(0, 1000)
+                .mapToObj(i -> User.builder()
+                        .firstName("First" + i)
+                        .lastName("Last" + i)
+                        .email("user" + i + "@devdojo.academy")
+                        .password("{noop}devdojo")
+                        .roles("USER")
+                        .build())
+                .toList();
+        repository.saveAll(users);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<UserGetResponse> findAllEntities() {
+        return readWrite.execute(status -> mapper.toUserGetResponseList(repository.findAll()));
+    }
+
+    @Benchmark
+    public List<UserGetResponse> findAllSummaries() {
+        return readOnly.execute(status -> mapper.toUserGetResponseListFromSummaries(repository.findAllSummaries()));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(UserReadBenchmark.class.getSimpleName()).build()).run();
+    }
+}
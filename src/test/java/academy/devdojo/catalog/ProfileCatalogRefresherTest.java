@@ -0,0 +1,40 @@
+package academy.devdojo.catalog;
+
+import academy.devdojo.config.ProfileCatalogProperties;
+import org.junit.jupiter.api.*;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.time.Duration;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ProfileCatalogRefresherTest {
+    private ProfileCatalog catalog;
+    private ProfileCatalogRefresher refresher;
+
+    @BeforeEach
+    void init() {
+        catalog = Mockito.mock(ProfileCatalog.class);
+        refresher = new ProfileCatalogRefresher(catalog, new ProfileCatalogProperties(true, Duration.ofMillis(10)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        refresher.shutdown();
+    }
+
+    @Test
+    @DisplayName("start keeps refreshing after a refresh fails with an exception that is not a DataAccessException")
+    @Order(1)
+    void start_KeepsRefreshing_WhenRefreshThrows() {
+        BDDMockito.willThrow(new CannotCreateTransactionException("Could not open JDBC Connection"))
+                .willThrow(new IllegalStateException("Unexpected"))
+                .willDoNothing()
+                .given(catalog).refresh();
+
+        refresher.start();
+
+        BDDMockito.then(catalog).should(Mockito.timeout(5000).atLeast(3)).refresh();
+    }
+}
@@ -0,0 +1,82 @@
+package academy.devdojo.catalog;
+
+import academy.devdojo.domain.Profile;
+import academy.devdojo.domain.VersionFingerprint;
+import academy.devdojo.repository.ProfileRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ProfileCatalogTest {
+    private ProfileRepository repository;
+    private ProfileCatalog catalog;
+
+    @BeforeEach
+    void init() {
+        repository = Mockito.mock(ProfileRepository.class);
+        BDDMockito.when(repository.findAll(ArgumentMatchers.any(Sort.class))).thenReturn(List.of(profile(1L), profile(2L), profile(5L)));
+        catalog = new ProfileCatalog(repository);
+    }
+
+    @Test
+    @DisplayName("refresh keeps the snapshot when the table fingerprint still matches it")
+    @Order(1)
+    void refresh_KeepsSnapshot_WhenFingerprintMatches() {
+        Assertions.assertThat(catalog.fingerprint()).isEqualTo(new VersionFingerprint(3L, 8L, 3L));
+        BDDMockito.when(repository.fingerprint()).thenReturn(new VersionFingerprint(3L, 8L, 3L));
+
+        catalog.refresh();
+
+        BDDMockito.then(repository).should(Mockito.times(1)).findAll(ArgumentMatchers.any(Sort.class));
+    }
+
+    @Test
+    @DisplayName("refresh reloads the snapshot when another instance changed the table")
+    @Order(1)
+    void refresh_ReloadsSnapshot_WhenFingerprintChanged() {
+        catalog.findAll();
+        BDDMockito.when(repository.fingerprint()).thenReturn(new VersionFingerprint(4L, 15L, 4L));
+        BDDMockito.when(repository.findAll(ArgumentMatchers.any(Sort.class)))
+                .thenReturn(List.of(profile(1L), profile(2L), profile(5L), profile(7L)));
+
+        catalog.refresh();
+
+        Assertions.assertThat(catalog.findAll()).extracting(Profile::getId).containsExactly(1L, 2L, 5L, 7L);
+    }
+
+    @Test
+    @DisplayName("putAfterCommit inserts a saved profile in id order without reading the table again")
+    @Order(2)
+    void putAfterCommit_InsertsProfileInIdOrder_WhenNoTransactionIsActive() {
+        var before = catalog.findAll();
+
+        catalog.putAfterCommit(profile(3L));
+
+        Assertions.assertThat(catalog.findAll()).extracting(Profile::getId).containsExactly(1L, 2L, 3L, 5L);
+        Assertions.assertThat(before).extracting(Profile::getId).containsExactly(1L, 2L, 5L);
+        Assertions.assertThat(catalog.findById(3L)).isPresent();
+        BDDMockito.then(repository).should(Mockito.times(1)).findAll(ArgumentMatchers.any(Sort.class));
+    }
+
+    @Test
+    @DisplayName("scroll returns the profiles after the given id and signals the next window")
+    @Order(3)
+    void scroll_ReturnsProfilesAfterId_WhenAfterIdIsGiven() {
+        var window = catalog.scroll(1L, 1);
+
+        Assertions.assertThat(window.getContent()).extracting(Profile::getId).containsExactly(2L);
+        Assertions.assertThat(window.hasNext()).isTrue();
+        Assertions.assertThat(catalog.scroll(2L, 5).getContent()).extracting(Profile::getId).containsExactly(5L);
+        Assertions.assertThat(catalog.scroll(5L, 5).getContent()).isEmpty();
+    }
+
+    private static Profile profile(Long id) {
+        return Profile.builder().id(id).name("Profile " + id).description("Description " + id).version(1L).build();
+    }
+}
@@ -9,8 +9,8 @@ import java.util.List;
 @Component
 public class ProfileUtils {
     public List<Profile> newProfileList() {
-        var admin = Profile.builder().id(1L).name("Administrator").description("Admins everything").build();
-        var manager = Profile.builder().id(2L).name("Manager").description("Manages users").build();
+        var admin = Profile.builder().id(1L).name("Administrator").description("Admins everything").version(0L).build();
+        var manager = Profile.builder().id(2L).name("Manager").description("Manages users").version(0L).build();
 
         return new ArrayList<>(List.of(admin, manager));
 
@@ -27,6 +27,7 @@ public class ProfileUtils {
                 .id(99L)
                 .name("Regular User")
                 .description("Regular user with regular permissions")
+                .version(0L)
                 .build();
     }
 
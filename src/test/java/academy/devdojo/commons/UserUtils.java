@@ -1,6 +1,7 @@
 package academy.devdojo.commons;
 
 import academy.devdojo.domain.User;
+import academy.devdojo.domain.UserSummary;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
@@ -16,6 +17,7 @@ public class UserUtils {
                 .email("fulano@email.com")
                 .roles("USER")
                 .password("{bcrypt}$2a$10$i3XHDbx392pMTnB0KPe6E.eQ9iChjt2haKEw2kQ5F1Alyc2xSb/FK")
+                .version(0L)
                 .build();
         var user2 = User.builder()
                 .id(2L)
@@ -24,6 +26,7 @@ public class UserUtils {
                 .email("ciclano@email.com")
                 .roles("USER")
                 .password("{bcrypt}$2a$10$i3XHDbx392pMTnB0KPe6E.eQ9iChjt2haKEw2kQ5F1Alyc2xSb/FK")
+                .version(0L)
                 .build();
         var user3 = User.builder()
                 .id(3L)
@@ -32,6 +35,7 @@ public class UserUtils {
                 .email("beltrano@email.com")
                 .roles("USER")
                 .password("{bcrypt}$2a$10$i3XHDbx392pMTnB0KPe6E.eQ9iChjt2haKEw2kQ5F1Alyc2xSb/FK")
+                .version(0L)
                 .build();
 
         return new ArrayList<>(List.of(user1, user2, user3));
@@ -56,7 +60,16 @@ public class UserUtils {
                 .email("leo@email.com")
                 .roles("USER")
                 .password("{bcrypt}$2a$10$i3XHDbx392pMTnB0KPe6E.eQ9iChjt2haKEw2kQ5F1Alyc2xSb/FK")
+                .version(0L)
                 .build();
     }
 
+    public List<UserSummary> newUserSummaryList() {
+        return newUserList().stream().map(this::toSummary).toList();
+    }
+
+    public UserSummary toSummary(User user) {
+        return new UserSummary(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail(), user.getVersion());
+    }
+
 }
@@ -4,7 +4,7 @@ import org.springframework.context.annotation.Import;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 
-@Import(TestcontainersConfiguration.class)
+@Import({TestcontainersConfiguration.class, UserChangeFeedConfig.class})
 @ActiveProfiles("itest")
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
 public class IntegrationTestConfig {
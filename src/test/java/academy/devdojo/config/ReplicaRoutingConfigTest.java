@@ -0,0 +1,76 @@
+package academy.devdojo.config;
+
+import academy.devdojo.datasource.ReplicaSet;
+import com.zaxxer.hikari.HikariDataSource;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ReplicaRoutingConfigTest {
+    private static final String PRIMARY_URL = "jdbc:h2:mem:primary";
+    private static final String REPLICA_URL = "jdbc:h2:mem:replica";
+
+    private ReplicaSet replicaSet;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void init() {
+        var dataSourceProperties = new DataSourceProperties();
+        dataSourceProperties.setUrl(PRIMARY_URL);
+        dataSourceProperties.setUsername("root");
+        dataSourceProperties.setPassword("secret");
+        ObjectProvider<JdbcConnectionDetails> connectionDetails = Mockito.mock(ObjectProvider.class);
+        var properties = new ReplicaRoutingProperties(true, List.of(new ReplicaRoutingProperties.Replica("replica-1", REPLICA_URL, null, null)),
+                Duration.ofSeconds(2), Duration.ofSeconds(5), Duration.ofSeconds(10));
+        var environment = new MockEnvironment()
+                .withProperty("spring.datasource.hikari.maximum-pool-size", "7")
+                .withProperty("spring.datasource.hikari.connection-timeout", "1500")
+                .withProperty("spring.datasource.hikari.leak-detection-threshold", "4000")
+                .withProperty("spring.datasource.hikari.pool-name", "shared");
+
+        replicaSet = new ReplicaRoutingConfig().replicaSet(dataSourceProperties, connectionDetails, properties, environment);
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        replicaSet.close();
+    }
+
+    @Test
+    @DisplayName("replicaSet applies the shared spring.datasource.hikari settings to the primary and every replica pool")
+    @Order(1)
+    void replicaSet_AppliesSharedHikariSettings_ToEveryPool() {
+        var primary = (HikariDataSource) replicaSet.getPrimary();
+        var replica = (HikariDataSource) replicaSet.getReplicas().get("replica-1");
+
+        for (var pool : List.of(primary, replica)) {
+            Assertions.assertThat(pool.getMaximumPoolSize()).isEqualTo(7);
+            Assertions.assertThat(pool.getConnectionTimeout()).isEqualTo(1500);
+            Assertions.assertThat(pool.getLeakDetectionThreshold()).isEqualTo(4000);
+        }
+    }
+
+    @Test
+    @DisplayName("replicaSet keeps each pool's own name, url and credentials over the shared settings")
+    @Order(2)
+    void replicaSet_KeepsPoolIdentity_WhenSharedSettingsAreBound() {
+        var primary = (HikariDataSource) replicaSet.getPrimary();
+        var replica = (HikariDataSource) replicaSet.getReplicas().get("replica-1");
+
+        Assertions.assertThat(primary.getPoolName()).isEqualTo("hikari-primary");
+        Assertions.assertThat(primary.getJdbcUrl()).isEqualTo(PRIMARY_URL);
+        Assertions.assertThat(replica.getPoolName()).isEqualTo("hikari-replica-1");
+        Assertions.assertThat(replica.getJdbcUrl()).isEqualTo(REPLICA_URL);
+        Assertions.assertThat(replica.getUsername()).isEqualTo("root");
+        Assertions.assertThat(replica.getPassword()).isEqualTo("secret");
+    }
+}
@@ -1,5 +1,6 @@
 package academy.devdojo.controller;
 
+import academy.devdojo.catalog.ProfileCatalog;
 import academy.devdojo.commons.FileUtils;
 import academy.devdojo.commons.ProfileUtils;
 import academy.devdojo.config.IntegrationTestConfig;
@@ -45,6 +46,15 @@ public class ProfileControllerIT extends IntegrationTestConfig {
     @Autowired
     private FileUtils fileUtils;
 
+    @Autowired
+    private ProfileCatalog catalog;
+
+    // The scripts write the table directly, behind the catalog
+    @BeforeEach
+    void reloadCatalog() {
+        catalog.reload();
+    }
+
     @Test
     @DisplayName("GET v1/profiles returns a list with all profiles")
     @Order(1)
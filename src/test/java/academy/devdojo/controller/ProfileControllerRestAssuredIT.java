@@ -1,5 +1,6 @@
 package academy.devdojo.controller;
 
+import academy.devdojo.catalog.ProfileCatalog;
 import academy.devdojo.commons.FileUtils;
 import academy.devdojo.commons.ProfileUtils;
 import academy.devdojo.config.IntegrationTestConfig;
@@ -44,10 +45,14 @@ public class ProfileControllerRestAssuredIT extends IntegrationTestConfig {
     @Autowired
     @Qualifier(value = "requestSpecificationRegularUser")
     private RequestSpecification requestSpecificationRegularUser;
+    @Autowired
+    private ProfileCatalog catalog;
 
     @BeforeEach
     void setUrl() {
         RestAssured.requestSpecification = requestSpecificationRegularUser;
+        // The scripts write the table directly, behind the catalog
+        catalog.reload();
     }
 
     @Test
@@ -1,9 +1,11 @@
 package academy.devdojo.controller;
 
+import academy.devdojo.catalog.ProfileCatalog;
 import academy.devdojo.commons.FileUtils;
 import academy.devdojo.commons.ProfileUtils;
 import academy.devdojo.config.BrasilApiConfigurationProperties;
 import academy.devdojo.domain.Profile;
+import academy.devdojo.repository.OutboxEventRepository;
 import academy.devdojo.repository.ProfileRepository;
 import academy.devdojo.repository.UserProfileRepository;
 import academy.devdojo.repository.UserRepository;
@@ -18,6 +20,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
@@ -53,10 +57,17 @@ class ProfileControllerTest {
     @MockitoBean
 
     private UserProfileRepository userProfileRepository;
+    @MockitoBean
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ProfileCatalog catalog;
 
     @BeforeEach
     void init() {
         profilesList = profileUtils.newProfileList();
+        BDDMockito.when(repository.findAll(ArgumentMatchers.any(Sort.class))).thenReturn(profilesList);
+        catalog.reload();
     }
 
     @Test
@@ -64,7 +75,6 @@ class ProfileControllerTest {
     @Order(1)
     void findAll_ReturnsAllProfiles_WhenArgumentIsNull() throws Exception {
         var response = fileUtils.readResourceFile("profile/get-profiles-200.json");
-        BDDMockito.when(repository.findAll()).thenReturn(profilesList);
         mockMvc.perform(MockMvcRequestBuilders.get(URL))
                 .andDo(MockMvcResultHandlers.print())
                 .andExpect(MockMvcResultMatchers.status().isOk())
@@ -94,6 +104,8 @@ class ProfileControllerTest {
     @Order(2)
     void findAll_ReturnsEmptyList_WhenNothingIsNotFound() throws Exception {
         var response = fileUtils.readResourceFile("profile/get-profiles-empty-list-200.json");
+        BDDMockito.when(repository.findAll(ArgumentMatchers.any(Sort.class))).thenReturn(List.of());
+        catalog.reload();
 
         mockMvc.perform(MockMvcRequestBuilders.get(URL))
                 .andDo(MockMvcResultHandlers.print())
@@ -123,6 +135,31 @@ class ProfileControllerTest {
                 .andExpect(MockMvcResultMatchers.content().json(response));
     }
 
+    @Test
+    @DisplayName("POST v1/profiles replays the stored response when the Idempotency-Key is sent again")
+    @Order(3)
+    void save_ReplaysStoredResponse_WhenIdempotencyKeyIsRepeated() throws Exception {
+        var request = fileUtils.readResourceFile("profile/post-request-profile-200.json");
+        var response = fileUtils.readResourceFile("profile/post-response-profile-201.json");
+        BDDMockito.when(repository.save(ArgumentMatchers.any())).thenReturn(profileUtils.newProfileSaved());
+
+        mockMvc.perform(MockMvcRequestBuilders.post(URL)
+                        .header("Idempotency-Key", "create-regular-user-profile")
+                        .content(request)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isCreated());
+        mockMvc.perform(MockMvcRequestBuilders.post(URL)
+                        .header("Idempotency-Key", "create-regular-user-profile")
+                        .content(request)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.header().string("Idempotent-Replayed", "true"))
+                .andExpect(MockMvcResultMatchers.content().json(response));
+
+        BDDMockito.verify(repository, BDDMockito.times(1)).save(ArgumentMatchers.any());
+    }
+
 
     @ParameterizedTest
     @MethodSource("postProfileBadRequestSource")
@@ -149,6 +186,70 @@ class ProfileControllerTest {
     }
 
 
+
+    @Test
+    @DisplayName("GET v1/profiles returns a collection ETag and not modified when If-None-Match matches it")
+    @Order(5)
+    void findAll_ReturnsNotModified_WhenEtagMatchesFingerprint() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(URL))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"2-3-0\""));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(URL).header(HttpHeaders.IF_NONE_MATCH, "\"2-3-0\""))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("GET v1/profiles, its pages and single profiles are served from the catalog without database access")
+    @Order(6)
+    void findAll_ServesProfilesFromCatalog_WhenCatalogIsLoaded() throws Exception {
+        BDDMockito.clearInvocations(repository);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(URL))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.get(URL + "/paginated").param("sort", "name,desc"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].name").value("Manager"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.totalElements").value(2));
+        mockMvc.perform(MockMvcRequestBuilders.get(URL + "/{id}", 1L))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.name").value("Administrator"));
+
+        BDDMockito.verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("GET v1/profiles/99 returns not found when the profile is not in the catalog")
+    @Order(6)
+    void findById_ReturnsNotFound_WhenProfileIsNotInCatalog() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(URL + "/{id}", 99L))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("POST v1/profiles makes the saved profile readable from the catalog without reloading it")
+    @Order(6)
+    void save_AddsProfileToCatalog_WhenSuccessfull() throws Exception {
+        var request = fileUtils.readResourceFile("profile/post-request-profile-200.json");
+        BDDMockito.when(repository.save(ArgumentMatchers.any())).thenReturn(profileUtils.newProfileSaved());
+        BDDMockito.clearInvocations(repository);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(URL)
+                        .content(request)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isCreated());
+
+        mockMvc.perform(MockMvcRequestBuilders.get(URL + "/{id}", 99L))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.name").value("Regular User"));
+        BDDMockito.verify(repository, BDDMockito.never()).findAll(ArgumentMatchers.any(Sort.class));
+    }
+
     private static Stream<Arguments> postProfileBadRequestSource() {
 
 
@@ -4,10 +4,30 @@ import academy.devdojo.commons.FileUtils;
 import academy.devdojo.commons.UserUtils;
 import academy.devdojo.config.BrasilApiConfigurationProperties;
 import academy.devdojo.domain.User;
+import academy.devdojo.domain.UserChange;
+import academy.devdojo.domain.UserChangeType;
+import academy.devdojo.domain.UserColumn;
+import academy.devdojo.domain.VersionFingerprint;
+import academy.devdojo.domain.UserSummary;
+import academy.devdojo.etag.UserVersionCache;
+import academy.devdojo.fields.UserField;
+import academy.devdojo.outbox.OutboxAggregateType;
+import academy.devdojo.outbox.OutboxEventType;
+import academy.devdojo.outbox.OutboxMessage;
+import academy.devdojo.outbox.OutboxRecorded;
+import academy.devdojo.pagination.PageSizes;
+import academy.devdojo.pagination.ScrollCursor;
+import academy.devdojo.pagination.UserSearchField;
+import academy.devdojo.pagination.UserScrollSort;
+import academy.devdojo.repository.OutboxEventRepository;
+import academy.devdojo.repository.ProfileRepository;
 import academy.devdojo.repository.UserProfileRepository;
 import academy.devdojo.repository.UserRepository;
 import academy.devdojo.service.ProfileService;
+import academy.devdojo.sse.UserEventBroadcaster;
+import com.jayway.jsonpath.JsonPath;
 import org.assertj.core.api.Assertions;
+import org.hamcrest.Matchers;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
@@ -18,20 +38,37 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 @WebMvcTest(controllers = UserController.class)
@@ -42,12 +79,14 @@ import java.util.stream.Stream;
 class UserControllerTest {
 
     private static final String URL = "/v1/users";
+    private static final String DUPLICATE_EMAIL = "Duplicate entry 'leo@email.com' for key 'user.UKob8kqyqqgmefl0aco34akdtpe'";
     @Autowired
     private MockMvc mockMvc;
 
     @MockitoBean
     private UserRepository repository;
     private List<User> usersList;
+    private List<UserSummary> summariesList;
     @Autowired
     private FileUtils fileUtils;
     @Autowired
@@ -56,12 +95,22 @@ class UserControllerTest {
 
     private ProfileService profileService;
     @MockitoBean
+    private ProfileRepository profileRepository;
+    @MockitoBean
 
     private UserProfileRepository userProfileRepository;
+    @MockitoBean
+    private OutboxEventRepository outboxEventRepository;
+    @Autowired
+    private UserEventBroadcaster eventBroadcaster;
+    @Autowired
+    private UserVersionCache versionCache;
 
     @BeforeEach
     void init() {
         usersList = userUtils.newUserList();
+        summariesList = userUtils.newUserSummaryList();
+        BDDMockito.when(repository.fingerprint()).thenReturn(new VersionFingerprint((long) usersList.size(), 0L, 0L));
     }
 
     @Test
@@ -70,7 +119,7 @@ class UserControllerTest {
     @WithMockUser(authorities = "ADMIN")
     void findAll_ReturnsAllUsers_WhenArgumentIsNull() throws Exception {
         var response = fileUtils.readResourceFile("user/get-user-null-first-name-200.json");
-        BDDMockito.when(repository.findAll()).thenReturn(usersList);
+        BDDMockito.when(repository.findAllSummaries()).thenReturn(summariesList);
         mockMvc.perform(MockMvcRequestBuilders.get(URL))
                 .andDo(MockMvcResultHandlers.print())
                 .andExpect(MockMvcResultMatchers.status().isOk())
@@ -84,9 +133,9 @@ class UserControllerTest {
         var response = fileUtils.readResourceFile("user/get-user-paginated-200.json");
 
         var pageRequest = PageRequest.of(0, usersList.size());
-        var pageUser = new PageImpl<>(usersList, pageRequest, 1);
+        var pageUser = new PageImpl<>(summariesList, pageRequest, 1);
 
-        BDDMockito.when(repository.findAll(BDDMockito.any(Pageable.class))).thenReturn(pageUser);
+        BDDMockito.when(repository.findSummariesBy(BDDMockito.any(Pageable.class))).thenReturn(pageUser);
 
         mockMvc.perform(MockMvcRequestBuilders.get(URL + "/paginated"))
                 .andDo(MockMvcResultHandlers.print())
@@ -102,9 +151,9 @@ class UserControllerTest {
     void findAll_ReturnsFoundUser_WhenFirstNameIsFound() throws Exception {
         var response = fileUtils.readResourceFile("user/get-user-fulano-first-name-200.json");
         var firstName = "Fulano";
-        var fulano = usersList.stream().filter(user -> user.getFirstName().equals(firstName)).findFirst().orElse(null);
+        var fulano = summariesList.stream().filter(user -> user.firstName().equals(firstName)).findFirst().orElse(null);
 
-        BDDMockito.when(repository.findByFirstNameIgnoreCase(firstName)).thenReturn(Collections.singletonList(fulano));
+        BDDMockito.when(repository.findSummariesByFirstName(firstName)).thenReturn(Collections.singletonList(fulano));
 
         mockMvc.perform(MockMvcRequestBuilders.get(URL).param("firstName", firstName))
                 .andDo(MockMvcResultHandlers.print())
@@ -133,8 +182,8 @@ class UserControllerTest {
         var response = fileUtils.readResourceFile("user/get-user-by-id-200.json");
         var id = 1L;
 
-        var foundUser = usersList.stream().filter(user -> user.getId().equals(id)).findFirst();
-        BDDMockito.when(repository.findById(id)).thenReturn(foundUser);
+        var foundUser = summariesList.stream().filter(user -> user.id().equals(id)).findFirst();
+        BDDMockito.when(repository.findSummaryById(id)).thenReturn(foundUser);
 
         mockMvc.perform(MockMvcRequestBuilders.get(URL + "/{id}", id))
                 .andDo(MockMvcResultHandlers.print())
@@ -181,9 +230,9 @@ class UserControllerTest {
     void update_UpdatesUser_WhenSuccessfull() throws Exception {
         var request = fileUtils.readResourceFile("user/put-request-user-200.json");
         var id = 1L;
-        var foundUser = usersList.stream().filter(user -> user.getId().equals(id)).findFirst();
 
-        BDDMockito.when(repository.findById(id)).thenReturn(foundUser);
+        BDDMockito.when(repository.updateById(ArgumentMatchers.eq(id), ArgumentMatchers.any(), ArgumentMatchers.any(),
+                ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn(1);
 
         mockMvc.perform(MockMvcRequestBuilders
                         .put(URL)
@@ -217,8 +266,7 @@ class UserControllerTest {
     @WithMockUser(authorities = "ADMIN")
     void delete_RemoveUser_WhenSuccesfull() throws Exception {
         var id = usersList.getFirst().getId();
-        var foundUser = usersList.stream().filter(user -> user.getId().equals(id)).findFirst();
-        BDDMockito.when(repository.findById(id)).thenReturn(foundUser);
+        BDDMockito.when(repository.deleteUserById(id)).thenReturn(1);
 
 
         mockMvc.perform(MockMvcRequestBuilders
@@ -293,6 +341,836 @@ class UserControllerTest {
     }
 
 
+    @Test
+    @DisplayName("GET v1/users/scroll returns the first window and a cursor for the next one")
+    @Order(13)
+    void findAllScrolled_ReturnsWindowAndNextCursor_WhenThereAreMoreUsers() throws Exception {
+        BDDMockito.when(repository.findSummariesAfterId(0L, Limit.of(3))).thenReturn(summariesList);
+
+        var mvcResult = mockMvc.perform(MockMvcRequestBuilders.get(URL + "/scroll").param("size", "2"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content.length()").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.hasNext").value(true))
+                .andReturn();
+
+        var nextCursor = JsonPath.<String>read(mvcResult.getResponse().getContentAsString(), "$.nextCursor");
+        Assertions.assertThat(ScrollCursor.decode(nextCursor)).isEqualTo(new ScrollCursor("id", Map.of("id", summariesList.get(1).id())));
+    }
+
+    @Test
+    @DisplayName("GET v1/users/scroll returns bad request when cursor is invalid")
+    @Order(14)
+    void findAllScrolled_ReturnsBadRequest_WhenCursorIsInvalid() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(URL + "/scroll").param("cursor", "not-a-cursor"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        BDDMockito.verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("GET v1/users/slice returns a slice of users without total count")
+    @Order(15)
+    void findAllSliced_ReturnsSliceOfUsers_WhenSuccessfull() throws Exception {
+        var pageRequest = PageRequest.of(0, 20);
+        BDDMockito.when(repository.findSummarySliceBy(BDDMockito.any(Pageable.class))).thenReturn(new SliceImpl<>(summariesList, pageRequest, false));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(URL + "/slice"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content.length()").value(3))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.hasNext").value(false))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.totalElements").doesNotExist());
+    }
+
+
+    @Test
+    @DisplayName("GET v1/users/export streams all users as NDJSON")
+    @Order(16)
+    @WithMockUser(authorities = "ADMIN")
+    void export_StreamsUsersAsNdjson_WhenAcceptIsNotJson() throws Exception {
+        BDDMockito.when(repository.streamAllSummaries()).thenReturn(summaries());
+
+        var mvcResult = mockMvc.perform(MockMvcRequestBuilders.get(URL + "/export"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        var content = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        Assertions.assertThat(content.lines()).hasSize(3).allMatch(line -> line.startsWith("{") && line.endsWith("}"));
+        Assertions.assertThat(JsonPath.<String>read(content.lines().findFirst().orElseThrow(), "$.email")).isEqualTo("fulano@email.com");
+        Assertions.assertThat(content).doesNotContain("password");
+    }
+
+    @Test
+    @DisplayName("GET v1/users/export streams all users as a JSON array when application/json is accepted")
+    @Order(17)
+    @WithMockUser(authorities = "ADMIN")
+    void export_StreamsUsersAsJsonArray_WhenAcceptIsJson() throws Exception {
+        var response = fileUtils.readResourceFile("user/get-user-null-first-name-200.json");
+        BDDMockito.when(repository.streamAllSummaries()).thenReturn(summaries());
+
+        var mvcResult = mockMvc.perform(MockMvcRequestBuilders.get(URL + "/export").accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.content().json(response));
+    }
+
+    @Test
+    @DisplayName("GET v1/users/export returns forbidden when user is not admin")
+    @Order(18)
+    void export_ReturnsForbidden_WhenUserIsNotAdmin() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(URL + "/export"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isForbidden());
+
+        BDDMockito.verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("GET v1/users/search returns users matching the prefix and a cursor for the next page")
+    @Order(19)
+    @WithMockUser(authorities = "ADMIN")
+    void search_ReturnsMatchingUsersAndNextCursor_WhenThereAreMoreMatches() throws Exception {
+        BDDMockito.when(repository.searchByPrefix(UserSearchField.FIRST_NAME, "fu", "", 0L, 2)).thenReturn(summariesList.subList(0, 2));
+
+        var mvcResult = mockMvc.perform(MockMvcRequestBuilders.get(URL + "/search").param("prefix", "Fu").param("size", "1"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].email").value("fulano@email.com"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.hasNext").value(true))
+                .andReturn();
+
+        var nextCursor = JsonPath.<String>read(mvcResult.getResponse().getContentAsString(), "$.nextCursor");
+        Assertions.assertThat(ScrollCursor.decode(nextCursor)).isEqualTo(new ScrollCursor("firstName", Map.of("firstName", "fulano", "id", 1L)));
+    }
+
+    @Test
+    @DisplayName("GET v1/users/search returns bad request when field is not searchable")
+    @Order(20)
+    @WithMockUser(authorities = "ADMIN")
+    void search_ReturnsBadRequest_WhenFieldIsNotSearchable() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(URL + "/search").param("prefix", "x").param("field", "password"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        BDDMockito.verifyNoInteractions(repository);
+    }
+
+
+    @Test
+    @DisplayName("GET v1/users/1 returns the user with a strong ETag built from id and version")
+    @Order(21)
+    void findById_ReturnsUserWithEtag_WhenUserIsFound() throws Exception {
+        var user = userUtils.toSummary(usersList.getFirst().withVersion(3L));
+        BDDMockito.when(repository.findSummaryById(user.id())).thenReturn(Optional.of(user));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(URL + "/{id}", user.id()))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1-3\""));
+    }
+
+    @Test
+    @DisplayName("GET v1/users/1 returns not modified without querying when If-None-Match matches the cached version")
+    @Order(22)
+    void findById_ReturnsNotModifiedWithoutQuery_WhenEtagMatchesCachedVersion() throws Exception {
+        var user = userUtils.toSummary(usersList.getFirst().withVersion(4L));
+        BDDMockito.when(repository.findSummaryById(user.id())).thenReturn(Optional.of(user));
+        mockMvc.perform(MockMvcRequestBuilders.get(URL + "/{id}", user.id()))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        BDDMockito.clearInvocations(repository);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(URL + "/{id}", user.id()).header(HttpHeaders.IF_NONE_MATCH, "\"1-4\""))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1-4\""))
+                .andExpect(MockMvcResultMatchers.content().string(""));
+
+        BDDMockito.verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("GET v1/users returns not modified without loading users when If-None-Match matches the collection ETag")
+    @Order(23)
+    @WithMockUser(authorities = "ADMIN")
+    void findAll_ReturnsNotModified_WhenEtagMatchesFingerprint() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(URL).header(HttpHeaders.IF_NONE_MATCH, "\"3-0-0\""))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isNotModified());
+
+        BDDMockito.verify(repository, BDDMockito.never()).findAllSummaries();
+    }
+
+    @Test
+    @DisplayName("GET v1/users?ids returns the users found and the missing ids with one query")
+    @Order(24)
+    void findAllByIds_ReturnsUsersAndMissingIds_WhenIdsAreGiven() throws Exception {
+        BDDMockito.when(repository.findSummariesByIdIn(List.of(1L, 2L, 42L))).thenReturn(summariesList.subList(0, 2));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(URL).param("ids", "1,2,42"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.users[*].id").value(Matchers.contains(1, 2)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.missingIds").value(Matchers.contains(42)));
+
+        BDDMockito.verify(repository).findSummariesByIdIn(BDDMockito.any());
+        BDDMockito.verify(repository, BDDMockito.never()).findAllSummaries();
+    }
+
+    @Test
+    @DisplayName("GET v1/users?ids returns bad request when more ids than a page are sent")
+    @Order(25)
+    void findAllByIds_ReturnsBadRequest_WhenTooManyIdsAreGiven() throws Exception {
+        var ids = IntStream.rangeClosed(1, PageSizes.MAXIMUM + 1).mapToObj(String::valueOf).collect(Collectors.joining(","));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(URL).param("ids", ids))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        BDDMockito.verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("POST v1/users/lookup returns the users found and the missing ids")
+    @Order(26)
+    void lookup_ReturnsUsersAndMissingIds_WhenIdsAreGiven() throws Exception {
+        BDDMockito.when(repository.findSummariesByIdIn(List.of(3L, 42L))).thenReturn(List.of(summariesList.get(2)));
+
+        mockMvc.perform(MockMvcRequestBuilders.post(URL + "/lookup")
+                        .content("{\"ids\":[3,42,3]}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.users[*].id").value(Matchers.contains(3)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.missingIds").value(Matchers.contains(42)));
+    }
+
+    @Test
+    @DisplayName("POST v1/users/lookup returns bad request when ids are empty")
+    @Order(27)
+    void lookup_ReturnsBadRequest_WhenIdsAreEmpty() throws Exception {
+        var mvcResult = mockMvc.perform(MockMvcRequestBuilders.post(URL + "/lookup")
+                        .content("{\"ids\":[]}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andReturn();
+
+        Assertions.assertThat(mvcResult.getResolvedException()).isNotNull();
+        Assertions.assertThat(mvcResult.getResolvedException().getMessage()).contains("The field 'ids' is required");
+        BDDMockito.verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("GET v1/users?fields returns only the requested fields of every user")
+    @Order(28)
+    @WithMockUser(authorities = "ADMIN")
+    void findAllFields_ReturnsOnlyRequestedFields_WhenFieldsAreGiven() throws Exception {
+        var rows = summariesList.stream().<Map<String, Object>>map(user -> Map.of("id", user.id(), "email", user.email())).toList();
+        BDDMockito.when(repository.findAllFields(EnumSet.of(UserField.ID, UserField.EMAIL), null)).thenReturn(rows);
+
+        mockMvc.perform(MockMvcRequestBuilders.get(URL).param("fields", "id,email"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(summariesList.size()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].email").value("fulano@email.com"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].firstName").doesNotExist());
+
+        BDDMockito.verify(repository, BDDMockito.never()).findAllSummaries();
+    }
+
+    @Test
+    @DisplayName("GET v1/users/1?fields returns only the requested fields of the user")
+    @Order(29)
+    void findFieldsById_ReturnsOnlyRequestedFields_WhenFieldsAreGiven() throws Exception {
+        BDDMockito.when(repository.findFieldsById(EnumSet.of(UserField.FIRST_NAME), 1L)).thenReturn(Optional.of(Map.of("firstName", "Fulano")));
+
+        mockMvc.perform(MockMvcRequestBuilders.get(URL + "/{id}", 1L).param("fields", "firstName"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().json("{\"firstName\":\"Fulano\"}", true));
+    }
+
+    @Test
+    @DisplayName("GET v1/users/99?fields returns not found when user is not found")
+    @Order(30)
+    void findFieldsById_ReturnsNotFound_WhenUserIsNotFound() throws Exception {
+        BDDMockito.when(repository.findFieldsById(EnumSet.of(UserField.ID), 99L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(MockMvcRequestBuilders.get(URL + "/{id}", 99L).param("fields", "id"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("GET v1/users?fields returns bad request when a field is unknown")
+    @Order(31)
+    @WithMockUser(authorities = "ADMIN")
+    void findAllFields_ReturnsBadRequest_WhenFieldIsUnknown() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(URL).param("fields", "id,password"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        BDDMockito.verifyNoInteractions(repository);
+    }
+
+
+    @Test
+    @DisplayName("POST v1/users/import inserts the valid rows in one batch and reports every failed row with its line")
+    @Order(32)
+    @WithMockUser(authorities = "ADMIN")
+    void importUsers_ReportsFailedRows_WhenSomeRowsAreInvalid() throws Exception {
+        var body = fileUtils.readResourceFile("user/post-request-user-import.ndjson");
+        BDDMockito.when(repository.findEmailsByEmailIn(ArgumentMatchers.anyCollection())).thenReturn(List.of("leo@devdojo.com"));
+        var nextId = new AtomicLong(100);
+        BDDMockito.when(repository.insertAll(ArgumentMatchers.anyList())).thenAnswer(invocation -> {
+            var users = invocation.<List<User>>getArgument(0);
+            users.forEach(user -> user.setId(nextId.incrementAndGet()));
+            return users.size();
+        });
+
+        mockMvc.perform(MockMvcRequestBuilders.post(URL + "/import")
+                        .content(body)
+                        .contentType(MediaType.APPLICATION_NDJSON))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.imported").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.failed").value(4))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.errors[*].line").value(Matchers.contains(2, 3, 4, 6)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.errors[0].message").value("Email is not valid"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.errors[2].message").value("E-mail FULANO@devdojo.com is already on line 1"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.errors[3].message").value("E-mail leo@devdojo.com already exists"));
+
+        BDDMockito.verify(repository).insertAll(ArgumentMatchers.argThat(users -> users.size() == 2
+                && users.stream().allMatch(user -> user.getPassword().startsWith("{bcrypt}") && "USER".equals(user.getRoles()))));
+        BDDMockito.verify(outboxEventRepository).insertAll(ArgumentMatchers.argThat(events -> events.size() == 2));
+    }
+
+    @Test
+    @DisplayName("POST v1/users/import returns forbidden when user is not an admin")
+    @Order(33)
+    void importUsers_ReturnsForbidden_WhenUserIsNotAdmin() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post(URL + "/import")
+                        .content("{}")
+                        .contentType(MediaType.APPLICATION_NDJSON))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isForbidden());
+
+        BDDMockito.verifyNoInteractions(repository);
+    }
+
+
+    @Test
+    @DisplayName("POST v1/users returns bad request when the email unique key is violated")
+    @Order(34)
+    void save_ReturnsBadRequest_WhenEmailAlreadyExists() throws Exception {
+        var request = fileUtils.readResourceFile("user/post-request-user-200.json");
+        BDDMockito.when(repository.save(ArgumentMatchers.any())).thenThrow(new DataIntegrityViolationException(DUPLICATE_EMAIL));
+
+        mockMvc.perform(MockMvcRequestBuilders.post(URL)
+                        .content(request)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        BDDMockito.verify(repository, BDDMockito.never()).findByEmail(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("POST v1/users returns bad request when a field is longer than its column")
+    @Order(35)
+    void save_ReturnsBadRequest_WhenFieldIsTooLong() throws Exception {
+        var request = fileUtils.readResourceFile("user/post-request-user-200.json").replace("Leonardo", "L".repeat(256));
+
+        mockMvc.perform(MockMvcRequestBuilders.post(URL)
+                        .content(request)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message").value("The field 'firstName' must have at most 255 characters"));
+
+        BDDMockito.verify(repository, BDDMockito.never()).save(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("POST v1/users returns conflict and not a duplicate e-mail when another constraint is violated")
+    @Order(36)
+    void save_ReturnsConflict_WhenOtherConstraintIsViolated() throws Exception {
+        var request = fileUtils.readResourceFile("user/post-request-user-200.json");
+        BDDMockito.when(repository.save(ArgumentMatchers.any()))
+                .thenThrow(new DataIntegrityViolationException("Data too long for column 'first_name' at row 1"));
+
+        mockMvc.perform(MockMvcRequestBuilders.post(URL)
+                        .content(request)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isConflict())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.status").value(409));
+    }
+
+    @Test
+    @DisplayName("POST v1/users/import tells a duplicate e-mail apart from other constraint violations when the batch fails")
+    @Order(37)
+    @WithMockUser(authorities = "ADMIN")
+    void importUsers_ReportsConstraintOfEachRow_WhenBatchInsertFails() throws Exception {
+        var body = """
+                {"firstName":"Leonardo","lastName":"Santos","email":"leo@devdojo.com","password":"devdojo"}
+                {"firstName":"Maria","lastName":"Oliveira","email":"maria@devdojo.com","password":"devdojo"}
+                """;
+        BDDMockito.when(repository.findEmailsByEmailIn(ArgumentMatchers.anyCollection())).thenReturn(List.of());
+        BDDMockito.when(repository.insertAll(ArgumentMatchers.anyList()))
+                .thenThrow(new DataIntegrityViolationException(DUPLICATE_EMAIL))
+                .thenThrow(new DataIntegrityViolationException(DUPLICATE_EMAIL))
+                .thenThrow(new DataIntegrityViolationException("Data truncation"));
+
+        mockMvc.perform(MockMvcRequestBuilders.post(URL + "/import")
+                        .content(body)
+                        .contentType(MediaType.APPLICATION_NDJSON))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.imported").value(0))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.failed").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.errors[0].message").value("E-mail leo@devdojo.com already exists"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.errors[1].message").value("The row violates a database constraint"));
+    }
+
+    @Test
+    @DisplayName("DELETE v1/users/1 returns conflict when other rows still reference the user")
+    @Order(38)
+    @WithMockUser(authorities = "ADMIN")
+    void delete_ReturnsConflict_WhenUserIsReferenced() throws Exception {
+        var id = usersList.getFirst().getId();
+        BDDMockito.when(repository.deleteUserById(id)).thenThrow(new DataIntegrityViolationException("Cannot delete a parent row"));
+
+        mockMvc.perform(MockMvcRequestBuilders.delete(URL + "/{id}", id))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isConflict())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.status").value(409));
+    }
+
+
+    @Test
+    @DisplayName("POST v1/users/bulk-delete deletes the given ids in ascending chunks, user profiles first")
+    @Order(39)
+    @WithMockUser(authorities = "ADMIN")
+    void bulkDelete_DeletesUsersInChunks_WhenIdsAreGiven() throws Exception {
+        var ids = LongStream.rangeClosed(1, 501).boxed().toList();
+        var firstChunk = ids.subList(0, 500);
+        var secondChunk = List.of(501L);
+        BDDMockito.when(userProfileRepository.deleteByUserIdIn(firstChunk)).thenReturn(7);
+        BDDMockito.when(repository.findIdsByIdIn(ArgumentMatchers.anyCollection())).thenAnswer(invocation -> List.copyOf(invocation.getArgument(0)));
+        BDDMockito.when(repository.deleteUsersByIdIn(firstChunk)).thenReturn(500);
+        BDDMockito.when(repository.deleteUsersByIdIn(secondChunk)).thenReturn(1);
+        var body = "{\"ids\":%s}".formatted(ids.reversed());
+
+        mockMvc.perform(MockMvcRequestBuilders.post(URL + "/bulk-delete")
+                        .content(body)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.deletedUsers").value(501))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.deletedUserProfiles").value(7))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.chunks").value(2));
+
+        var inOrder = BDDMockito.inOrder(userProfileRepository, repository);
+        inOrder.verify(userProfileRepository).deleteByUserIdIn(firstChunk);
+        inOrder.verify(repository).deleteUsersByIdIn(firstChunk);
+        inOrder.verify(userProfileRepository).deleteByUserIdIn(secondChunk);
+        inOrder.verify(repository).deleteUsersByIdIn(secondChunk);
+    }
+
+    @Test
+    @DisplayName("POST v1/users/bulk-delete seeks the users of an email domain chunk after chunk")
+    @Order(40)
+    @WithMockUser(authorities = "ADMIN")
+    void bulkDelete_DeletesUsersOfDomain_WhenEmailDomainIsGiven() throws Exception {
+        BDDMockito.when(repository.findIdsByEmailDomainAfter("email.com", 0L, 500)).thenReturn(List.of(1L, 3L));
+        BDDMockito.when(repository.findIdsByIdIn(List.of(1L, 3L))).thenReturn(List.of(1L, 3L));
+        BDDMockito.when(repository.deleteUsersByIdIn(List.of(1L, 3L))).thenReturn(2);
+
+        mockMvc.perform(MockMvcRequestBuilders.post(URL + "/bulk-delete")
+                        .content("{\"emailDomain\":\" Email.com \"}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.deletedUsers").value(2))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.chunks").value(1));
+
+        BDDMockito.verify(repository).findIdsByEmailDomainAfter("email.com", 0L, 500);
+    }
+
+    @Test
+    @DisplayName("POST v1/users/bulk-delete returns bad request when both ids and emailDomain are sent")
+    @Order(41)
+    @WithMockUser(authorities = "ADMIN")
+    void bulkDelete_ReturnsBadRequest_WhenBothCriteriaAreGiven() throws Exception {
+        var mvcResult = mockMvc.perform(MockMvcRequestBuilders.post(URL + "/bulk-delete")
+                        .content("{\"ids\":[1],\"emailDomain\":\"email.com\"}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andReturn();
+
+        Assertions.assertThat(mvcResult.getResolvedException()).isNotNull();
+        Assertions.assertThat(mvcResult.getResolvedException().getMessage()).contains("Exactly one of the fields 'ids' or 'emailDomain' is required");
+        BDDMockito.verifyNoInteractions(userProfileRepository);
+    }
+
+    @Test
+    @DisplayName("GET v1/users/changes returns upserts and tombstones after the cursor and a cursor to resume from")
+    @Order(42)
+    @WithMockUser(authorities = "ADMIN")
+    void findChanges_ReturnsChangesAndNextCursor_WhenSinceIsGiven() throws Exception {
+        var changedAt = Instant.parse("2024-05-01T10:15:30.123456Z");
+        var since = new ScrollCursor("changes", Map.of("changedAt", changedAt.toString(), "id", 1L)).encode();
+        var changes = List.of(
+                new UserChange(UserChangeType.UPSERTED, 2L, changedAt, summariesList.get(1)),
+                new UserChange(UserChangeType.DELETED, 7L, changedAt.plusSeconds(1), null));
+        BDDMockito.when(repository.findChangesAfter(changedAt, 1L, 3)).thenReturn(changes);
+
+        var mvcResult = mockMvc.perform(MockMvcRequestBuilders.get(URL + "/changes").param("since", since).param("size", "2"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.changes[*].type").value(Matchers.contains("UPSERTED", "DELETED")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.changes[0].user.email").value(summariesList.get(1).email()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.changes[1].user").doesNotExist())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.hasNext").value(false))
+                .andReturn();
+
+        var nextCursor = JsonPath.<String>read(mvcResult.getResponse().getContentAsString(), "$.nextCursor");
+        Assertions.assertThat(ScrollCursor.decode(nextCursor))
+                .isEqualTo(new ScrollCursor("changes", Map.of("changedAt", changedAt.plusSeconds(1).toString(), "id", 7L)));
+    }
+
+    @Test
+    @DisplayName("GET v1/users/changes hands back the same cursor when nothing changed since")
+    @Order(43)
+    @WithMockUser(authorities = "ADMIN")
+    void findChanges_ReturnsSameCursor_WhenNothingChanged() throws Exception {
+        var since = new ScrollCursor("changes", Map.of("changedAt", "2024-05-01T10:15:30Z", "id", 5L)).encode();
+        BDDMockito.when(repository.findChangesAfter(Instant.parse("2024-05-01T10:15:30Z"), 5L, 21)).thenReturn(List.of());
+
+        mockMvc.perform(MockMvcRequestBuilders.get(URL + "/changes").param("since", since))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.changes").isEmpty())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor").value(since))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.hasNext").value(false));
+    }
+
+    @Test
+    @DisplayName("GET v1/users/changes returns bad request when the cursor belongs to another endpoint")
+    @Order(44)
+    @WithMockUser(authorities = "ADMIN")
+    void findChanges_ReturnsBadRequest_WhenCursorIsFromAnotherEndpoint() throws Exception {
+        var since = new ScrollCursor("id", Map.of("id", 5L)).encode();
+
+        mockMvc.perform(MockMvcRequestBuilders.get(URL + "/changes").param("since", since))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        BDDMockito.verify(repository, BDDMockito.never()).findChangesAfter(ArgumentMatchers.any(), ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt());
+    }
+
+    @Test
+    @DisplayName("GET v1/users/events streams committed user events and skips profile events")
+    @Order(45)
+    @WithMockUser(authorities = "ADMIN")
+    void streamEvents_StreamsUserEvents_WhenUserChangesAreCommitted() throws Exception {
+        var mvcResult = mockMvc.perform(MockMvcRequestBuilders.get(URL + "/events"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        eventBroadcaster.onRecorded(new OutboxRecorded(List.of(
+                outboxMessage(OutboxAggregateType.PROFILE, 1L, OutboxEventType.CREATED),
+                outboxMessage(OutboxAggregateType.USER, 10L, OutboxEventType.UPDATED))));
+
+        var content = awaitContent(mvcResult, "\"id\":10");
+        Assertions.assertThat(content).contains("event:UPDATED").doesNotContain("\"id\":1}");
+    }
+
+    @Test
+    @DisplayName("GET v1/users/events replays the events after Last-Event-ID")
+    @Order(46)
+    @WithMockUser(authorities = "ADMIN")
+    void streamEvents_ReplaysMissedEvents_WhenLastEventIdIsGiven() throws Exception {
+        var firstResult = mockMvc.perform(MockMvcRequestBuilders.get(URL + "/events"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+        eventBroadcaster.onRecorded(new OutboxRecorded(List.of(
+                outboxMessage(OutboxAggregateType.USER, 21L, OutboxEventType.CREATED),
+                outboxMessage(OutboxAggregateType.USER, 22L, OutboxEventType.DELETED))));
+        var eventIds = awaitContent(firstResult, "\"id\":22").lines()
+                .filter(line -> line.startsWith("id:"))
+                .map(line -> line.substring("id:".length()))
+                .toList();
+        var lastEventId = eventIds.get(eventIds.size() - 2);
+
+        var replayResult = mockMvc.perform(MockMvcRequestBuilders.get(URL + "/events").header("Last-Event-ID", lastEventId))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        var replayContent = awaitContent(replayResult, "\"id\":22");
+        Assertions.assertThat(replayContent).contains("event:DELETED").doesNotContain("\"id\":21");
+    }
+
+    @Test
+    @DisplayName("GET v1/users/events sends a resync event when Last-Event-ID can no longer be replayed")
+    @Order(47)
+    @WithMockUser(authorities = "ADMIN")
+    void streamEvents_SendsResync_WhenLastEventIdIsUnknown() throws Exception {
+        var mvcResult = mockMvc.perform(MockMvcRequestBuilders.get(URL + "/events").header("Last-Event-ID", "previous-run-42"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        Assertions.assertThat(awaitContent(mvcResult, "/v1/users/changes")).contains("event:resync");
+    }
+
+    @Test
+    @DisplayName("POST v1/users replays the stored response when the Idempotency-Key is sent again")
+    @Order(48)
+    void save_ReplaysStoredResponse_WhenIdempotencyKeyIsRepeated() throws Exception {
+        var request = fileUtils.readResourceFile("user/post-request-user-200.json");
+        var response = fileUtils.readResourceFile("user/post-response-user-201.json");
+        var idempotencyKey = UUID.randomUUID().toString();
+        BDDMockito.when(repository.save(ArgumentMatchers.any())).thenReturn(userUtils.newUserSaved());
+
+        for (var attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(MockMvcRequestBuilders.post(URL)
+                            .header("Idempotency-Key", idempotencyKey)
+                            .content(request)
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andDo(MockMvcResultHandlers.print())
+                    .andExpect(MockMvcResultMatchers.status().isCreated())
+                    .andExpect(MockMvcResultMatchers.content().json(response));
+        }
+
+        BDDMockito.verify(repository, BDDMockito.times(1)).save(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("POST v1/users returns unprocessable entity when the Idempotency-Key was used for another body")
+    @Order(49)
+    void save_ReturnsUnprocessableEntity_WhenIdempotencyKeyIsReusedForAnotherBody() throws Exception {
+        var request = fileUtils.readResourceFile("user/post-request-user-200.json");
+        var idempotencyKey = UUID.randomUUID().toString();
+        BDDMockito.when(repository.save(ArgumentMatchers.any())).thenReturn(userUtils.newUserSaved());
+        mockMvc.perform(MockMvcRequestBuilders.post(URL)
+                        .header("Idempotency-Key", idempotencyKey)
+                        .content(request)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.header().doesNotExist("Idempotent-Replayed"));
+
+        mockMvc.perform(MockMvcRequestBuilders.post(URL)
+                        .header("Idempotency-Key", idempotencyKey)
+                        .content(request.replace("Leonardo", "Leo"))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isUnprocessableEntity());
+
+        BDDMockito.verify(repository, BDDMockito.times(1)).save(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("POST v1/users runs the request again when the first one with the same Idempotency-Key failed")
+    @Order(50)
+    void save_RunsAgain_WhenFirstRequestWithIdempotencyKeyFailed() throws Exception {
+        var request = fileUtils.readResourceFile("user/post-request-user-200.json");
+        var idempotencyKey = UUID.randomUUID().toString();
+        BDDMockito.when(repository.save(ArgumentMatchers.any()))
+                .thenThrow(new DataIntegrityViolationException(DUPLICATE_EMAIL))
+                .thenReturn(userUtils.newUserSaved());
+
+        mockMvc.perform(MockMvcRequestBuilders.post(URL)
+                        .header("Idempotency-Key", idempotencyKey)
+                        .content(request)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders.post(URL)
+                        .header("Idempotency-Key", idempotencyKey)
+                        .content(request)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.header().doesNotExist("Idempotent-Replayed"));
+
+        BDDMockito.verify(repository, BDDMockito.times(2)).save(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("PUT v1/users updates the user and returns the new ETag when If-Match holds the current version")
+    @Order(51)
+    void update_ReturnsNewEtag_WhenIfMatchHoldsCurrentVersion() throws Exception {
+        var request = fileUtils.readResourceFile("user/put-request-user-200.json");
+        BDDMockito.when(repository.updateByIdAndVersion(ArgumentMatchers.eq(1L), ArgumentMatchers.any(), ArgumentMatchers.any(),
+                ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.eq(3L))).thenReturn(1);
+        versionCache.remember(1L, 3L);
+
+        mockMvc.perform(MockMvcRequestBuilders.put(URL)
+                        .header(HttpHeaders.IF_MATCH, "\"1-3\"")
+                        .content(request)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isNoContent())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1-4\""));
+
+        BDDMockito.verify(repository, BDDMockito.never()).findById(ArgumentMatchers.any());
+        // A concurrent writer may already be past version 4, only reads put a version back
+        Assertions.assertThat(versionCache.find(1L)).isNull();
+    }
+
+    @Test
+    @DisplayName("PUT v1/users returns precondition failed when the version in If-Match is stale")
+    @Order(52)
+    void update_ReturnsPreconditionFailed_WhenIfMatchVersionIsStale() throws Exception {
+        var request = fileUtils.readResourceFile("user/put-request-user-200.json");
+        BDDMockito.when(repository.updateByIdAndVersion(ArgumentMatchers.eq(1L), ArgumentMatchers.any(), ArgumentMatchers.any(),
+                ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.eq(2L))).thenReturn(0);
+
+        mockMvc.perform(MockMvcRequestBuilders.put(URL)
+                        .header(HttpHeaders.IF_MATCH, "\"1-2\"")
+                        .content(request)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+
+        BDDMockito.verify(repository, BDDMockito.never()).findById(ArgumentMatchers.any());
+        BDDMockito.verify(repository, BDDMockito.never()).updateById(ArgumentMatchers.any(), ArgumentMatchers.any(),
+                ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("PUT v1/users returns precondition failed without a query when If-Match is not an ETag of that user")
+    @Order(53)
+    void update_ReturnsPreconditionFailed_WhenIfMatchBelongsToAnotherUser() throws Exception {
+        var request = fileUtils.readResourceFile("user/put-request-user-200.json");
+
+        mockMvc.perform(MockMvcRequestBuilders.put(URL)
+                        .header(HttpHeaders.IF_MATCH, "\"2-3\"")
+                        .content(request)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+
+        BDDMockito.verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("PATCH v1/users/1 writes only the fields of the merge patch and returns the user with its new ETag")
+    @Order(54)
+    void patch_WritesOnlyGivenColumns_WhenMergePatchIsValid() throws Exception {
+        var user = userUtils.toSummary(usersList.getFirst().withFirstName("Thiago").withVersion(4L));
+        BDDMockito.when(repository.patchById(1L, Map.of(UserColumn.FIRST_NAME, "Thiago"), null)).thenReturn(1);
+        BDDMockito.when(repository.findSummaryById(1L)).thenReturn(Optional.of(user));
+
+        mockMvc.perform(MockMvcRequestBuilders.patch(URL + "/{id}", 1L)
+                        .content("{\"firstName\":\"Thiago\"}")
+                        .contentType("application/merge-patch+json"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1-4\""))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.firstName").value("Thiago"));
+
+        BDDMockito.verify(repository, BDDMockito.never()).updateById(ArgumentMatchers.any(), ArgumentMatchers.any(),
+                ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("PATCH v1/users/1 returns bad request when the merge patch removes a required field")
+    @Order(55)
+    void patch_ReturnsBadRequest_WhenFieldIsSetToNull() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.patch(URL + "/{id}", 1L)
+                        .content("{\"email\":null}")
+                        .contentType("application/merge-patch+json"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        BDDMockito.verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("PATCH v1/users/1 returns precondition failed when the version in If-Match is stale")
+    @Order(56)
+    void patch_ReturnsPreconditionFailed_WhenIfMatchVersionIsStale() throws Exception {
+        BDDMockito.when(repository.patchById(1L, Map.of(UserColumn.LAST_NAME, "Silva"), 2L)).thenReturn(0);
+
+        mockMvc.perform(MockMvcRequestBuilders.patch(URL + "/{id}", 1L)
+                        .header(HttpHeaders.IF_MATCH, "\"1-2\"")
+                        .content("{\"lastName\":\"Silva\"}")
+                        .contentType("application/merge-patch+json"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+
+        BDDMockito.verify(repository, BDDMockito.never()).findSummaryById(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("GET v1/users answers repeated polls from the cached collection fingerprint until a user is created")
+    @Order(57)
+    @WithMockUser(authorities = "ADMIN")
+    void findAll_ReusesFingerprint_UntilUserIsCreated() throws Exception {
+        versionCache.evictCollection();
+        BDDMockito.when(repository.save(ArgumentMatchers.any())).thenReturn(userUtils.newUserSaved());
+
+        for (var poll = 0; poll < 3; poll++) {
+            mockMvc.perform(MockMvcRequestBuilders.get(URL).header(HttpHeaders.IF_NONE_MATCH, "\"3-0-0\""))
+                    .andExpect(MockMvcResultMatchers.status().isNotModified());
+        }
+        BDDMockito.verify(repository, BDDMockito.times(1)).fingerprint();
+
+        mockMvc.perform(MockMvcRequestBuilders.post(URL)
+                        .content(fileUtils.readResourceFile("user/post-request-user-200.json"))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isCreated());
+        mockMvc.perform(MockMvcRequestBuilders.get(URL).header(HttpHeaders.IF_NONE_MATCH, "\"3-0-0\""))
+                .andExpect(MockMvcResultMatchers.status().isNotModified());
+
+        BDDMockito.verify(repository, BDDMockito.times(2)).fingerprint();
+    }
+
+    @Test
+    @DisplayName("GET v1/users/events returns forbidden when user is not admin")
+    @Order(58)
+    void streamEvents_ReturnsForbidden_WhenUserIsNotAdmin() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(URL + "/events"))
+                .andDo(MockMvcResultHandlers.print())
+                .andExpect(MockMvcResultMatchers.status().isForbidden())
+                .andExpect(MockMvcResultMatchers.request().asyncNotStarted());
+    }
+
+
+    private static OutboxMessage outboxMessage(OutboxAggregateType aggregateType, Long aggregateId, OutboxEventType eventType) {
+        return new OutboxMessage(null, aggregateType, aggregateId, eventType, "{\"id\":%d}".formatted(aggregateId), Instant.now());
+    }
+
+    private static String awaitContent(MvcResult mvcResult, String expected) throws Exception {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        var content = mvcResult.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            content = mvcResult.getResponse().getContentAsString();
+        }
+        Assertions.assertThat(content).contains(expected);
+        return content;
+    }
+
+    private Stream<UserSummary> summaries() {
+        return summariesList.stream();
+    }
+
+
     private static Stream<Arguments> postUserBadRequestSource() {
 
 
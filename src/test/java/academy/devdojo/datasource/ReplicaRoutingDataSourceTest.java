@@ -0,0 +1,106 @@
+package academy.devdojo.datasource;
+
+import academy.devdojo.config.ReplicaRoutingProperties;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ReplicaRoutingDataSourceTest {
+    private Connection primaryConnection;
+    private Connection replicaConnection;
+    private ReadYourWrites readYourWrites;
+    private ReplicaSet replicaSet;
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void init() throws SQLException {
+        var primary = Mockito.mock(DataSource.class);
+        var replica = Mockito.mock(DataSource.class);
+        primaryConnection = Mockito.mock(Connection.class);
+        replicaConnection = Mockito.mock(Connection.class);
+        BDDMockito.when(primary.getConnection()).thenReturn(primaryConnection);
+        BDDMockito.when(replica.getConnection()).thenReturn(replicaConnection);
+
+        var properties = new ReplicaRoutingProperties(true, List.of(), Duration.ofSeconds(2), Duration.ofSeconds(5), Duration.ofSeconds(10));
+        readYourWrites = new ReadYourWrites(properties);
+        replicaSet = new ReplicaSet(primary, Map.of("replica-1", replica));
+        replicaSet.setHealthy("replica-1", true);
+        routingDataSource = new ReplicaRoutingDataSource(replicaSet, readYourWrites);
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated("admin@devdojo.academy", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("getConnection routes read-only transactions to a healthy replica")
+    @Order(1)
+    void getConnection_RoutesToReplica_WhenTransactionIsReadOnly() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        Assertions.assertThat(routingDataSource.getConnection()).isSameAs(replicaConnection);
+    }
+
+    @Test
+    @DisplayName("getConnection routes read-write transactions to the primary")
+    @Order(2)
+    void getConnection_RoutesToPrimary_WhenTransactionIsReadWrite() throws SQLException {
+        Assertions.assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    @DisplayName("getConnection routes read-only transactions to the primary when no replica is within the lag tolerance")
+    @Order(3)
+    void getConnection_RoutesToPrimary_WhenReplicaIsLagging() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        replicaSet.setHealthy("replica-1", false);
+
+        Assertions.assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    @DisplayName("getConnection keeps a principal on the primary after it wrote")
+    @Order(4)
+    void getConnection_RoutesToPrimary_WhenPrincipalWroteRecently() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        readYourWrites.markWrite();
+
+        Assertions.assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated("other@devdojo.academy", null, List.of()));
+        Assertions.assertThat(routingDataSource.getConnection()).isSameAs(replicaConnection);
+    }
+
+    @Test
+    @DisplayName("getConnection keeps anonymous reads on the replica after an anonymous signup and the new user on the primary")
+    @Order(5)
+    void getConnection_RoutesOnlyNewUserToPrimary_WhenAnonymousSignedUp() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken("key", "anonymousUser",
+                AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+        readYourWrites.markWrite();
+        readYourWrites.markWriteFor("New.User@devdojo.academy");
+
+        Assertions.assertThat(routingDataSource.getConnection()).isSameAs(replicaConnection);
+
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated("new.user@devdojo.academy", null, List.of()));
+        Assertions.assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+    }
+}
@@ -0,0 +1,133 @@
+package academy.devdojo.datasource;
+
+import academy.devdojo.config.IntegrationTestConfig;
+import academy.devdojo.domain.User;
+import academy.devdojo.domain.UserSummary;
+import academy.devdojo.service.UserService;
+import org.assertj.core.api.Assertions;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.List;
+
+// The replica is a second, independent MySQL container: rows written straight into it show which server answered a query.
+// Lag checks only run when the tests call checkAll, so the scheduled one cannot race with setHealthy
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {"replica-routing.enabled=true", "replica-routing.lag-check-interval=1h", "replica-routing.stickiness=1m"})
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ReplicaRoutingIT extends IntegrationTestConfig {
+
+    private static final String REPLICA_NAME = "replica-1";
+    private static final String REPLICA_ONLY_EMAIL = "replica.only@devdojo.academy";
+
+    // root can run SHOW REPLICA STATUS, which the lag monitor needs
+    private static final MySQLContainer<?> REPLICA = new MySQLContainer<>(DockerImageName.parse("mysql:9.0.1"))
+            .withDatabaseName("user_service")
+            .withUsername("root");
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ReplicaSet replicaSet;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private JdbcTemplate replicaJdbcTemplate;
+
+    @DynamicPropertySource
+    static void replicaProperties(DynamicPropertyRegistry registry) {
+        REPLICA.start();
+        Flyway.configure()
+                .dataSource(REPLICA.getJdbcUrl(), REPLICA.getUsername(), REPLICA.getPassword())
+                .locations("classpath:db/migration-test")
+                .load()
+                .migrate();
+        registry.add("replica-routing.replicas[0].name", () -> REPLICA_NAME);
+        registry.add("replica-routing.replicas[0].url", REPLICA::getJdbcUrl);
+        registry.add("replica-routing.replicas[0].username", REPLICA::getUsername);
+        registry.add("replica-routing.replicas[0].password", REPLICA::getPassword);
+    }
+
+    @AfterAll
+    static void stopReplica() {
+        REPLICA.stop();
+    }
+
+    @BeforeEach
+    void init() {
+        replicaJdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(REPLICA.getJdbcUrl(), REPLICA.getUsername(), REPLICA.getPassword()));
+        for (var template : List.of(jdbcTemplate, replicaJdbcTemplate)) {
+            template.update("DELETE FROM user_profile");
+            template.update("DELETE FROM `user`");
+        }
+        replicaJdbcTemplate.update("INSERT INTO `user` (email, first_name, last_name, roles, password) VALUES (?, 'Replica', 'Only', 'USER', '')",
+                REPLICA_ONLY_EMAIL);
+        replicaLagMonitor.checkAll();
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated("admin@devdojo.academy", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("checkAll marks a replica that is not behind the primary as healthy")
+    @Order(1)
+    void checkAll_MarksReplicaHealthy_WhenReplicaIsNotBehind() {
+        Assertions.assertThat(replicaSet.isHealthy(REPLICA_NAME)).isTrue();
+    }
+
+    @Test
+    @DisplayName("findAll reads from the replica inside a read-only transaction")
+    @Order(2)
+    void findAll_ReadsFromReplica_WhenTransactionIsReadOnly() {
+        var users = userService.findAll(null);
+
+        Assertions.assertThat(users).extracting(UserSummary::email).containsExactly(REPLICA_ONLY_EMAIL);
+    }
+
+    @Test
+    @DisplayName("findAll reads from the primary when the replica is over the lag tolerance")
+    @Order(3)
+    void findAll_ReadsFromPrimary_WhenReplicaIsLagging() {
+        replicaSet.setHealthy(REPLICA_NAME, false);
+
+        var users = userService.findAll(null);
+
+        Assertions.assertThat(users).isEmpty();
+    }
+
+    @Test
+    @DisplayName("findAll reads the principal's own write from the primary right after save")
+    @Order(4)
+    void findAll_ReadsFromPrimary_WhenPrincipalJustSaved() {
+        var user = User.builder()
+                .firstName("Read")
+                .lastName("Your Writes")
+                .email("read.your.writes@devdojo.academy")
+                .password("{noop}devdojo")
+                .roles("USER")
+                .build();
+
+        userService.save(user);
+        var users = userService.findAll(null);
+
+        Assertions.assertThat(users).extracting(UserSummary::email).containsExactly(user.getEmail());
+    }
+}
@@ -0,0 +1,77 @@
+package academy.devdojo.etag;
+
+import academy.devdojo.config.UserVersionCacheProperties;
+import academy.devdojo.domain.VersionFingerprint;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class UserVersionCacheTest {
+    private UserVersionCache versionCache;
+
+    @BeforeEach
+    void init() {
+        versionCache = new UserVersionCache(new UserVersionCacheProperties(100, Duration.ofSeconds(30)));
+    }
+
+    @Test
+    @DisplayName("evict drops a version remembered by a read between the write and its commit once the transaction completes")
+    @Order(1)
+    void evict_DropsVersionAgainAfterCompletion_WhenReadRunsBeforeCommit() {
+        versionCache.remember(1L, 3L);
+
+        runInTransaction(() -> versionCache.evict(1L), () -> {
+            Assertions.assertThat(versionCache.find(1L)).isNull();
+            versionCache.remember(1L, 3L);
+        });
+
+        Assertions.assertThat(versionCache.find(1L)).isNull();
+    }
+
+    @Test
+    @DisplayName("evictAll drops the versions remembered by reads between the write and its commit once the transaction completes")
+    @Order(2)
+    void evictAll_DropsVersionsAgainAfterCompletion_WhenReadsRunBeforeCommit() {
+        versionCache.remember(3L, 1L);
+
+        runInTransaction(() -> versionCache.evictAll(List.of(1L, 2L)), () -> {
+            versionCache.remember(1L, 3L);
+            versionCache.remember(2L, 5L);
+        });
+
+        Assertions.assertThat(versionCache.find(1L)).isNull();
+        Assertions.assertThat(versionCache.find(2L)).isNull();
+        Assertions.assertThat(versionCache.find(3L)).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("evictCollection drops a fingerprint loaded between the write and its commit once the transaction completes")
+    @Order(3)
+    void evictCollection_DropsFingerprintAgainAfterCompletion_WhenPollRunsBeforeCommit() {
+        var before = new VersionFingerprint(3L, 6L, 3L);
+        var after = new VersionFingerprint(4L, 10L, 4L);
+
+        runInTransaction(versionCache::evictCollection, () -> versionCache.collectionFingerprint(() -> before));
+
+        Assertions.assertThat(versionCache.collectionFingerprint(() -> after)).isEqualTo(after);
+    }
+
+    // Runs write with transaction synchronization active, then beforeCommit, then the after completion callbacks
+    private static void runInTransaction(Runnable write, Runnable beforeCommit) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            write.run();
+            beforeCommit.run();
+            TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                    TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
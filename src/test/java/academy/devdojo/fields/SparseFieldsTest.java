@@ -0,0 +1,60 @@
+package academy.devdojo.fields;
+
+import academy.devdojo.exception.BadRequestException;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+
+import java.util.EnumSet;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class SparseFieldsTest {
+
+    @Test
+    @DisplayName("parse returns the requested fields ignoring blanks and spaces")
+    @Order(1)
+    void parse_ReturnsRequestedFields_WhenFieldsAreKnown() {
+        var fields = SparseFields.parse(" email, ,id ", UserField.class);
+
+        Assertions.assertThat(fields).containsExactlyInAnyOrder(UserField.ID, UserField.EMAIL);
+    }
+
+    @Test
+    @DisplayName("parse expands a nested object name to all of its fields")
+    @Order(2)
+    void parse_ExpandsNestedObject_WhenObjectNameIsGiven() {
+        var fields = SparseFields.parse("id,profile", UserProfileField.class);
+
+        Assertions.assertThat(fields).containsExactlyInAnyOrder(UserProfileField.ID, UserProfileField.PROFILE_ID, UserProfileField.PROFILE_NAME);
+    }
+
+    @Test
+    @DisplayName("parse throws BadRequestException when a field is unknown")
+    @Order(3)
+    void parse_ThrowsBadRequestException_WhenFieldIsUnknown() {
+        Assertions.assertThatException()
+                .isThrownBy(() -> SparseFields.parse("id,password", UserField.class))
+                .isInstanceOf(BadRequestException.class)
+                .withMessageContaining("password");
+    }
+
+    @Test
+    @DisplayName("parse throws BadRequestException when no field is given")
+    @Order(4)
+    void parse_ThrowsBadRequestException_WhenFieldsAreBlank() {
+        Assertions.assertThatException()
+                .isThrownBy(() -> SparseFields.parse(" , ", UserField.class))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    @DisplayName("projection selects only the requested columns in declaration order and is compiled once per field set")
+    @Order(5)
+    void projection_IsCompiledOnce_WhenSameFieldSetIsRequestedAgain() {
+        var query = new SparseQuery<UserField>("FROM `user` u");
+
+        var projection = query.projection(EnumSet.of(UserField.EMAIL, UserField.ID));
+
+        Assertions.assertThat(projection.sql()).isEqualTo("SELECT u.id AS f0, u.email AS f1 FROM `user` u");
+        Assertions.assertThat(query.projection(SparseFields.parse("email,id", UserField.class))).isSameAs(projection);
+    }
+}
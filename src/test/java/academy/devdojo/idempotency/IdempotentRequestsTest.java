@@ -0,0 +1,116 @@
+package academy.devdojo.idempotency;
+
+import academy.devdojo.config.IdempotencyProperties;
+import academy.devdojo.exception.ConflictException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class IdempotentRequestsTest {
+    private static final String SCOPE = "users";
+    private static final String KEY = "f1c6a1f2-5d8e-4a57-9a43-3b2b1c0d7e11";
+    private static final Map<String, String> REQUEST = Map.of("email", "leo@email.com");
+
+    private IdempotencyKeyStore store;
+    private IdempotentRequests idempotentRequests;
+    private AtomicInteger runs;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void init() {
+        store = Mockito.mock(IdempotencyKeyStore.class);
+        ObjectProvider<IdempotencyKeyStore> storeProvider = Mockito.mock(ObjectProvider.class);
+        BDDMockito.when(storeProvider.getIfAvailable()).thenReturn(store);
+        var properties = new IdempotencyProperties(100, Duration.ofHours(24), Duration.ofMillis(300), true, "secret",
+                Duration.ofMinutes(1));
+        idempotentRequests = new IdempotentRequests(properties, storeProvider, new ObjectMapper());
+        runs = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("execute reserves the key in the database, runs the request and stores its response")
+    @Order(1)
+    void execute_RunsAndStoresResponse_WhenKeyIsReserved() {
+        BDDMockito.when(store.find(ArgumentMatchers.anyString(), ArgumentMatchers.any())).thenReturn(Optional.empty());
+        BDDMockito.when(store.reserve(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.any()))
+                .thenReturn(true);
+
+        var response = idempotentRequests.execute(SCOPE, KEY, REQUEST, String.class, this::created);
+
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        Assertions.assertThat(runs).hasValue(1);
+        BDDMockito.then(store).should().save(ArgumentMatchers.anyString(), ArgumentMatchers.any(), ArgumentMatchers.eq(Duration.ofHours(24)));
+        BDDMockito.then(store).should(Mockito.never()).release(ArgumentMatchers.anyString());
+    }
+
+    @Test
+    @DisplayName("execute waits for the response of a request running on another instance instead of running it again")
+    @Order(2)
+    void execute_ReplaysResponseOfOtherInstance_WhenKeyIsReservedThere() {
+        var fingerprint = new AtomicReference<String>();
+        BDDMockito.when(store.reserve(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.any()))
+                .thenAnswer(invocation -> {
+                    fingerprint.set(invocation.getArgument(1));
+                    return false;
+                });
+        BDDMockito.when(store.find(ArgumentMatchers.anyString(), ArgumentMatchers.any()))
+                .thenAnswer(invocation -> Optional.ofNullable(fingerprint.get())
+                        .map(reserved -> new StoredResponse(reserved, HttpStatus.CREATED.value(), "created elsewhere")));
+
+        var response = idempotentRequests.execute(SCOPE, KEY, REQUEST, String.class, this::created);
+
+        Assertions.assertThat(runs).hasValue(0);
+        Assertions.assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        Assertions.assertThat(response.getBody()).isEqualTo("created elsewhere");
+        Assertions.assertThat(response.getHeaders().getFirst(IdempotentRequests.REPLAYED_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    @DisplayName("execute returns conflict when the request on another instance is still running after the wait timeout")
+    @Order(3)
+    void execute_ThrowsConflictException_WhenReservationOutlastsWaitTimeout() {
+        BDDMockito.when(store.find(ArgumentMatchers.anyString(), ArgumentMatchers.any())).thenReturn(Optional.empty());
+        BDDMockito.when(store.reserve(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.any()))
+                .thenReturn(false);
+
+        Assertions.assertThatException()
+                .isThrownBy(() -> idempotentRequests.execute(SCOPE, KEY, REQUEST, String.class, this::created))
+                .isInstanceOf(ConflictException.class);
+        Assertions.assertThat(runs).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("execute releases the reservation when the request fails, so a retry can run it")
+    @Order(4)
+    void execute_ReleasesReservation_WhenRequestFails() {
+        BDDMockito.when(store.find(ArgumentMatchers.anyString(), ArgumentMatchers.any())).thenReturn(Optional.empty());
+        BDDMockito.when(store.reserve(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.any()))
+                .thenReturn(true);
+
+        Assertions.assertThatException()
+                .isThrownBy(() -> idempotentRequests.execute(SCOPE, KEY, REQUEST, String.class, () -> {
+                    throw new IllegalStateException("Signup failed");
+                }))
+                .isInstanceOf(IllegalStateException.class);
+        BDDMockito.then(store).should().release(ArgumentMatchers.anyString());
+        BDDMockito.then(store).should(Mockito.never()).save(ArgumentMatchers.anyString(), ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+    private ResponseEntity<String> created() {
+        runs.incrementAndGet();
+        return ResponseEntity.status(HttpStatus.CREATED).body("created");
+    }
+}
@@ -0,0 +1,101 @@
+package academy.devdojo.outbox;
+
+import academy.devdojo.config.OutboxProperties;
+import academy.devdojo.domain.OutboxEvent;
+import academy.devdojo.repository.OutboxEventRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class OutboxRelayTest {
+    private OutboxEventRepository repository;
+    private List<OutboxMessage> published;
+    private PlatformTransactionManager transactionManager;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void init() {
+        repository = Mockito.mock(OutboxEventRepository.class);
+        published = new ArrayList<>();
+        transactionManager = Mockito.mock(PlatformTransactionManager.class);
+        relay = new OutboxRelay(repository, published::addAll, transactionManager, properties());
+    }
+
+    @Test
+    @DisplayName("relay publishes batches in id order until a batch comes back short and marks them published")
+    @Order(1)
+    void relay_PublishesAndMarksBatches_WhenEventsAreUnpublished() {
+        BDDMockito.when(repository.findUnpublished(ArgumentMatchers.any(), ArgumentMatchers.eq(Limit.of(2)))).thenReturn(events(1, 2), events(3, 3));
+
+        relay.relay();
+
+        Assertions.assertThat(published).extracting(OutboxMessage::id).containsExactly(1L, 2L, 3L);
+        BDDMockito.then(repository).should().markPublished(ArgumentMatchers.eq(List.of(1L, 2L)), ArgumentMatchers.any());
+        BDDMockito.then(repository).should().markPublished(ArgumentMatchers.eq(List.of(3L)), ArgumentMatchers.any());
+        BDDMockito.then(repository).should().deletePublishedBefore(ArgumentMatchers.any());
+    }
+
+    @Test
+    @DisplayName("relay leaves the batch unpublished when the sink fails")
+    @Order(2)
+    void relay_LeavesBatchUnpublished_WhenSinkFails() {
+        OutboxSink failingSink = messages -> {
+            throw new IllegalStateException("Webhook is down");
+        };
+        relay = new OutboxRelay(repository, failingSink, transactionManager, properties());
+        BDDMockito.when(repository.findUnpublished(ArgumentMatchers.any(), ArgumentMatchers.eq(Limit.of(2)))).thenReturn(events(1, 2));
+
+        Assertions.assertThatNoException().isThrownBy(relay::relay);
+
+        BDDMockito.then(repository).should(BDDMockito.never()).markPublished(ArgumentMatchers.any(), ArgumentMatchers.any());
+        BDDMockito.then(repository).should(BDDMockito.never()).deletePublishedBefore(ArgumentMatchers.any());
+        BDDMockito.then(repository).should().claim(List.of(1L, 2L), null);
+    }
+
+    @Test
+    @DisplayName("relay commits the claim before the sink runs and marks the batch published afterwards")
+    @Order(3)
+    void relay_PublishesOutsideTransaction_WhenBatchIsClaimed() {
+        var commitsBeforePublish = new ArrayList<Long>();
+        OutboxSink sink = messages -> commitsBeforePublish.add(Mockito.mockingDetails(transactionManager).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("commit"))
+                .count());
+        relay = new OutboxRelay(repository, sink, transactionManager, properties());
+        BDDMockito.when(repository.findUnpublished(ArgumentMatchers.any(), ArgumentMatchers.eq(Limit.of(2)))).thenReturn(events(1, 1));
+
+        relay.relay();
+
+        Assertions.assertThat(commitsBeforePublish).containsExactly(1L);
+        BDDMockito.then(repository).should().claim(ArgumentMatchers.eq(List.of(1L)), ArgumentMatchers.notNull());
+        BDDMockito.then(repository).should().markPublished(ArgumentMatchers.eq(List.of(1L)), ArgumentMatchers.any());
+    }
+
+    private static OutboxProperties properties() {
+        return new OutboxProperties(true, OutboxProperties.Sink.IN_PROCESS, null, 2, Duration.ofSeconds(1), Duration.ofDays(1),
+                Duration.ofSeconds(2), Duration.ofSeconds(10), Duration.ofMinutes(1));
+    }
+
+    private static List<OutboxEvent> events(long fromId, long toId) {
+        return LongStream.rangeClosed(fromId, toId)
+                .mapToObj(id -> OutboxEvent.builder()
+                        .id(id)
+                        .aggregateType(OutboxAggregateType.USER)
+                        .aggregateId(id)
+                        .eventType(OutboxEventType.CREATED)
+                        .payload("{\"id\":%d}".formatted(id))
+                        .occurredAt(Instant.now())
+                        .build())
+                .toList();
+    }
+}
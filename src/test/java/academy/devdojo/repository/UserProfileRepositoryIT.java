@@ -2,12 +2,15 @@ package academy.devdojo.repository;
 
 import academy.devdojo.commons.UserUtils;
 import academy.devdojo.config.IntegrationTestConfig;
+import academy.devdojo.domain.UserProfileSummary;
+import academy.devdojo.domain.UserSummary;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.jdbc.Sql;
 
 @DataJpaTest
@@ -35,4 +38,31 @@ class UserProfileRepositoryIT extends IntegrationTestConfig {
         users.forEach(user -> Assertions.assertThat(user).hasNoNullFieldsOrProperties());
     }
 
+    @Test
+    @DisplayName("findUserSummariesByProfileIdAfterUserId returns the next users of a profile in id order")
+    @Order(2)
+    @Sql("/sql/user_profile/init_user_profile_2_users_1_profile.sql")
+    void findUserSummariesByProfileIdAfterUserId_ReturnsNextUsers_WhenSuccessful() {
+        var firstPage = repository.findUserSummariesByProfileIdAfterUserId(1L, 0L, Limit.of(1));
+        Assertions.assertThat(firstPage).extracting(UserSummary::id).containsExactly(1L);
+
+        var secondPage = repository.findUserSummariesByProfileIdAfterUserId(1L, firstPage.getLast().id(), Limit.of(1));
+        Assertions.assertThat(secondPage).extracting(UserSummary::id).containsExactly(2L);
+
+        Assertions.assertThat(repository.findUserSummariesByProfileIdAfterUserId(1L, 2L, Limit.of(1))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("findAllSummaries returns every user profile with the user first name and the profile name")
+    @Order(3)
+    @Sql("/sql/user_profile/init_user_profile_2_users_1_profile.sql")
+    void findAllSummaries_ReturnsAllUserProfiles_WhenSuccessful() {
+        var userProfiles = repository.findAllSummaries();
+
+        Assertions.assertThat(userProfiles).containsExactly(
+                new UserProfileSummary(1L, 1L, "Leonardo", 1L, "Admin"),
+                new UserProfileSummary(2L, 2L, "Fulano", 1L, "Admin"));
+        Assertions.assertThat(repository.findSummariesAfterId(1L, Limit.of(1))).extracting(UserProfileSummary::id).containsExactly(2L);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,153 @@
+package academy.devdojo.repository;
+
+import academy.devdojo.config.IntegrationTestConfig;
+import academy.devdojo.pagination.UserSearchField;
+import com.github.gavlyukovskiy.boot.jdbc.decorator.DataSourceDecoratorAutoConfiguration;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+@DataJpaTest
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(DataSourceDecoratorAutoConfiguration.class)
+@Import(UserSearchExplainIT.CapturedQueries.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserSearchExplainIT extends IntegrationTestConfig {
+
+    private static final int USERS = 2_000;
+
+    @Autowired
+    private UserRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CapturedQueries capturedQueries;
+
+    @BeforeEach
+    void init() {
+        jdbcTemplate.update("DELETE FROM user_profile");
+        jdbcTemplate.update("DELETE FROM `user`");
+        var rows = IntStream.range(0, USERS)
+                .mapToObj(i -> new Object[]{"user%05d@domain%02d.com".formatted(i, i % 50), "First%05d".formatted(i), "Last%05d".formatted(i)})
+                .toList();
+        jdbcTemplate.batchUpdate("INSERT INTO `user` (email, first_name, last_name, roles, password) VALUES (?, ?, ?, 'USER', '')", rows);
+        jdbcTemplate.execute("ANALYZE TABLE `user`");
+        capturedQueries.clear();
+    }
+
+    @Test
+    @DisplayName("findByFirstNameIgnoreCase and findSummariesByFirstName use the normalized first name index")
+    @Order(1)
+    void findByFirstNameIgnoreCase_UsesIndex_WhenSearchingByFirstName() {
+        var users = repository.findByFirstNameIgnoreCase("FIRST00042");
+        var summaries = repository.findSummariesByFirstName("first00042");
+
+        Assertions.assertThat(users).hasSize(1);
+        Assertions.assertThat(summaries).hasSize(1);
+        assertNoFullScan();
+    }
+
+    @Test
+    @DisplayName("searchByPrefix uses the normalized column index for every field, with and without a cursor")
+    @Order(2)
+    void searchByPrefix_UsesIndex_ForEveryField() {
+        var firstPage = repository.searchByPrefix(UserSearchField.FIRST_NAME, "first001", "", 0, 6);
+        var last = firstPage.getLast();
+        var nextPage = repository.searchByPrefix(UserSearchField.FIRST_NAME, "first001", "first00105", last.id(), 6);
+        var lastNames = repository.searchByPrefix(UserSearchField.LAST_NAME, "last019", "", 0, 6);
+        var domains = repository.searchByPrefix(UserSearchField.EMAIL_DOMAIN, "domain07", "", 0, 21);
+
+        Assertions.assertThat(firstPage).hasSize(6);
+        Assertions.assertThat(nextPage).hasSize(4);
+        Assertions.assertThat(lastNames).hasSize(6);
+        Assertions.assertThat(domains).hasSize(21).allMatch(user -> user.email().endsWith("@domain07.com"));
+        assertNoFullScan();
+    }
+
+    @Test
+    @DisplayName("searchByPrefix treats LIKE wildcards in the prefix literally")
+    @Order(3)
+    void searchByPrefix_EscapesWildcards_WhenPrefixContainsThem() {
+        var users = repository.searchByPrefix(UserSearchField.FIRST_NAME, "first%", "", 0, 10);
+
+        Assertions.assertThat(users).isEmpty();
+    }
+
+    private void assertNoFullScan() {
+        var queries = capturedQueries.drain();
+        Assertions.assertThat(queries).isNotEmpty();
+
+        queries.forEach(query -> {
+            var plan = jdbcTemplate.queryForList("EXPLAIN " + query.sql(), query.args().toArray());
+            Assertions.assertThat(plan)
+                    .as("EXPLAIN %s", query.sql())
+                    .isNotEmpty()
+                    .allSatisfy(row -> {
+                        Assertions.assertThat(row.get("type")).isNotEqualTo("ALL");
+                        Assertions.assertThat(row.get("key")).isNotNull();
+                    });
+        });
+    }
+
+    record CapturedQuery(String sql, List<Object> args) {
+    }
+
+    @TestConfiguration
+    static class CapturedQueries implements QueryExecutionListener {
+
+        private final List<CapturedQuery> queries = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            queryInfoList.stream()
+                    .filter(queryInfo -> queryInfo.getQuery().stripLeading().toLowerCase().startsWith("select"))
+                    .forEach(queryInfo -> queries.add(new CapturedQuery(queryInfo.getQuery(), args(queryInfo))));
+        }
+
+        void clear() {
+            queries.clear();
+        }
+
+        List<CapturedQuery> drain() {
+            var drained = new ArrayList<>(queries);
+            queries.clear();
+            return drained;
+        }
+
+        private static List<Object> args(QueryInfo queryInfo) {
+            if (queryInfo.getParametersList().isEmpty()) {
+                return List.of();
+            }
+            return queryInfo.getParametersList().getFirst().stream()
+                    .map(ParameterSetOperation::getArgs)
+                    .sorted(Comparator.comparingInt(args -> (Integer) args[0]))
+                    .map(args -> args[1])
+                    .toList();
+        }
+    }
+}
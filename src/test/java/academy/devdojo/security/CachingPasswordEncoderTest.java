@@ -0,0 +1,80 @@
+package academy.devdojo.security;
+
+import academy.devdojo.config.CredentialCacheProperties;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class CachingPasswordEncoderTest {
+    private static final String RAW_PASSWORD = "test";
+    private static final String ENCODED_PASSWORD = "{bcrypt}$2a$10$i3XHDbx392pMTnB0KPe6E.eQ9iChjt2haKEw2kQ5F1Alyc2xSb/FK";
+
+    @Mock
+    private PasswordEncoder delegate;
+
+    private CachingPasswordEncoder newEncoder(boolean enabled) {
+        var properties = new CredentialCacheProperties(enabled, 100, Duration.ofMinutes(1));
+        return new CachingPasswordEncoder(delegate, new VerifiedCredentialCache(properties));
+    }
+
+    @Test
+    @DisplayName("matches skips the delegate once the credentials were verified")
+    @Order(1)
+    void matches_SkipsDelegate_WhenCredentialsWereVerified() {
+        var encoder = newEncoder(true);
+        BDDMockito.when(delegate.matches(RAW_PASSWORD, ENCODED_PASSWORD)).thenReturn(true);
+
+        Assertions.assertThat(encoder.matches(RAW_PASSWORD, ENCODED_PASSWORD)).isTrue();
+        Assertions.assertThat(encoder.matches(RAW_PASSWORD, ENCODED_PASSWORD)).isTrue();
+
+        BDDMockito.then(delegate).should(BDDMockito.times(1)).matches(RAW_PASSWORD, ENCODED_PASSWORD);
+    }
+
+    @Test
+    @DisplayName("matches calls the delegate for a different raw password")
+    @Order(2)
+    void matches_CallsDelegate_WhenRawPasswordIsDifferent() {
+        var encoder = newEncoder(true);
+        BDDMockito.when(delegate.matches(RAW_PASSWORD, ENCODED_PASSWORD)).thenReturn(true);
+        BDDMockito.when(delegate.matches("wrong", ENCODED_PASSWORD)).thenReturn(false);
+
+        encoder.matches(RAW_PASSWORD, ENCODED_PASSWORD);
+
+        Assertions.assertThat(encoder.matches("wrong", ENCODED_PASSWORD)).isFalse();
+    }
+
+    @Test
+    @DisplayName("matches does not cache failed matches")
+    @Order(3)
+    void matches_DoesNotCache_WhenMatchFails() {
+        var encoder = newEncoder(true);
+        BDDMockito.when(delegate.matches(RAW_PASSWORD, ENCODED_PASSWORD)).thenReturn(false);
+
+        encoder.matches(RAW_PASSWORD, ENCODED_PASSWORD);
+        encoder.matches(RAW_PASSWORD, ENCODED_PASSWORD);
+
+        BDDMockito.then(delegate).should(BDDMockito.times(2)).matches(RAW_PASSWORD, ENCODED_PASSWORD);
+    }
+
+    @Test
+    @DisplayName("matches always calls the delegate when the cache is disabled")
+    @Order(4)
+    void matches_AlwaysCallsDelegate_WhenCacheIsDisabled() {
+        var encoder = newEncoder(false);
+        BDDMockito.when(delegate.matches(ArgumentMatchers.any(), ArgumentMatchers.anyString())).thenReturn(true);
+
+        encoder.matches(RAW_PASSWORD, ENCODED_PASSWORD);
+        encoder.matches(RAW_PASSWORD, ENCODED_PASSWORD);
+
+        BDDMockito.then(delegate).should(BDDMockito.times(2)).matches(RAW_PASSWORD, ENCODED_PASSWORD);
+    }
+}
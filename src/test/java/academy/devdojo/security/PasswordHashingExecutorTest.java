@@ -0,0 +1,127 @@
+package academy.devdojo.security;
+
+import academy.devdojo.config.PasswordHashingProperties;
+import academy.devdojo.exception.HashingCapacityExceededException;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class PasswordHashingExecutorTest {
+    private PasswordHashingExecutor executor;
+    private CountDownLatch release;
+
+    @BeforeEach
+    void init() {
+        executor = new PasswordHashingExecutor(new PasswordHashingProperties(1, 2, Duration.ofSeconds(3)));
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("execute returns the result of the hashing work")
+    @Order(1)
+    void execute_ReturnsResult_WhenSuccessfull() {
+        var result = executor.execute(HashingPriority.PASSWORD_ENCODING, () -> "hash");
+
+        Assertions.assertThat(result).isEqualTo("hash");
+    }
+
+    @Test
+    @DisplayName("execute throws HashingCapacityExceededException with Retry-After when the queue is full")
+    @Order(2)
+    void execute_ThrowsHashingCapacityExceededException_WhenQueueIsFull() throws Exception {
+        var running = blockWorker();
+        Assertions.assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        executor.submit(HashingPriority.PASSWORD_ENCODING, () -> "queued-1");
+        executor.submit(HashingPriority.PASSWORD_ENCODING, () -> "queued-2");
+
+        Assertions.assertThatException()
+                .isThrownBy(() -> executor.execute(HashingPriority.AUTHENTICATION, () -> "rejected"))
+                .isInstanceOf(HashingCapacityExceededException.class)
+                .satisfies(e -> Assertions.assertThat(((HashingCapacityExceededException) e).getHeaders().getFirst("Retry-After"))
+                        .isEqualTo("3"));
+    }
+
+    @Test
+    @DisplayName("queued authentication work runs before queued password encoding work")
+    @Order(3)
+    void submit_RunsAuthenticationFirst_WhenBothAreQueued() throws Exception {
+        List<HashingPriority> order = new CopyOnWriteArrayList<>();
+        var running = blockWorker();
+        Assertions.assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+        var encoding = executor.submit(HashingPriority.PASSWORD_ENCODING, () -> order.add(HashingPriority.PASSWORD_ENCODING));
+        var authentication = executor.submit(HashingPriority.AUTHENTICATION, () -> order.add(HashingPriority.AUTHENTICATION));
+        release.countDown();
+        encoding.get(5, TimeUnit.SECONDS);
+        authentication.get(5, TimeUnit.SECONDS);
+
+        Assertions.assertThat(order).containsExactly(HashingPriority.AUTHENTICATION, HashingPriority.PASSWORD_ENCODING);
+    }
+
+    @Test
+    @DisplayName("execute runs nested work inline instead of queueing it behind the task that asked for it")
+    @Order(4)
+    void execute_RunsInline_WhenCalledFromHashingThread() throws Exception {
+        var result = executor.submit(HashingPriority.BULK_IMPORT, () -> executor.execute(HashingPriority.PASSWORD_ENCODING, () -> "hash"));
+
+        Assertions.assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("hash");
+    }
+
+    @Test
+    @DisplayName("submitWhenQueueHasRoom waits for a queue slot instead of rejecting the work")
+    @Order(5)
+    void submitWhenQueueHasRoom_WaitsForSlot_WhenQueueIsFull() throws Exception {
+        var running = blockWorker();
+        Assertions.assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        executor.submit(HashingPriority.PASSWORD_ENCODING, () -> "queued-1");
+        executor.submit(HashingPriority.PASSWORD_ENCODING, () -> "queued-2");
+
+        var waiting = Thread.ofVirtual().start(() -> executor.submitWhenQueueHasRoom(HashingPriority.BULK_IMPORT, () -> "imported"));
+        Assertions.assertThat(waiting.join(Duration.ofMillis(200))).isFalse();
+
+        release.countDown();
+        Assertions.assertThat(waiting.join(Duration.ofSeconds(5))).isTrue();
+    }
+
+    @Test
+    @DisplayName("shutdown fails the queued work so callers waiting on it return")
+    @Order(6)
+    void shutdown_FailsQueuedWork_WhenTasksAreWaiting() throws Exception {
+        var running = blockWorker();
+        Assertions.assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        var queued = executor.submit(HashingPriority.PASSWORD_ENCODING, () -> "queued");
+
+        executor.shutdown();
+
+        Assertions.assertThat(queued).failsWithin(Duration.ofSeconds(5))
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(HashingCapacityExceededException.class);
+    }
+
+    private CountDownLatch blockWorker() {
+        var running = new CountDownLatch(1);
+        executor.submit(HashingPriority.PASSWORD_ENCODING, () -> {
+            running.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        });
+        return running;
+    }
+}
@@ -0,0 +1,69 @@
+package academy.devdojo.security;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class RoleAuthoritiesTest {
+
+    @Test
+    @DisplayName("of returns the same authority list instance for the same roles")
+    @Order(1)
+    void of_ReturnsSameInstance_WhenRolesAreEqual() {
+        var first = RoleAuthorities.of("ADMIN,USER");
+        var second = RoleAuthorities.of(new String("ADMIN,USER"));
+
+        Assertions.assertThat(second).isSameAs(first);
+        Assertions.assertThat(first).extracting(GrantedAuthority::getAuthority).containsExactly("ADMIN", "USER");
+    }
+
+    @Test
+    @DisplayName("of shares authority instances between different role combinations")
+    @Order(2)
+    void of_SharesAuthorities_WhenRoleAppearsInSeveralCombinations() {
+        var admin = RoleAuthorities.of("ADMIN").getFirst();
+        var adminAndUser = RoleAuthorities.of("ADMIN,USER").getFirst();
+
+        Assertions.assertThat(adminAndUser).isSameAs(admin);
+    }
+
+    @Test
+    @DisplayName("of trims roles, skips blanks and returns an immutable list")
+    @Order(3)
+    void of_TrimsRoles_WhenRolesHaveSpaces() {
+        var authorities = RoleAuthorities.of(" USER , ,MANAGER");
+
+        Assertions.assertThat(authorities).extracting(GrantedAuthority::getAuthority).containsExactly("USER", "MANAGER");
+        Assertions.assertThatException()
+                .isThrownBy(() -> authorities.add(authorities.getFirst()))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    @DisplayName("of returns an empty list when roles are null or empty")
+    @Order(4)
+    void of_ReturnsEmptyList_WhenRolesAreMissing() {
+        Assertions.assertThat(RoleAuthorities.of((String) null)).isEmpty();
+        Assertions.assertThat(RoleAuthorities.of("")).isEmpty();
+        Assertions.assertThat(RoleAuthorities.of(List.of())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("of returns the authority list of the joined roles for a claim list and keeps it after the list changes")
+    @Order(5)
+    void of_ReturnsSameInstance_WhenClaimListsAreEqual() {
+        var claim = new ArrayList<>(List.of("ADMIN", "USER"));
+        var first = RoleAuthorities.of(claim);
+        claim.set(1, "MANAGER");
+        var second = RoleAuthorities.of(List.of("ADMIN", "USER"));
+
+        Assertions.assertThat(first).isSameAs(RoleAuthorities.of("ADMIN,USER"));
+        Assertions.assertThat(second).isSameAs(first);
+        Assertions.assertThat(RoleAuthorities.of(List.of("ADMIN"))).isSameAs(RoleAuthorities.of("ADMIN"));
+        Assertions.assertThat(RoleAuthorities.of(claim)).extracting(GrantedAuthority::getAuthority).containsExactly("ADMIN", "MANAGER");
+    }
+}
@@ -0,0 +1,51 @@
+package academy.devdojo.security;
+
+import academy.devdojo.config.TokenProperties;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TokenRevocationListTest {
+    private static final Duration TTL = Duration.ofMinutes(15);
+    private static final Duration CLOCK_SKEW = Duration.ofSeconds(60);
+    private static final long USER_ID = 1L;
+
+    private AtomicLong nanos;
+    private TokenRevocationList revocationList;
+
+    @BeforeEach
+    void init() {
+        nanos = new AtomicLong();
+        revocationList = new TokenRevocationList(new TokenProperties(null, "user-service", TTL, 100, CLOCK_SKEW), nanos::get);
+    }
+
+    @Test
+    @DisplayName("isRevoked accepts a token issued in the same second as the revocation and rejects one from the second before")
+    @Order(1)
+    void isRevoked_ComparesWholeSeconds_WhenTokenIsIssuedAroundTheRevocation() {
+        revocationList.revoke(USER_ID, Instant.parse("2024-05-01T10:15:30.700Z"));
+
+        Assertions.assertThat(revocationList.isRevoked(USER_ID, Instant.parse("2024-05-01T10:15:30Z"))).isFalse();
+        Assertions.assertThat(revocationList.isRevoked(USER_ID, Instant.parse("2024-05-01T10:15:31Z"))).isFalse();
+        Assertions.assertThat(revocationList.isRevoked(USER_ID, Instant.parse("2024-05-01T10:15:29Z"))).isTrue();
+        Assertions.assertThat(revocationList.isRevoked(2L, Instant.parse("2024-05-01T10:15:29Z"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("isRevoked keeps the revocation for the token ttl plus the clock skew accepted past exp")
+    @Order(2)
+    void isRevoked_KeepsRevocation_UntilTtlPlusClockSkewHasPassed() {
+        var issuedAt = Instant.parse("2024-05-01T10:15:29Z");
+        revocationList.revoke(USER_ID, Instant.parse("2024-05-01T10:15:30Z"));
+
+        nanos.addAndGet(TTL.plus(CLOCK_SKEW).minusSeconds(1).toNanos());
+        Assertions.assertThat(revocationList.isRevoked(USER_ID, issuedAt)).isTrue();
+
+        nanos.addAndGet(Duration.ofSeconds(1).toNanos());
+        Assertions.assertThat(revocationList.isRevoked(USER_ID, issuedAt)).isFalse();
+    }
+}
@@ -0,0 +1,83 @@
+package academy.devdojo.security;
+
+import academy.devdojo.commons.UserUtils;
+import academy.devdojo.config.TokenConfig;
+import academy.devdojo.config.TokenProperties;
+import academy.devdojo.domain.User;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class TokenServiceTest {
+    private TokenService service;
+    private JwtDecoder decoder;
+    private TokenRevocationList revocationList;
+    private User user;
+
+    @BeforeEach
+    void init() {
+        var properties = new TokenProperties(null, "user-service", Duration.ofMinutes(15), 100, Duration.ofSeconds(60));
+        var config = new TokenConfig();
+        var key = config.tokenSigningKey(properties);
+        revocationList = new TokenRevocationList(properties);
+        service = new TokenService(config.jwtEncoder(key), properties);
+        decoder = config.jwtDecoder(key, properties, revocationList);
+        user = new UserUtils().newUserSaved().withRoles("ADMIN,USER");
+    }
+
+    @Test
+    @DisplayName("issue returns a signed token carrying the user id and roles")
+    @Order(1)
+    void issue_ReturnsSignedToken_WhenSuccessfull() {
+        var response = service.issue(user);
+
+        var jwt = decoder.decode(response.accessToken());
+
+        Assertions.assertThat(response.tokenType()).isEqualTo("Bearer");
+        Assertions.assertThat(response.expiresIn()).isEqualTo(900);
+        Assertions.assertThat(jwt.getSubject()).isEqualTo(user.getEmail());
+        Assertions.assertThat(jwt.<Number>getClaim(TokenService.USER_ID_CLAIM).longValue()).isEqualTo(user.getId());
+        Assertions.assertThat(jwt.getClaimAsStringList(TokenService.ROLES_CLAIM)).isEqualTo(List.of("ADMIN", "USER"));
+    }
+
+    @Test
+    @DisplayName("decode rejects a token issued before the user was revoked")
+    @Order(2)
+    void decode_ThrowsJwtValidationException_WhenUserWasRevoked() {
+        var response = service.issue(user);
+
+        revocationList.revoke(user.getId(), Instant.now().plusSeconds(1));
+
+        Assertions.assertThatException()
+                .isThrownBy(() -> decoder.decode(response.accessToken()))
+                .isInstanceOf(JwtValidationException.class);
+    }
+
+    @Test
+    @DisplayName("decode rejects a token with a tampered signature")
+    @Order(3)
+    void decode_ThrowsException_WhenSignatureIsTampered() {
+        var token = service.issue(user).accessToken();
+        var tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        Assertions.assertThatException()
+                .isThrownBy(() -> decoder.decode(tampered));
+    }
+
+    @Test
+    @DisplayName("decode accepts a token issued right after the user was revoked")
+    @Order(4)
+    void decode_ReturnsJwt_WhenTokenIsIssuedAfterRevocation() {
+        revocationList.revoke(user.getId());
+
+        var response = service.issue(user);
+
+        Assertions.assertThat(decoder.decode(response.accessToken()).getSubject()).isEqualTo(user.getEmail());
+    }
+}
@@ -0,0 +1,78 @@
+package academy.devdojo.service;
+
+import academy.devdojo.commons.UserUtils;
+import academy.devdojo.config.UserDetailsCacheProperties;
+import academy.devdojo.domain.User;
+import academy.devdojo.repository.UserRepository;
+import academy.devdojo.security.UserDetailsCache;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class CustomUserDetailsServiceTest {
+    private CustomUserDetailsService service;
+
+    @Mock
+    private UserRepository repository;
+    private UserDetailsCache cache;
+    private User user;
+
+    @BeforeEach
+    void init() {
+        cache = new UserDetailsCache(new UserDetailsCacheProperties(100, Duration.ofMinutes(1)));
+        service = new CustomUserDetailsService(repository, cache);
+        user = new UserUtils().newUserSaved();
+    }
+
+    @Test
+    @DisplayName("loadUserByUsername returns the cached user without hitting the repository again")
+    @Order(1)
+    void loadUserByUsername_ReturnsCachedUser_WhenCalledTwice() {
+        BDDMockito.when(repository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+
+        var first = service.loadUserByUsername(user.getEmail());
+        var second = service.loadUserByUsername(user.getEmail());
+
+        Assertions.assertThat(second).isSameAs(first).isEqualTo(user);
+        BDDMockito.then(repository).should(BDDMockito.times(1)).findByEmail(user.getEmail());
+    }
+
+    @Test
+    @DisplayName("loadUserByUsername reloads the user after it was evicted")
+    @Order(2)
+    void loadUserByUsername_ReloadsUser_WhenEvicted() {
+        BDDMockito.when(repository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+
+        service.loadUserByUsername(user.getEmail());
+        cache.evict(user.getEmail());
+        service.loadUserByUsername(user.getEmail());
+
+        BDDMockito.then(repository).should(BDDMockito.times(2)).findByEmail(user.getEmail());
+    }
+
+    @Test
+    @DisplayName("loadUserByUsername throws UsernameNotFoundException and caches nothing when user is not found")
+    @Order(3)
+    void loadUserByUsername_ThrowsUsernameNotFoundException_WhenUserIsNotFound() {
+        var email = "not-found@email.com";
+        BDDMockito.when(repository.findByEmail(email)).thenReturn(Optional.empty());
+
+        Assertions.assertThatException()
+                .isThrownBy(() -> service.loadUserByUsername(email))
+                .isInstanceOf(UsernameNotFoundException.class);
+        Assertions.assertThatException()
+                .isThrownBy(() -> service.loadUserByUsername(email))
+                .isInstanceOf(UsernameNotFoundException.class);
+
+        BDDMockito.then(repository).should(BDDMockito.times(2)).findByEmail(email);
+    }
+}
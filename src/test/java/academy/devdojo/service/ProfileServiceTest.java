@@ -1,7 +1,12 @@
 package academy.devdojo.service;
 
+import academy.devdojo.catalog.ProfileCatalog;
 import academy.devdojo.commons.ProfileUtils;
 import academy.devdojo.domain.Profile;
+import academy.devdojo.outbox.OutboxAggregateType;
+import academy.devdojo.outbox.OutboxEventType;
+import academy.devdojo.outbox.OutboxWriter;
+import academy.devdojo.outbox.ProfileEventPayload;
 import academy.devdojo.repository.ProfileRepository;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.*;
@@ -24,6 +29,10 @@ class ProfileServiceTest {
 
     @Mock
     private ProfileRepository repository;
+    @Mock
+    private ProfileCatalog catalog;
+    @Mock
+    private OutboxWriter outboxWriter;
     private List<Profile> profilesList;
 
     @InjectMocks
@@ -38,7 +47,7 @@ class ProfileServiceTest {
     @DisplayName("findAll returns a list with all profiles")
     @Order(1)
     void findAll_ReturnsAllProfiles_WhenSuccessfull() {
-        BDDMockito.when(repository.findAll()).thenReturn(profilesList);
+        BDDMockito.when(catalog.findAll()).thenReturn(profilesList);
         var profiles = service.findAll();
         Assertions.assertThat(profiles).isNotNull().hasSameElementsAs(profilesList);
     }
@@ -49,7 +58,7 @@ class ProfileServiceTest {
     void findAllPaginated_ReturnsPaginatedProfiles_WhenSuccessfull() {
         var pageRequest = PageRequest.of(0, profilesList.size());
         var pageProfile = new PageImpl<>(profilesList, pageRequest, 1);
-        BDDMockito.when(repository.findAll(BDDMockito.any(Pageable.class))).thenReturn(pageProfile);
+        BDDMockito.when(catalog.findPage(BDDMockito.any(Pageable.class))).thenReturn(pageProfile);
         var profileFound = service.findAllPaginated(pageRequest);
         Assertions.assertThat(profileFound).isNotNull().hasSameElementsAs(profilesList);
     }
@@ -66,6 +75,9 @@ class ProfileServiceTest {
         var savedProfile = service.save(profileToSaved);
 
         Assertions.assertThat(savedProfile).isEqualTo(profileSaved).hasNoNullFieldsOrProperties();
+        BDDMockito.then(outboxWriter).should().record(OutboxAggregateType.PROFILE, profileSaved.getId(), OutboxEventType.CREATED,
+                new ProfileEventPayload(profileSaved.getId(), profileSaved.getName(), profileSaved.getDescription()));
+        BDDMockito.then(catalog).should().putAfterCommit(profileSaved);
     }
 
 
@@ -5,17 +5,23 @@ import academy.devdojo.commons.UserProfileUtils;
 import academy.devdojo.commons.UserUtils;
 import academy.devdojo.domain.User;
 import academy.devdojo.domain.UserProfile;
+import academy.devdojo.domain.UserProfileSummary;
+import academy.devdojo.domain.UserSummary;
+import academy.devdojo.pagination.ScrollCursor;
 import academy.devdojo.repository.UserProfileRepository;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @ExtendWith(MockitoExtension.class)
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
@@ -41,12 +47,13 @@ class UserProfileServiceTest {
     @DisplayName("findAll() returns a list with all user profiles")
     @Order(1)
     void findAll_ReturnsAllProfiles_WhenSuccessful() {
-        BDDMockito.when(repository.findAll()).thenReturn(userProfileList);
+        var userProfileSummaries = userProfileList.stream().map(this::toSummary).toList();
+        BDDMockito.when(repository.findAllSummaries()).thenReturn(userProfileSummaries);
 
         var userProfiles = service.findAll();
         Assertions.assertThat(userProfiles)
                 .isNotNull()
-                .hasSameElementsAs(userProfileList);
+                .hasSameElementsAs(userProfileSummaries);
         userProfiles.forEach(userProfile -> Assertions.assertThat(userProfile).hasNoNullFieldsOrProperties());
     }
 
@@ -59,9 +66,9 @@ class UserProfileServiceTest {
         //pegar todos os usuarios desse profileId
         var usersByProfile = this.userProfileList.stream()
                 .filter(userProfile -> userProfile.getProfile().getId().equals(profileId))
-                .map(UserProfile::getUser).toList();
+                .map(UserProfile::getUser).map(userUtils::toSummary).toList();
 
-        BDDMockito.when(repository.findAllUserByProfileId(profileId)).thenReturn(usersByProfile);
+        BDDMockito.when(repository.findAllUserSummariesByProfileId(profileId)).thenReturn(usersByProfile);
 
         var users = service.findAllUsersByProfileId(profileId);
 
@@ -75,5 +82,54 @@ class UserProfileServiceTest {
 
     }
 
+    @Test
+    @DisplayName("findUsersByProfileIdScrolled seeks after the user id in the cursor and reports the next page")
+    @Order(3)
+    void findUsersByProfileIdScrolled_ReturnsWindowAfterCursor_WhenSuccessful() {
+        var profileId = 1L;
+        var users = userUtils.newUserSummaryList();
+        BDDMockito.when(repository.findUserSummariesByProfileIdAfterUserId(ArgumentMatchers.eq(profileId), ArgumentMatchers.eq(1L),
+                ArgumentMatchers.any())).thenReturn(users);
+
+        var cursor = new ScrollCursor("id", Map.of("id", 1L));
+        var window = service.findUsersByProfileIdScrolled(profileId, cursor, users.size() - 1);
+
+        Assertions.assertThat(window.getContent()).containsExactlyElementsOf(users.subList(0, users.size() - 1));
+        Assertions.assertThat(window.hasNext()).isTrue();
+    }
+
+    @Test
+    @DisplayName("forEachUserOfProfile passes every streamed user of the profile to the consumer")
+    @Order(4)
+    void forEachUserOfProfile_ConsumesEveryUser_WhenSuccessful() {
+        var profileId = 1L;
+        var users = userUtils.newUserSummaryList();
+        BDDMockito.when(repository.streamUserSummariesByProfileId(profileId)).thenReturn(users.stream());
+
+        var consumed = new ArrayList<UserSummary>();
+        service.forEachUserOfProfile(profileId, consumed::add);
+
+        Assertions.assertThat(consumed).containsExactlyElementsOf(users);
+    }
+
+    @Test
+    @DisplayName("findAllScrolled seeks after the id in the cursor and reports the next page")
+    @Order(5)
+    void findAllScrolled_ReturnsWindowAfterCursor_WhenSuccessful() {
+        var userProfileSummaries = userProfileList.stream().map(this::toSummary).toList();
+        BDDMockito.when(repository.findSummariesAfterId(ArgumentMatchers.eq(1L), ArgumentMatchers.any())).thenReturn(userProfileSummaries);
+
+        var cursor = new ScrollCursor("id", Map.of("id", 1L));
+        var window = service.findAllScrolled(cursor, userProfileSummaries.size() - 1);
+
+        Assertions.assertThat(window.getContent()).containsExactlyElementsOf(userProfileSummaries.subList(0, userProfileSummaries.size() - 1));
+        Assertions.assertThat(window.hasNext()).isTrue();
+    }
+
+    private UserProfileSummary toSummary(UserProfile userProfile) {
+        return new UserProfileSummary(userProfile.getId(), userProfile.getUser().getId(), userProfile.getUser().getFirstName(),
+                userProfile.getProfile().getId(), userProfile.getProfile().getName());
+    }
+
 
 }
\ No newline at end of file
@@ -1,10 +1,29 @@
 package academy.devdojo.service;
 
 import academy.devdojo.commons.UserUtils;
+import academy.devdojo.config.TokenProperties;
+import academy.devdojo.config.UserDetailsCacheProperties;
+import academy.devdojo.datasource.ReadYourWrites;
 import academy.devdojo.domain.User;
+import academy.devdojo.domain.UserColumn;
+import academy.devdojo.domain.UserDeleteCount;
+import academy.devdojo.domain.UserSummary;
+import academy.devdojo.etag.UserVersionCache;
+import academy.devdojo.exception.BadRequestException;
 import academy.devdojo.exception.EmailAlreadyExistsException;
-import academy.devdojo.mapper.UserMapper;
+import academy.devdojo.exception.PreconditionFailedException;
+import academy.devdojo.outbox.OutboxAggregateType;
+import academy.devdojo.outbox.OutboxEventType;
+import academy.devdojo.outbox.OutboxWriter;
+import academy.devdojo.outbox.UserEventPayload;
+import academy.devdojo.pagination.ScrollCursor;
+import academy.devdojo.pagination.UserSearchField;
+import academy.devdojo.pagination.UserScrollSort;
+import academy.devdojo.repository.UserProfileRepository;
 import academy.devdojo.repository.UserRepository;
+import academy.devdojo.security.TokenRevocationList;
+import academy.devdojo.security.UserDetailsCache;
+import academy.devdojo.security.VerifiedCredentialCache;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,56 +31,87 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Window;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
 
 import static org.mockito.ArgumentMatchers.any;
 
 @ExtendWith(MockitoExtension.class)
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 class UserServiceTest {
+    private static final String DUPLICATE_EMAIL = "Duplicate entry 'leo@email.com' for key 'user.UKob8kqyqqgmefl0aco34akdtpe'";
     @InjectMocks
     private UserService service;
 
     @Mock
     private UserRepository repository;
+    @Mock
+    private UserProfileRepository userProfileRepository;
     private List<User> usersList;
+    private List<UserSummary> summariesList;
 
     @InjectMocks
     private UserUtils userUtils;
     @Mock
-    private UserMapper mapper;
+    private UserDetailsCache userDetailsCache;
+    @Mock
+    private VerifiedCredentialCache verifiedCredentialCache;
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+    @Mock
+    private UserVersionCache userVersionCache;
+    @Mock
+    private ReadYourWrites readYourWrites;
+    @Mock
+    private OutboxWriter outboxWriter;
 
     @BeforeEach
     void init() {
         usersList = userUtils.newUserList();
+        summariesList = userUtils.newUserSummaryList();
     }
 
     @Test
     @DisplayName("findAll returns a list with all users when argument is null")
     @Order(1)
     void findAll_ReturnsAllUsers_WhenArgumentIsNull() {
-        BDDMockito.when(repository.findAll()).thenReturn(usersList);
+        BDDMockito.when(repository.findAllSummaries()).thenReturn(summariesList);
         var users = service.findAll(null);
-        Assertions.assertThat(users).isNotNull().hasSameElementsAs(usersList);
+        Assertions.assertThat(users).isNotNull().hasSameElementsAs(summariesList);
     }
 
     @Test
     @DisplayName("findAllPaginated returns a paginated list with all users")
     @Order(1)
     void findAllPaginated_ReturnsPaginatedUsers_WhenSuccessfull() {
-        var pageRequest = PageRequest.of(0, usersList.size());
-        var pageUser = new PageImpl<>(usersList, pageRequest, 1);
-        BDDMockito.when(repository.findAll(any(Pageable.class))).thenReturn(pageUser);
+        var pageRequest = PageRequest.of(0, summariesList.size());
+        var pageUser = new PageImpl<>(summariesList, pageRequest, 1);
+        BDDMockito.when(repository.findSummariesBy(any(Pageable.class))).thenReturn(pageUser);
         var userFound = service.findAllPaginated(pageRequest);
-        Assertions.assertThat(userFound).isNotNull().hasSameElementsAs(usersList);
+        Assertions.assertThat(userFound).isNotNull().hasSameElementsAs(summariesList);
     }
 
 
@@ -69,10 +119,10 @@ class UserServiceTest {
     @DisplayName("findAll returns list with found object when firstname exists")
     @Order(2)
     void findByName_ReturnsFoundUser_WhenFirstNameIsFound() {
-        var user = usersList.getFirst();
+        var user = summariesList.getFirst();
         var expectedUsersFound = Collections.singletonList(user);
-        BDDMockito.when(repository.findByFirstNameIgnoreCase(user.getFirstName())).thenReturn(expectedUsersFound);
-        var usersFound = service.findAll(user.getFirstName());
+        BDDMockito.when(repository.findSummariesByFirstName(user.firstName())).thenReturn(expectedUsersFound);
+        var usersFound = service.findAll(user.firstName());
         Assertions.assertThat(usersFound).containsAll(expectedUsersFound);
     }
 
@@ -81,7 +131,7 @@ class UserServiceTest {
     @Order(3)
     void findByName_ReturnsEmptyList_WhenFirstNameIsNotFound() {
         var firstName = "not-found";
-        BDDMockito.when(repository.findByFirstNameIgnoreCase(firstName)).thenReturn(Collections.emptyList());
+        BDDMockito.when(repository.findSummariesByFirstName(firstName)).thenReturn(Collections.emptyList());
         var users = service.findAll(firstName);
         Assertions.assertThat(users).isNotNull().isEmpty();
     }
@@ -111,77 +161,94 @@ class UserServiceTest {
     }
 
     @Test
-    @DisplayName("save creates an user")
+    @DisplayName("save creates an user without looking the email up first")
     @Order(6)
     void save_CreatesUser_WhenSuccessfull() {
         var userSaved = userUtils.newUserSaved();
 
         BDDMockito.when(repository.save(userSaved)).thenReturn(userSaved);
-        BDDMockito.when(repository.findByEmail(userSaved.getEmail())).thenReturn(Optional.empty());
 
         var savedUser = service.save(userSaved);
 
         Assertions.assertThat(savedUser).isEqualTo(userSaved).hasNoNullFieldsOrProperties();
+        BDDMockito.then(outboxWriter).should().record(OutboxAggregateType.USER, userSaved.getId(), OutboxEventType.CREATED,
+                new UserEventPayload(userSaved.getId(), userSaved.getFirstName(), userSaved.getLastName(), userSaved.getEmail()));
+        BDDMockito.then(readYourWrites).should().markWrite();
+        BDDMockito.then(readYourWrites).should().markWriteFor(userSaved.getEmail());
+        BDDMockito.then(userVersionCache).should().evictCollection();
+        BDDMockito.then(repository).should(BDDMockito.never()).findByEmail(any());
     }
 
     @Test
-    @DisplayName("delete removes an user")
+    @DisplayName("delete removes an user with a single delete statement")
     @Order(7)
     void delete_RemoveUser_WhenSuccesfull() {
 
         var userToDelete = usersList.getFirst();
-        BDDMockito.when(repository.findById(userToDelete.getId())).thenReturn(Optional.of(userToDelete));
-        BDDMockito.doNothing().when(repository).delete(userToDelete);
-
-        Assertions.assertThatNoException().isThrownBy(() -> service.delete(userToDelete.getId()));
+        var id = userToDelete.getId();
+        BDDMockito.when(repository.deleteUserById(id)).thenReturn(1);
+        BDDMockito.when(userDetailsCache.evictById(id)).thenReturn(Optional.of(userToDelete));
+
+        Assertions.assertThatNoException().isThrownBy(() -> service.delete(id));
+        BDDMockito.then(verifiedCredentialCache).should().evict(userToDelete.getPassword());
+        BDDMockito.then(tokenRevocationList).should().revoke(id);
+        BDDMockito.then(userVersionCache).should().evict(id);
+        BDDMockito.then(userVersionCache).should().evictCollection();
+        BDDMockito.then(outboxWriter).should().record(OutboxAggregateType.USER, id, OutboxEventType.DELETED, UserEventPayload.deleted(id));
+        BDDMockito.then(repository).should().insertTombstonesByIdIn(List.of(id));
+        BDDMockito.then(readYourWrites).should().markWrite();
+        BDDMockito.then(repository).should(BDDMockito.never()).findById(any());
 
     }
 
     @Test
-    @DisplayName("delete throws ResponseStatusException when user is notFound")
+    @DisplayName("delete throws ResponseStatusException when no row was deleted")
     @Order(8)
     void delete_ThrowsReponseStatusException_WhenUserIsNotFound() {
 
         var userToDelete = usersList.getFirst();
-        BDDMockito.when(repository.findById(userToDelete.getId())).thenReturn(Optional.empty());
+        BDDMockito.when(repository.deleteUserById(userToDelete.getId())).thenReturn(0);
 
         Assertions.assertThatException()
                 .isThrownBy(() -> service.delete(userToDelete.getId()))
                 .isInstanceOf(ResponseStatusException.class);
+        BDDMockito.then(readYourWrites).shouldHaveNoInteractions();
+        BDDMockito.then(outboxWriter).shouldHaveNoInteractions();
 
     }
 
     @Test
-    @DisplayName("update updates an user")
+    @DisplayName("update updates an user with a single update statement and keeps the password when none is given")
     @Order(9)
     void update_UpdatesUser_WhenSuccessfull() {
 
-        var userToUpdate = usersList.getFirst();
+        var userToUpdate = usersList.getFirst().withPassword(null);
         var email = userToUpdate.getEmail();
         var id = userToUpdate.getId();
         userToUpdate.setFirstName("Thiago");
 
-        BDDMockito.when(repository.findById(userToUpdate.getId())).thenReturn(Optional.of(userToUpdate));
-        BDDMockito.when(repository.findByEmailAndIdNot(email, id)).thenReturn(Optional.empty());
-        BDDMockito.when(repository.save(userToUpdate)).thenReturn(userToUpdate);
-        BDDMockito.when(mapper.toUserWithPasswordAndRoles(any(), any(), any())).thenReturn(userToUpdate);
-
-        service.update(userToUpdate);
-
+        BDDMockito.when(repository.updateById(id, "Thiago", userToUpdate.getLastName(), email, null)).thenReturn(1);
 
         Assertions.assertThatNoException().isThrownBy(() -> service.update(userToUpdate));
+        BDDMockito.then(userDetailsCache).should().evictById(id);
+        BDDMockito.then(userDetailsCache).should().evict(email);
+        BDDMockito.then(userVersionCache).should().evict(id);
+        BDDMockito.then(userVersionCache).should().evictCollection();
+        BDDMockito.then(readYourWrites).should().markWrite();
+        BDDMockito.then(tokenRevocationList).shouldHaveNoInteractions();
+        BDDMockito.then(repository).should(BDDMockito.never()).findById(any());
 
     }
 
     @Test
-    @DisplayName("update throws ResponseStatusException when user is notFound")
+    @DisplayName("update throws ResponseStatusException when no row was updated")
     @Order(10)
     void update_ThrowsResponseStatusException_WhenUserIsNotFound() {
 
         var userToUpdate = usersList.getFirst();
         userToUpdate.setFirstName("Thiago");
 
-        BDDMockito.when(repository.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.empty());
+        BDDMockito.when(repository.updateById(ArgumentMatchers.anyLong(), any(), any(), any(), any())).thenReturn(0);
 
 
         Assertions.assertThatException()
@@ -190,43 +257,365 @@ class UserServiceTest {
     }
 
     @Test
-    @DisplayName("update throws EmailAlreadyExistsException when email belongs to another user")
+    @DisplayName("update throws EmailAlreadyExistsException when the email unique key is violated")
     @Order(11)
     void update_ThrowsEmailAlreadyExistsException_WhenEmailBelongToAnotherUser() {
 
         var savedUser = usersList.getLast();
         var userToUpdate = usersList.getFirst().withEmail(savedUser.getEmail());
-        var email = userToUpdate.getEmail();
-        var id = userToUpdate.getId();
 
 
-        BDDMockito.when(repository.findById(userToUpdate.getId())).thenReturn(Optional.of(userToUpdate));
-        BDDMockito.when(repository.findByEmailAndIdNot(email, id)).thenReturn(Optional.of(savedUser));
+        BDDMockito.when(repository.updateById(ArgumentMatchers.anyLong(), any(), any(), any(), any()))
+                .thenThrow(new DataIntegrityViolationException(DUPLICATE_EMAIL));
 
 
         Assertions.assertThatException()
                 .isThrownBy(() -> service.update(userToUpdate))
-                .isInstanceOf(EmailAlreadyExistsException.class);
+                .isInstanceOf(EmailAlreadyExistsException.class)
+                .withMessageContaining(savedUser.getEmail());
     }
 
     @Test
-    @DisplayName("save throws EmailAlreadyExistsException when email exists")
+    @DisplayName("update revokes tokens and the verified credential when the password changes")
     @Order(12)
+    void update_RevokesTokens_WhenPasswordChanges() {
+
+        var cachedUser = usersList.getFirst();
+        var userToUpdate = cachedUser.withPassword("{bcrypt}new-hash");
+        var id = userToUpdate.getId();
+
+        BDDMockito.when(repository.updateById(ArgumentMatchers.anyLong(), any(), any(), any(), any())).thenReturn(1);
+        BDDMockito.when(userDetailsCache.evictById(id)).thenReturn(Optional.of(cachedUser));
+
+        service.update(userToUpdate);
+
+        BDDMockito.then(verifiedCredentialCache).should().evict(cachedUser.getPassword());
+        BDDMockito.then(tokenRevocationList).should().revoke(id);
+    }
+
+    @Test
+    @DisplayName("save throws EmailAlreadyExistsException when the email unique key is violated")
+    @Order(13)
     void save_ThrowsEmailAlreadyExistsException_WhenEmailExists() {
 
         var savedUser = usersList.getLast();
         var userToSave = userUtils.newUserToSave().withEmail(savedUser.getEmail());
-        var email = userToSave.getEmail();
 
 
-        BDDMockito.when(repository.findByEmail(email)).thenReturn(Optional.of(savedUser));
+        BDDMockito.when(repository.save(userToSave)).thenThrow(new DataIntegrityViolationException(DUPLICATE_EMAIL));
 
 
         Assertions.assertThatException()
                 .isThrownBy(() -> service.save(userToSave))
                 .isInstanceOf(EmailAlreadyExistsException.class);
+        BDDMockito.then(readYourWrites).shouldHaveNoInteractions();
+
+    }
+
+    @Test
+    @DisplayName("save rethrows DataIntegrityViolationException when a constraint other than the email unique key is violated")
+    @Order(14)
+    void save_RethrowsDataIntegrityViolationException_WhenOtherConstraintIsViolated() {
+        var userToSave = userUtils.newUserToSave();
+        var dataTooLong = new DataIntegrityViolationException("Data too long for column 'first_name' at row 1");
+        BDDMockito.when(repository.save(userToSave)).thenThrow(dataTooLong);
 
+        Assertions.assertThatException()
+                .isThrownBy(() -> service.save(userToSave))
+                .isSameAs(dataTooLong);
+    }
+
+    @Test
+    @DisplayName("findAllScrolled starts from the first row when cursor is null")
+    @Order(15)
+    void findAllScrolled_StartsFromFirstRow_WhenCursorIsNull() {
+        BDDMockito.when(repository.findSummariesAfterId(0L, Limit.of(4))).thenReturn(summariesList);
+
+        var usersFound = service.findAllScrolled(null, UserScrollSort.ID, 3);
+
+        Assertions.assertThat(usersFound).isNotNull().hasSameElementsAs(summariesList);
+        Assertions.assertThat(usersFound.hasNext()).isFalse();
     }
 
+    @Test
+    @DisplayName("findAllScrolled seeks after the cursor keys when cursor is given")
+    @Order(16)
+    void findAllScrolled_SeeksAfterCursorKeys_WhenCursorIsGiven() {
+        var cursor = ScrollCursor.decode(new ScrollCursor("email", Map.of("email", "ciclano@email.com", "id", 2)).encode());
+        BDDMockito.when(repository.findSummariesAfterEmail("ciclano@email.com", 2L, Limit.of(2))).thenReturn(summariesList.subList(0, 2));
+
+        var usersFound = service.findAllScrolled(cursor, UserScrollSort.EMAIL, 1);
+
+        Assertions.assertThat(usersFound).containsExactly(summariesList.getFirst());
+        Assertions.assertThat(usersFound.hasNext()).isTrue();
+        Assertions.assertThat(usersFound.positionAt(0))
+                .isEqualTo(ScrollPosition.forward(Map.of("email", summariesList.getFirst().email(), "id", summariesList.getFirst().id())));
+    }
+
+    @Test
+    @DisplayName("findAllScrolled throws BadRequestException when cursor keys do not match the sort")
+    @Order(17)
+    void findAllScrolled_ThrowsBadRequestException_WhenCursorKeysDoNotMatchSort() {
+        var cursor = new ScrollCursor("id", Map.of("id", 2L));
 
+        Assertions.assertThatException()
+                .isThrownBy(() -> service.findAllScrolled(cursor, UserScrollSort.EMAIL, 1))
+                .isInstanceOf(BadRequestException.class);
+
+        BDDMockito.verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("findAllSliced returns a slice of users without counting")
+    @Order(18)
+    void findAllSliced_ReturnsSliceOfUsers_WhenSuccessfull() {
+        var pageRequest = PageRequest.of(0, summariesList.size());
+        BDDMockito.when(repository.findSummarySliceBy(pageRequest)).thenReturn(new SliceImpl<>(summariesList, pageRequest, true));
+
+        var usersFound = service.findAllSliced(pageRequest);
+
+        Assertions.assertThat(usersFound.hasNext()).isTrue();
+        Assertions.assertThat(usersFound).hasSameElementsAs(summariesList);
+        BDDMockito.verify(repository, BDDMockito.never()).count();
+    }
+
+    @Test
+    @DisplayName("forEachSummary passes every user to the consumer and closes the stream")
+    @Order(19)
+    void forEachSummary_PassesEveryUserAndClosesStream_WhenSuccessfull() {
+        var closed = new AtomicBoolean();
+        var summaries = summariesList.stream().onClose(() -> closed.set(true));
+        BDDMockito.when(repository.streamAllSummaries()).thenReturn(summaries);
+
+        var consumed = new ArrayList<UserSummary>();
+        service.forEachSummary(consumed::add);
+
+        Assertions.assertThat(consumed).extracting(UserSummary::id).containsExactly(1L, 2L, 3L);
+        Assertions.assertThat(closed).isTrue();
+    }
+
+    @Test
+    @DisplayName("search returns one page and a position to continue from when there are more matches")
+    @Order(20)
+    void search_ReturnsPageWithNextPosition_WhenThereAreMoreMatches() {
+        BDDMockito.when(repository.searchByPrefix(UserSearchField.LAST_NAME, "s", "", 0L, 2)).thenReturn(summariesList);
+
+        var usersFound = service.search(UserSearchField.LAST_NAME, " S ", null, 1);
+
+        Assertions.assertThat(usersFound.getContent()).containsExactly(summariesList.getFirst());
+        Assertions.assertThat(usersFound.hasNext()).isTrue();
+        Assertions.assertThat(usersFound.positionAt(0)).isEqualTo(ScrollPosition.forward(Map.of("lastName", "santos", "id", 1L)));
+    }
+
+    @Test
+    @DisplayName("search seeks after the cursor keys when cursor is given")
+    @Order(21)
+    void search_SeeksAfterCursorKeys_WhenCursorIsGiven() {
+        var cursor = ScrollCursor.decode(new ScrollCursor("emailDomain", Map.of("emailDomain", "email.com", "id", 1)).encode());
+        BDDMockito.when(repository.searchByPrefix(UserSearchField.EMAIL_DOMAIN, "email", "email.com", 1L, 3))
+                .thenReturn(summariesList.subList(1, 3));
+
+        var usersFound = service.search(UserSearchField.EMAIL_DOMAIN, "Email", cursor, 2);
+
+        Assertions.assertThat(usersFound.getContent()).containsExactlyElementsOf(summariesList.subList(1, 3));
+        Assertions.assertThat(usersFound.hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("search throws BadRequestException when prefix is blank")
+    @Order(22)
+    void search_ThrowsBadRequestException_WhenPrefixIsBlank() {
+        Assertions.assertThatException()
+                .isThrownBy(() -> service.search(UserSearchField.FIRST_NAME, " ", null, 20))
+                .isInstanceOf(BadRequestException.class);
+
+        BDDMockito.verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("findAllByIds returns users in request order and the ids that were not found")
+    @Order(23)
+    void findAllByIds_ReturnsUsersAndMissingIds_WhenSomeIdsDoNotExist() {
+        BDDMockito.when(repository.findSummariesByIdIn(List.of(3L, 1L, 42L))).thenReturn(List.of(summariesList.get(0), summariesList.get(2)));
+
+        var lookupResult = service.findAllByIds(List.of(3L, 1L, 3L, 42L));
+
+        Assertions.assertThat(lookupResult.users()).containsExactly(summariesList.get(2), summariesList.get(0));
+        Assertions.assertThat(lookupResult.missingIds()).containsExactly(42L);
+    }
+
+    @Test
+    @DisplayName("findAllByIds splits large id sets into chunked IN queries")
+    @Order(24)
+    void findAllByIds_QueriesInChunks_WhenIdsExceedChunkSize() {
+        var ids = LongStream.rangeClosed(1, UserService.LOOKUP_CHUNK_SIZE + 1).boxed().toList();
+        BDDMockito.when(repository.findSummariesByIdIn(any())).thenReturn(Collections.emptyList());
+
+        var lookupResult = service.findAllByIds(ids);
+
+        BDDMockito.then(repository).should().findSummariesByIdIn(ids.subList(0, UserService.LOOKUP_CHUNK_SIZE));
+        BDDMockito.then(repository).should().findSummariesByIdIn(List.of(UserService.LOOKUP_CHUNK_SIZE + 1L));
+        Assertions.assertThat(lookupResult.users()).isEmpty();
+        Assertions.assertThat(lookupResult.missingIds()).containsExactlyElementsOf(ids);
+    }
+
+    @Test
+    @DisplayName("deleteChunk removes the user profiles before the users and evicts every deleted user")
+    @Order(25)
+    void deleteChunk_RemovesUserProfilesThenUsers_WhenSuccessfull() {
+        var cachedUser = usersList.getFirst();
+        var ids = List.of(1L, 2L, 3L);
+        BDDMockito.when(repository.findIdsByIdIn(List.of(1L, 2L, 3L, 42L))).thenReturn(ids);
+        BDDMockito.when(userProfileRepository.deleteByUserIdIn(ids)).thenReturn(2);
+        BDDMockito.when(repository.deleteUsersByIdIn(ids)).thenReturn(3);
+        BDDMockito.when(userDetailsCache.evictAllById(Set.copyOf(ids))).thenReturn(List.of(cachedUser));
+
+        var deleteCount = service.deleteChunk(List.of(1L, 2L, 3L, 42L));
+
+        Assertions.assertThat(deleteCount).isEqualTo(new UserDeleteCount(3, 2));
+        var inOrder = Mockito.inOrder(userProfileRepository, repository);
+        inOrder.verify(repository).insertTombstonesByIdIn(ids);
+        inOrder.verify(userProfileRepository).deleteByUserIdIn(ids);
+        inOrder.verify(repository).deleteUsersByIdIn(ids);
+        BDDMockito.then(verifiedCredentialCache).should().evict(cachedUser.getPassword());
+        BDDMockito.then(tokenRevocationList).should().revoke(3L);
+        BDDMockito.then(userVersionCache).should().evictAll(ids);
+        BDDMockito.then(userVersionCache).should().evictCollection();
+        BDDMockito.then(outboxWriter).should().recordAll(OutboxAggregateType.USER, OutboxEventType.DELETED,
+                Map.of(1L, UserEventPayload.deleted(1L), 2L, UserEventPayload.deleted(2L), 3L, UserEventPayload.deleted(3L)));
+        BDDMockito.then(readYourWrites).should().markWrite();
+    }
+
+    @Test
+    @DisplayName("deleteChunk writes nothing when none of the ids exist")
+    @Order(26)
+    void deleteChunk_WritesNothing_WhenNoIdExists() {
+        BDDMockito.when(repository.findIdsByIdIn(List.of(42L))).thenReturn(List.of());
+
+        var deleteCount = service.deleteChunk(List.of(42L));
+
+        Assertions.assertThat(deleteCount).isEqualTo(new UserDeleteCount(0, 0));
+        BDDMockito.then(userProfileRepository).shouldHaveNoInteractions();
+        BDDMockito.then(outboxWriter).shouldHaveNoInteractions();
+    }
+
+    @Test
+    @DisplayName("update with an expected version returns the next version when the row was updated")
+    @Order(27)
+    void update_ReturnsNextVersion_WhenExpectedVersionMatches() {
+        var userToUpdate = usersList.getFirst().withPassword(null);
+        var id = userToUpdate.getId();
+        BDDMockito.when(repository.updateByIdAndVersion(id, userToUpdate.getFirstName(), userToUpdate.getLastName(),
+                userToUpdate.getEmail(), null, 3L)).thenReturn(1);
+
+        Assertions.assertThat(service.update(userToUpdate, 3L)).isEqualTo(4L);
+        BDDMockito.then(userVersionCache).should().evict(id);
+        BDDMockito.then(outboxWriter).should().record(ArgumentMatchers.eq(OutboxAggregateType.USER), ArgumentMatchers.eq(id),
+                ArgumentMatchers.eq(OutboxEventType.UPDATED), any());
+    }
+
+    @Test
+    @DisplayName("update with an expected version throws PreconditionFailedException without reading the user when it is stale")
+    @Order(28)
+    void update_ThrowsPreconditionFailedException_WhenExpectedVersionIsStale() {
+        var userToUpdate = usersList.getFirst();
+        BDDMockito.when(repository.updateByIdAndVersion(ArgumentMatchers.anyLong(), any(), any(), any(), any(), ArgumentMatchers.anyLong()))
+                .thenReturn(0);
+
+        Assertions.assertThatException()
+                .isThrownBy(() -> service.update(userToUpdate, 3L))
+                .isInstanceOf(PreconditionFailedException.class);
+        BDDMockito.then(repository).should(BDDMockito.never()).findById(any());
+        BDDMockito.then(outboxWriter).shouldHaveNoInteractions();
+    }
+
+    @Test
+    @DisplayName("patch writes only the password column and revokes tokens when only a password is given")
+    @Order(29)
+    void patch_WritesOnlyPasswordAndRevokesTokens_WhenOnlyPasswordIsGiven() {
+        var user = userUtils.toSummary(usersList.getFirst().withVersion(2L));
+        var id = user.id();
+        BDDMockito.when(repository.patchById(id, Map.of(UserColumn.PASSWORD, "{bcrypt}encoded"), null)).thenReturn(1);
+        BDDMockito.when(repository.findSummaryById(id)).thenReturn(Optional.of(user));
+
+        var patched = service.patch(id, User.builder().password("{bcrypt}encoded").build(), null);
+
+        Assertions.assertThat(patched).isEqualTo(user);
+        BDDMockito.then(tokenRevocationList).should().revoke(id);
+        BDDMockito.then(userDetailsCache).should().evict(user.email());
+        BDDMockito.then(outboxWriter).should().record(OutboxAggregateType.USER, id, OutboxEventType.UPDATED,
+                new UserEventPayload(id, user.firstName(), user.lastName(), user.email()));
+    }
+
+    @Test
+    @DisplayName("patch writes nothing when the patch is empty but still checks the expected version")
+    @Order(30)
+    void patch_WritesNothing_WhenPatchIsEmpty() {
+        var user = userUtils.toSummary(usersList.getFirst().withVersion(2L));
+        BDDMockito.when(repository.findSummaryById(user.id())).thenReturn(Optional.of(user));
+
+        Assertions.assertThat(service.patch(user.id(), new User(), 2L)).isEqualTo(user);
+        Assertions.assertThatException()
+                .isThrownBy(() -> service.patch(user.id(), new User(), 1L))
+                .isInstanceOf(PreconditionFailedException.class);
+        BDDMockito.then(repository).should(BDDMockito.never()).patchById(any(), any(), any());
+        BDDMockito.then(outboxWriter).shouldHaveNoInteractions();
+    }
+
+    @Test
+    @DisplayName("update evicts the principal again and revokes tokens after the commit when a login reads the old row before it")
+    @Order(31)
+    void update_EvictsPrincipalAfterCommit_WhenLoginRunsBeforeCommit() {
+        var detailsCache = new UserDetailsCache(new UserDetailsCacheProperties(100, Duration.ofMinutes(2)));
+        var revocationList = new TokenRevocationList(new TokenProperties(null, "user-service", Duration.ofMinutes(15), 100, Duration.ofSeconds(60)));
+        var transactionalService = new UserService(repository, userProfileRepository, detailsCache, verifiedCredentialCache,
+                revocationList, userVersionCache, readYourWrites, outboxWriter);
+        var oldUser = usersList.getFirst();
+        var id = oldUser.getId();
+        BDDMockito.when(repository.updateById(ArgumentMatchers.anyLong(), any(), any(), any(), any())).thenReturn(1);
+
+        runInTransaction(() -> transactionalService.update(oldUser.withPassword("{bcrypt}new-hash")), () -> {
+            detailsCache.get(oldUser.getEmail(), email -> oldUser);
+            Assertions.assertThat(revocationList.isRevoked(id, Instant.EPOCH)).isFalse();
+        });
+
+        Assertions.assertThat(detailsCache.get(oldUser.getEmail(), email -> null)).isNull();
+        Assertions.assertThat(revocationList.isRevoked(id, Instant.EPOCH)).isTrue();
+        BDDMockito.then(verifiedCredentialCache).should().evict(oldUser.getPassword());
+    }
+
+    @Test
+    @DisplayName("delete evicts the principal again and revokes tokens after the commit when a login reads the row before it")
+    @Order(32)
+    void delete_EvictsPrincipalAfterCommit_WhenLoginRunsBeforeCommit() {
+        var detailsCache = new UserDetailsCache(new UserDetailsCacheProperties(100, Duration.ofMinutes(2)));
+        var revocationList = new TokenRevocationList(new TokenProperties(null, "user-service", Duration.ofMinutes(15), 100, Duration.ofSeconds(60)));
+        var transactionalService = new UserService(repository, userProfileRepository, detailsCache, verifiedCredentialCache,
+                revocationList, userVersionCache, readYourWrites, outboxWriter);
+        var deletedUser = usersList.getFirst();
+        var id = deletedUser.getId();
+        BDDMockito.when(repository.deleteUserById(id)).thenReturn(1);
+
+        runInTransaction(() -> transactionalService.delete(id), () -> {
+            detailsCache.get(deletedUser.getEmail(), email -> deletedUser);
+            Assertions.assertThat(revocationList.isRevoked(id, Instant.EPOCH)).isFalse();
+        });
+
+        Assertions.assertThat(detailsCache.get(deletedUser.getEmail(), email -> null)).isNull();
+        Assertions.assertThat(revocationList.isRevoked(id, Instant.EPOCH)).isTrue();
+    }
+
+    // Runs write with transaction synchronization active, then beforeCommit, then the after commit and completion callbacks
+    private static void runInTransaction(Runnable write, Runnable beforeCommit) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            write.run();
+            beforeCommit.run();
+            var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+            TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
 }
\ No newline at end of file
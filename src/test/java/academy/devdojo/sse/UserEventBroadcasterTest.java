@@ -0,0 +1,47 @@
+package academy.devdojo.sse;
+
+import academy.devdojo.config.UserEventStreamProperties;
+import academy.devdojo.outbox.OutboxAggregateType;
+import academy.devdojo.outbox.OutboxEventType;
+import academy.devdojo.outbox.OutboxMessage;
+import academy.devdojo.outbox.OutboxRecorded;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.stream.LongStream;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class UserEventBroadcasterTest {
+    private static final int MAX_LAG = 4;
+    private SimpleMeterRegistry registry;
+    private UserEventBroadcaster broadcaster;
+
+    @BeforeEach
+    void init() {
+        registry = new SimpleMeterRegistry();
+        broadcaster = new UserEventBroadcaster(new UserEventStreamProperties(1000, MAX_LAG, 10, Duration.ofMinutes(1)));
+        broadcaster.bindTo(registry);
+    }
+
+    @Test
+    @DisplayName("onRecorded keeps the subscribers of a commit with more than max-lag user events and sends them a resync")
+    @Order(1)
+    void onRecorded_KeepsSubscribers_WhenBatchIsLargerThanMaxLag() {
+        broadcaster.subscribe(null);
+
+        broadcaster.onRecorded(recorded(500));
+
+        Assertions.assertThat(registry.get("users.events.dropped").counter().count()).isZero();
+        Assertions.assertThat(registry.get("users.events.subscribers").gauge().value()).isEqualTo(1);
+    }
+
+    private static OutboxRecorded recorded(int size) {
+        return new OutboxRecorded(LongStream.rangeClosed(1, size)
+                .mapToObj(id -> new OutboxMessage(id, OutboxAggregateType.USER, id, OutboxEventType.CREATED, "{\"id\":%d}".formatted(id),
+                        Instant.now()))
+                .toList());
+    }
+}
@@ -0,0 +1,5 @@
+-- A row without status is a reservation: the request with that key is running on some instance. It expires after
+-- reservation-timeout, so a request whose instance died can be run again, the response then overwrites it
+ALTER TABLE `idempotency_key`
+    MODIFY `status` smallint NULL,
+    MODIFY `body` text NULL;
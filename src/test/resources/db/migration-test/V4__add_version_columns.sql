@@ -0,0 +1,5 @@
+ALTER TABLE `user`
+    ADD COLUMN `version` bigint NOT NULL DEFAULT 0;
+
+ALTER TABLE `profile`
+    ADD COLUMN `version` bigint NOT NULL DEFAULT 0;
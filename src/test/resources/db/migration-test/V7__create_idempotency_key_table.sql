@@ -0,0 +1,9 @@
+CREATE TABLE `idempotency_key` (
+                                   `key_hash` char(64) NOT NULL,
+                                   `fingerprint` char(64) NOT NULL,
+                                   `status` smallint NOT NULL,
+                                   `body` text NOT NULL,
+                                   `expires_at` datetime(6) NOT NULL,
+                                   PRIMARY KEY (`key_hash`),
+                                   KEY `idx_idempotency_key_expires_at` (`expires_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
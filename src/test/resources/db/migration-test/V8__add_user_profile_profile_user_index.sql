@@ -0,0 +1,4 @@
+-- Covers "users of a profile" seeks in user_id order and takes over the profile_id foreign key from the single-column index
+ALTER TABLE `user_profile`
+    ADD KEY `idx_user_profile_profile_user` (`profile_id`, `user_id`),
+    DROP KEY `FKqfbftbxicceqbmvj87g9be2qn`;